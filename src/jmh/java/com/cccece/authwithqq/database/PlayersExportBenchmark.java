@@ -0,0 +1,184 @@
+package com.cccece.authwithqq.database;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the single ordered join in {@link DatabaseManager#getAllPlayersData()} with the
+ * former query-per-player path on a seeded SQLite database. The {@code rows} counter reports
+ * the exported players per second. Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayersExportBenchmark {
+  private static final String[] META_KEYS = {"server", "nickname", "note"};
+
+  @Param({"10000", "100000"})
+  public int players;
+
+  private Path tempDir;
+  private DatabaseManager databaseManager;
+  private Connection conn;
+
+  /**
+   * Exported players, counted per iteration so JMH reports them as a rate.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Rows {
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rows = 0;
+    }
+  }
+
+  /**
+   * Creates the database and seeds it with {@code players} players and their meta rows.
+   *
+   * @throws IOException If the temporary directory cannot be created.
+   * @throws SQLException If seeding fails.
+   */
+  @Setup
+  public void setUp() throws IOException, SQLException {
+    tempDir = Files.createTempDirectory("players-export");
+    String path = tempDir.resolve("data.db").toString();
+    databaseManager = new DatabaseManager(path, DatabaseOptions.fromConfig(null), Logger.getLogger("benchmark"));
+    conn = DriverManager.getConnection("jdbc:sqlite:" + path);
+    seed(conn, players);
+  }
+
+  /**
+   * Closes both connections and deletes the database.
+   *
+   * @throws IOException If the files cannot be deleted.
+   * @throws SQLException If the connection cannot be closed.
+   */
+  @TearDown
+  public void tearDown() throws IOException, SQLException {
+    conn.close();
+    databaseManager.close();
+    try (Stream<Path> files = Files.walk(tempDir)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public List<Map<String, String>> queryPerPlayer(Rows counter) throws SQLException {
+    List<Map<String, String>> data = queryPerPlayer(conn);
+    counter.rows += data.size();
+    return data;
+  }
+
+  @Benchmark
+  public List<Map<String, String>> orderedJoin(Rows counter) {
+    List<Map<String, String>> data = databaseManager.getAllPlayersData();
+    counter.rows += data.size();
+    return data;
+  }
+
+  /**
+   * Inserts players, a quarter of them unbound, each with one row per {@link #META_KEYS} key.
+   *
+   * @param conn The connection to the database.
+   * @param players The number of players.
+   * @throws SQLException If an insert fails.
+   */
+  private static void seed(Connection conn, int players) throws SQLException {
+    conn.setAutoCommit(false);
+    try (PreparedStatement player = conn.prepareStatement(
+             "INSERT INTO auth_players (uuid, name, qq, created_at) VALUES (?, ?, ?, ?)");
+         PreparedStatement meta = conn.prepareStatement(
+             "INSERT INTO player_meta (uuid, meta_key, meta_value) VALUES (?, ?, ?)")) {
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < players; i++) {
+        String uuid = UUID.randomUUID().toString();
+        player.setString(1, uuid);
+        player.setString(2, "Player" + i);
+        player.setLong(3, i % 4 == 0 ? 0 : 100_000_000L + i);
+        player.setLong(4, now - i * 1000L);
+        player.addBatch();
+        for (String key : META_KEYS) {
+          meta.setString(1, uuid);
+          meta.setString(2, key);
+          meta.setString(3, key + "-" + i);
+          meta.addBatch();
+        }
+      }
+      player.executeBatch();
+      meta.executeBatch();
+    }
+    conn.commit();
+    conn.setAutoCommit(true);
+  }
+
+  /**
+   * The export as it was before the join: one meta query per player on the same connection.
+   *
+   * @param conn The connection to the database.
+   * @return One map per player, as getAllPlayersData returns them.
+   * @throws SQLException If a query fails.
+   */
+  private static List<Map<String, String>> queryPerPlayer(Connection conn) throws SQLException {
+    List<Map<String, String>> data = new ArrayList<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM auth_players")) {
+      while (rs.next()) {
+        Map<String, String> playerMap = new HashMap<>();
+        String uuid = rs.getString("uuid");
+        playerMap.put("UUID", uuid);
+        playerMap.put("Name", rs.getString("name"));
+        playerMap.put("QQ", String.valueOf(rs.getLong("qq")));
+        playerMap.put("Created", String.valueOf(rs.getLong("created_at")));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+            "SELECT meta_key, meta_value FROM player_meta WHERE uuid = ?")) {
+          pstmt.setString(1, uuid);
+          try (ResultSet meta = pstmt.executeQuery()) {
+            while (meta.next()) {
+              playerMap.put(meta.getString("meta_key"), meta.getString("meta_value"));
+            }
+          }
+        }
+        data.add(playerMap);
+      }
+    }
+    return data;
+  }
+}
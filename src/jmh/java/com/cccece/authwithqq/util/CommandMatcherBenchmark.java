@@ -0,0 +1,142 @@
+package com.cccece.authwithqq.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link CommandMatcher} with the per-entry {@code startsWith} loop that
+ * GuestListener.onCommand used before. Each score is the time of a single check, averaged
+ * over a mix of allowed and rejected commands. Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandMatcherBenchmark {
+  // The default allow-list first, then what a server with other login and info plugins adds
+  private static final List<String> ALLOW_LIST = List.of(
+      "/login", "/register", "/bind", "/l", "/reg", "/log", "/captcha", "/email", "/changepassword",
+      "/unregister", "/authme help", "/help", "/rules", "/discord", "/qq", "/website", "/list",
+      "/msg", "/r", "/tell", "/w", "/lang", "/language", "/authwithqq:bind");
+  private static final String[] COMMANDS = {
+      "/login hunter2", "/bind 123456 987654321", "/BIND 123456 987654321", "/reg secret secret",
+      "/spawn", "/home base", "/tpa Steve", "/gamemode creative", "/authwithqq:bind 123456 1",
+      "/otherplugin:bind", "/authme help", "/authme reload", "/msg Alex hello there", "/bindx",
+      "/essentials:spawn", "/warp shop"};
+  private static final int COMMAND_COUNT = 16; // OperationsPerInvocation needs a constant
+  // Label -> plugin:name, as the server's command map would resolve it
+  private static final Map<String, String> COMMAND_MAP = new HashMap<>();
+
+  static {
+    for (String command : ALLOW_LIST) {
+      String label = command.substring(1).split(" ")[0];
+      COMMAND_MAP.put(label, "authme:" + label);
+    }
+    COMMAND_MAP.put("bind", "authwithqq:bind");
+    COMMAND_MAP.put("authwithqq:bind", "authwithqq:bind");
+    COMMAND_MAP.put("otherplugin:bind", "otherplugin:bind");
+    for (String label : List.of("spawn", "home", "tpa", "gamemode", "warp")) {
+      COMMAND_MAP.put(label, "essentials:" + label);
+      COMMAND_MAP.put("essentials:" + label, "essentials:" + label);
+    }
+  }
+
+  @Param({"3", "24"})
+  public int entries;
+
+  private List<String> prefixes;
+  private CommandMatcher matcher;
+  private UnaryOperator<String> resolver;
+
+  /**
+   * Builds both forms of the first {@code entries} commands of the allow-list.
+   */
+  @Setup
+  public void setUp() {
+    if (COMMANDS.length != COMMAND_COUNT) {
+      throw new IllegalStateException("COMMAND_COUNT must match the number of commands");
+    }
+    List<String> commands = ALLOW_LIST.subList(0, entries);
+    prefixes = new ArrayList<>();
+    for (String command : commands) {
+      prefixes.add(command.toLowerCase(Locale.ROOT));
+    }
+    matcher = CommandMatcher.compile(commands, "authwithqq");
+    resolver = COMMAND_MAP::get;
+  }
+
+  /**
+   * The former check: lower-case the message, then test every entry as a prefix.
+   *
+   * @return The number of allowed commands, so the work is not eliminated.
+   */
+  @Benchmark
+  @OperationsPerInvocation(COMMAND_COUNT)
+  public int prefixLoop() {
+    int allowed = 0;
+    for (String command : COMMANDS) {
+      String message = command.toLowerCase();
+      for (String prefix : prefixes) {
+        if (message.startsWith(prefix)) {
+          allowed++;
+          break;
+        }
+      }
+    }
+    return allowed;
+  }
+
+  /**
+   * The compiled matcher on its own, as for labels that are listed.
+   *
+   * @return The number of allowed commands.
+   */
+  @Benchmark
+  @OperationsPerInvocation(COMMAND_COUNT)
+  public int matcher() {
+    int allowed = 0;
+    for (String command : COMMANDS) {
+      if (matcher.matches(command)) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+
+  /**
+   * The compiled matcher as GuestListener calls it, resolving unlisted labels through a
+   * hash map standing in for the server's command map.
+   *
+   * @return The number of allowed commands.
+   */
+  @Benchmark
+  @OperationsPerInvocation(COMMAND_COUNT)
+  public int matcherWithResolver() {
+    int allowed = 0;
+    for (String command : COMMANDS) {
+      if (matcher.matches(command, resolver)) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+}
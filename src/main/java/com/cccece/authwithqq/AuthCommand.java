@@ -207,9 +207,14 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         return;
       }
 
-      plugin.getDatabaseManager().updateBinding(playerUuid, qq);
-      plugin.handleBindingChange(playerUuid, qq); // Update player's guest status
-      sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bind.force-bind-success", new HashMap<String, String>() {{ put("%player%", playerName); put("%uuid%", playerUuid.toString()); put("%qq%", String.valueOf(qq)); }}));
+      plugin.getDatabaseManager().updateBinding(playerUuid, qq).whenComplete((ignored, error) -> {
+        if (error != null) {
+          sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.database-error")); // Already logged
+          return;
+        }
+        plugin.handleBindingChange(playerUuid, qq); // Update player's guest status
+        sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bind.force-bind-success", new HashMap<String, String>() {{ put("%player%", playerName); put("%uuid%", playerUuid.toString()); put("%qq%", String.valueOf(qq)); }}));
+      });
     });
   }
 
@@ -236,25 +241,27 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         return;
       }
 
-      // Check bot limit
-      final int maxBotsPerPlayer = plugin.getConfig().getInt("binding.max-bots-per-player", 0);
-      int currentBotCount = plugin.getDatabaseManager().getBotCountForOwner(ownerUuid);
+      final int maxBotsPerPlayer = plugin.getSettings().getMaxBotsPerPlayer();
       if (maxBotsPerPlayer == 0) {
         // 0 means bot adding is disabled
         sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.bot-limit-reached", new HashMap<String, String>() {{ put("%owner%", ownerName); put("%limit%", "0"); }}));
         return;
-      } else if (maxBotsPerPlayer > 0 && currentBotCount >= maxBotsPerPlayer) {
-        // Positive number means limit check
-        sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.bot-limit-reached", new HashMap<String, String>() {{ put("%owner%", ownerName); put("%limit%", String.valueOf(maxBotsPerPlayer)); }}));
-        return;
       }
-      // Negative number means unlimited, allow adding
 
       // Generate a UUID for the bot (deterministic based on name for consistency if needed, or random)
       final UUID botUuid = UUID.nameUUIDFromBytes(("Bot-" + botName).getBytes(StandardCharsets.UTF_8));
 
-      plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName);
-      sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.add-success", new HashMap<String, String>() {{ put("%bot_name%", botName); put("%bot_uuid%", botUuid.toString()); put("%owner_name%", ownerName); put("%owner_uuid%", ownerUuid.toString()); }}));
+      // Positive limits are checked inside the write, negative ones mean unlimited
+      plugin.getDatabaseManager().markPlayerAsBotWithinLimit(botUuid, ownerUuid, botName, maxBotsPerPlayer)
+          .whenComplete((otherBots, error) -> {
+            if (error != null) {
+              sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.database-error")); // Already logged
+            } else if (maxBotsPerPlayer > 0 && otherBots >= maxBotsPerPlayer) {
+              sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.bot-limit-reached", new HashMap<String, String>() {{ put("%owner%", ownerName); put("%limit%", String.valueOf(maxBotsPerPlayer)); }}));
+            } else {
+              sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.add-success", new HashMap<String, String>() {{ put("%bot_name%", botName); put("%bot_uuid%", botUuid.toString()); put("%owner_name%", ownerName); put("%owner_uuid%", ownerUuid.toString()); }}));
+            }
+          });
     });
   }
 
@@ -267,8 +274,13 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
                 return;
             }
 
-            plugin.getDatabaseManager().deleteBot(botUuid);
-            sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.remove-success", new HashMap<String, String>() {{ put("%bot_name%", botName); }}));
+            plugin.getDatabaseManager().deleteBot(botUuid).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.database-error")); // Already logged
+                } else {
+                    sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.bot.remove-success", new HashMap<String, String>() {{ put("%bot_name%", botName); }}));
+                }
+            });
         });
     }
 
@@ -288,16 +300,22 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         return;
       }
 
-      plugin.getDatabaseManager().updateBinding(playerUuid, 0L); // Set QQ to 0 to unbind
+      // Set QQ to 0 to unbind
+      plugin.getDatabaseManager().updateBinding(playerUuid, 0L).whenComplete((ignored, error) -> {
+        if (error != null) {
+          sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.database-error")); // Already logged
+          return;
+        }
 
-      // If player is online, send message and unmark as guest
-      Player onlinePlayer = Bukkit.getPlayer(playerUuid);
-      if (onlinePlayer != null) {
-        onlinePlayer.sendMessage(plugin.getMessageManager().getMessage("messages.auth.unbind.success", new HashMap<String, String>() {{ put("%player%", playerName); }}));
-        plugin.handleBindingChange(playerUuid, 0L); // This will mark them as guest if online
-      }
+        // If player is online, send message and unmark as guest
+        Player onlinePlayer = Bukkit.getPlayer(playerUuid);
+        if (onlinePlayer != null) {
+          onlinePlayer.sendMessage(plugin.getMessageManager().getMessage("messages.auth.unbind.success", new HashMap<String, String>() {{ put("%player%", playerName); }}));
+          plugin.handleBindingChange(playerUuid, 0L); // This will mark them as guest if online
+        }
 
-      sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.unbind.success", new HashMap<String, String>() {{ put("%player%", playerName); }}));
+        sender.sendMessage(plugin.getMessageManager().getMessage("messages.auth.unbind.success", new HashMap<String, String>() {{ put("%player%", playerName); }}));
+      });
     });
   }
 
@@ -1,24 +1,34 @@
 package com.cccece.authwithqq;
 
+import com.cccece.authwithqq.auth.PasswordService;
+import com.cccece.authwithqq.auth.VerificationCodeStore;
+import com.cccece.authwithqq.auth.WebSessionStore;
 import com.cccece.authwithqq.database.DatabaseManager;
+import com.cccece.authwithqq.database.DatabaseOptions;
 import com.cccece.authwithqq.listener.GuestListener;
 import com.cccece.authwithqq.util.CsvManager;
+import com.cccece.authwithqq.util.TimingWheel;
 import com.cccece.authwithqq.web.InternalWebServer;
+import com.cccece.authwithqq.web.StatusSnapshotService;
+import com.cccece.authwithqq.web.WebServerOptions;
 import java.io.File;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.security.SecureRandom; // Placed after java.util.Objects for CustomImportOrder
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import com.cccece.authwithqq.util.MessageManager;
 import org.bukkit.Bukkit;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.mindrot.jbcrypt.BCrypt; // BCrypt for password hashing
 
 /**
  * Main class for the AuthWithQq plugin.
@@ -26,16 +36,23 @@ import org.mindrot.jbcrypt.BCrypt; // BCrypt for password hashing
 public class AuthWithQqPlugin extends JavaPlugin {
   private DatabaseManager databaseManager;
   private InternalWebServer webServer;
+  private StatusSnapshotService statusSnapshotService;
+  private WebSessionStore webSessionStore;
+  private PasswordService passwordService;
   private GuestListener guestListener;
   private CsvManager csvManager;
   private MessageManager messageManager; // Add this line
+  private volatile PluginSettings settings; // Replaced as a whole on reload
   private final SecureRandom random = new SecureRandom();
+  // One ticker expires verification codes, profile tokens and web sessions instead of a scheduler task each
+  private final TimingWheel expiryWheel = new TimingWheel(1000L, "AuthWithQq-Expiry", getLogger());
   private final long serverStartTime = System.currentTimeMillis(); // Server start timestamp
 
   // --- Today's Online Statistics (Memory-based) ---
   private final Map<UUID, Long> todayFirstJoinTime = new ConcurrentHashMap<>(); // UUID -> first join timestamp today
   private final Map<UUID, Long> todayTotalOnlineTime = new ConcurrentHashMap<>(); // UUID -> total online time in milliseconds
-  private int todayUniquePlayers = 0; // Count of unique players who joined today
+  private final Map<UUID, String> todayPlayerNames = new ConcurrentHashMap<>(); // UUID -> name, so stats never hit the database
+  private volatile int todayUniquePlayers = 0; // Count of unique players who joined today
   private long todayResetTime = System.currentTimeMillis(); // When today's stats were reset
 
   // --- Recent Player Activities (Memory Queue) ---
@@ -58,6 +75,23 @@ public class AuthWithQqPlugin extends JavaPlugin {
   public void onEnable() {
     // Save default config
     saveDefaultConfig();
+    settings = PluginSettings.fromConfig(getConfig(), getLogger());
+
+    expiryWheel.start();
+
+    // BCrypt runs on its own bounded pool, never on the server or HTTP threads
+    passwordService = new PasswordService(
+        getConfig().getInt("binding.web-password-hashing.cost", 10),
+        getConfig().getInt("binding.web-password-hashing.threads", 0),
+        getConfig().getInt("binding.web-password-hashing.queue-size", 32),
+        getLogger());
+    long targetHashMillis = getConfig().getLong("binding.web-password-hashing.target-ms", 0L);
+    if (targetHashMillis > 0) {
+      passwordService.calibrate(targetHashMillis).exceptionally(error -> {
+        getLogger().log(Level.WARNING, "Could not calibrate BCrypt cost, keeping " + passwordService.getCost(), error);
+        return null;
+      });
+    }
 
     // Initialize MessageManager
     messageManager = new MessageManager(this); // Add this line
@@ -72,7 +106,16 @@ public class AuthWithQqPlugin extends JavaPlugin {
       }
     }
     databaseManager = new DatabaseManager(new File(dataFolder, "data.db").getAbsolutePath(),
-        getLogger());
+        DatabaseOptions.fromConfig(getConfig().getConfigurationSection("database")), getLogger());
+    // Players still online across a plugin reload would otherwise all miss the binding cache
+    List<UUID> onlinePlayers = getServer().getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+    if (!onlinePlayers.isEmpty()) {
+      getServer().getScheduler().runTaskAsynchronously(this, () -> databaseManager.preloadBindings(onlinePlayers));
+    }
+
+    // Web login sessions are persisted so a restart does not log everyone out
+    webSessionStore = new WebSessionStore(databaseManager, expiryWheel, getLogger());
+    webSessionStore.start();
 
     // Initialize CsvManager
     csvManager = new CsvManager(this, databaseManager, getLogger());
@@ -84,10 +127,17 @@ public class AuthWithQqPlugin extends JavaPlugin {
     // Initialize Commands
     registerCommands();
 
+    // Start the status sampler before the web server that serves it
+    statusSnapshotService = new StatusSnapshotService(this,
+        getConfig().getInt("server.status.refresh-ticks", 20),
+        getConfig().getLong("server.status.tick-budget-us", 1000L));
+    statusSnapshotService.start();
+
     // Start Web Server
     int port = getConfig().getInt("server.port", 8081);
     String token = getConfig().getString("server.token", "changeme");
-    webServer = new InternalWebServer(this, port, token);
+    WebServerOptions webOptions = WebServerOptions.fromConfig(getConfig().getConfigurationSection("server.executor"));
+    webServer = new InternalWebServer(this, port, token, webOptions);
     getServer().getScheduler().runTaskAsynchronously(this, () -> webServer.start());
 
     // Schedule daily reset task for today's statistics
@@ -120,6 +170,19 @@ public class AuthWithQqPlugin extends JavaPlugin {
     if (webServer != null) {
       webServer.stop();
     }
+    if (statusSnapshotService != null) {
+      statusSnapshotService.stop();
+    }
+    if (webSessionStore != null) {
+      webSessionStore.close();
+    }
+    if (databaseManager != null) {
+      databaseManager.close();
+    }
+    if (passwordService != null) {
+      passwordService.close();
+    }
+    expiryWheel.close();
     getLogger().info("AuthWithQq has been disabled!");
   }
 
@@ -133,6 +196,49 @@ public class AuthWithQqPlugin extends JavaPlugin {
     return databaseManager;
   }
 
+  /**
+   * Gets the shared expiry wheel for short-lived in-memory entries.
+   *
+   * @return The TimingWheel.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "TimingWheel is a shared service, not meant for defensive copying.")
+  public TimingWheel getExpiryWheel() {
+    return expiryWheel;
+  }
+
+  /**
+   * Gets the current settings snapshot. Callers that read several values should keep the
+   * returned instance so they all come from the same configuration version.
+   *
+   * @return The immutable settings.
+   */
+  public PluginSettings getSettings() {
+    return settings;
+  }
+
+  /**
+   * Reloads config.yml from disk, publishes a fresh settings snapshot and drops the compiled
+   * message templates.
+   */
+  @Override
+  public void reloadConfig() {
+    super.reloadConfig();
+    settings = PluginSettings.fromConfig(getConfig(), getLogger());
+    if (messageManager != null) {
+      messageManager.clearCache();
+    }
+  }
+
+  /**
+   * Gets the StatusSnapshotService instance.
+   *
+   * @return The StatusSnapshotService.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "StatusSnapshotService is a shared service, not meant for defensive copying.")
+  public StatusSnapshotService getStatusSnapshotService() {
+    return statusSnapshotService;
+  }
+
   /**
    * Gets the CsvManager instance.
    *
@@ -202,7 +308,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
       return result;
     }
     for (String param : query.split("&")) {
-      String[] entry = param.split("=");
+      String[] entry = param.split("=", 2); // Values such as meta=key=value may contain '='
       if (entry.length > 1) {
         result.put(entry[0], entry[1]);
       } else {
@@ -218,11 +324,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return A numeric string code.
    */
   public String generateCode() {
-    int length = getConfig().getInt("binding.code-length", 6);
-    if (length < 4 || length > 8) {
-      getLogger().warning("Invalid code-length configured. Defaulting to 6.");
-      length = 6;
-    }
+    int length = getCodeLength();
     StringBuilder code = new StringBuilder();
     for (int i = 0; i < length; i++) {
       code.append(random.nextInt(10)); // 0-9
@@ -230,40 +332,26 @@ public class AuthWithQqPlugin extends JavaPlugin {
     return code.toString();
   }
 
-  // --- Verification Code Management ---
-  private final Map<UUID, VerificationCodeEntry> playerVerificationCodes = new HashMap<>();
-
-  // Inner class to hold verification code and its generation timestamp
-  private static class VerificationCodeEntry {
-    final String code;
-    final long timestamp;
+  private int getCodeLength() {
+    return settings.getCodeLength();
+  }
 
-    VerificationCodeEntry(String code, long timestamp) {
-      this.code = code;
-      this.timestamp = timestamp;
-    }
+  private long getCodeExpirationMillis() {
+    return settings.getCodeExpirationMillis();
   }
 
+  // --- Verification Code Management ---
+  private final VerificationCodeStore verificationCodes = new VerificationCodeStore(random, expiryWheel);
+
   /**
    * Retrieves an existing verification code for a player or generates a new one if expired or not found.
+   * A new code is never one that is currently live for another player.
    *
    * @param uuid The player's UUID.
    * @return The verification code.
    */
   public String getOrCreateCode(UUID uuid) {
-    int codeExpiration = getConfig().getInt("binding.code-expiration", 300); // Default 300 seconds
-    VerificationCodeEntry entry = playerVerificationCodes.get(uuid);
-    String verificationCode;
-
-    if (entry != null && (System.currentTimeMillis() - entry.timestamp) < (codeExpiration * 1000L)) {
-      // Use existing code if not expired
-      verificationCode = entry.code;
-    } else {
-      // Generate new code and store with current timestamp
-      verificationCode = generateCode();
-      playerVerificationCodes.put(uuid, new VerificationCodeEntry(verificationCode, System.currentTimeMillis()));
-    }
-    return verificationCode;
+    return verificationCodes.getOrCreate(uuid, getCodeLength(), getCodeExpirationMillis());
   }
 
   /**
@@ -274,12 +362,28 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return true if the code is valid and not expired, false otherwise.
    */
   public boolean isValidCode(String code, UUID uuid) {
-    int codeExpiration = getConfig().getInt("binding.code-expiration", 300); // Default 300 seconds
-    VerificationCodeEntry entry = playerVerificationCodes.get(uuid);
+    return verificationCodes.isValid(code, uuid, getCodeExpirationMillis());
+  }
+
+  /**
+   * Validates a player's verification code and removes it in the same step, so a code can
+   * only be used by one bind request.
+   *
+   * @param code The code to validate.
+   * @param uuid The player's UUID.
+   * @return The consumed code, or null if it is invalid or expired.
+   */
+  public VerificationCodeStore.Entry consumeCode(String code, UUID uuid) {
+    return verificationCodes.consume(code, uuid, getCodeExpirationMillis());
+  }
 
-    return entry != null
-        && entry.code.equals(code)
-        && (System.currentTimeMillis() - entry.timestamp) < (codeExpiration * 1000L);
+  /**
+   * Gives back a code taken by {@link #consumeCode} when the bind it was used for was rejected.
+   *
+   * @param entry The consumed code.
+   */
+  public void restoreCode(VerificationCodeStore.Entry entry) {
+    verificationCodes.restore(entry, getCodeExpirationMillis());
   }
 
   /**
@@ -288,12 +392,12 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @param uuid The player's UUID.
    */
   public void invalidateCode(UUID uuid) {
-    playerVerificationCodes.remove(uuid);
+    verificationCodes.invalidate(uuid);
   }
 
   /**
    * Finds a player's UUID and name by their verification code.
-   * This method is designed to be thread-safe for read operations.
+   * Safe to call from any thread; the lookup is a single index probe.
    *
    * @param code The verification code to search for.
    * @return A map containing "uuid" and "name", or null if not found or expired.
@@ -302,38 +406,71 @@ public class AuthWithQqPlugin extends JavaPlugin {
     if (code == null || code.isEmpty()) {
       return null;
     }
-    int codeExpiration = getConfig().getInt("binding.code-expiration", 300); // Default 300 seconds
-
-    for (Map.Entry<UUID, VerificationCodeEntry> entry : playerVerificationCodes.entrySet()) {
-      VerificationCodeEntry verificationEntry = entry.getValue();
-      if (verificationEntry.code.equals(code)) {
-        // Check if the code is expired
-        if ((System.currentTimeMillis() - verificationEntry.timestamp) < (codeExpiration * 1000L)) {
-          UUID playerUuid = entry.getKey();
-          String playerName = Bukkit.getOfflinePlayer(playerUuid).getName();
-
-          Map<String, String> playerInfo = new HashMap<>();
-          playerInfo.put("uuid", playerUuid.toString());
-          playerInfo.put("name", playerName != null ? playerName : "");
-          return playerInfo;
-        } else {
-          // Code found but expired
-          return null;
-        }
-      }
+    VerificationCodeStore.Entry entry = verificationCodes.find(code, getCodeExpirationMillis());
+    if (entry == null) {
+      return null; // Code not found or expired
     }
-    return null; // Code not found
+    UUID playerUuid = entry.getUuid();
+    // Codes belong to guests who are usually online; only fall back to the offline profile lookup otherwise
+    Player online = Bukkit.getPlayer(playerUuid);
+    String playerName = online != null ? online.getName() : Bukkit.getOfflinePlayer(playerUuid).getName();
+
+    Map<String, String> playerInfo = new HashMap<>();
+    playerInfo.put("uuid", playerUuid.toString());
+    playerInfo.put("name", playerName != null ? playerName : "");
+    return playerInfo;
+  }
+
+  /**
+   * Gets the metrics of the expiry wheel and the number of live entries it manages.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getExpiryStats() {
+    Map<String, Number> stats = new LinkedHashMap<>(expiryWheel.getStats());
+    stats.put("live_verification_codes", verificationCodes.getStats().get("live_codes"));
+    stats.put("live_profile_tokens", playerProfileSessionTokens.size());
+    stats.put("live_web_sessions", webSessionStore.getStats().get("cached_sessions"));
+    return stats;
+  }
+
+  /**
+   * Gets the guest actionbar reminder metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getGuestPromptStats() {
+    return guestListener.getPromptStats();
+  }
+
+  /**
+   * Gets the pre-login preload metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getLoginPreloadStats() {
+    return guestListener.getPreloadStats();
+  }
+
+  /**
+   * Gets the verification code store metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getVerificationCodeStats() {
+    return verificationCodes.getStats();
   }
 
   // --- Profile Session Token Management ---
-  private final Map<String, ProfileSessionTokenEntry> playerProfileSessionTokens = new HashMap<>(); // Token -> Entry
-  private final Map<UUID, String> playerToTokenMap = new HashMap<>(); // Player UUID -> Token for quick lookup
+  private final Map<String, ProfileSessionTokenEntry> playerProfileSessionTokens = new ConcurrentHashMap<>(); // Token -> Entry
+  private final Map<UUID, String> playerToTokenMap = new ConcurrentHashMap<>(); // Player UUID -> Token for quick lookup
 
   // Inner class to hold profile session token and its generation timestamp
   private static class ProfileSessionTokenEntry {
     final UUID uuid;
     final String token;
     final long timestamp;
+    volatile TimingWheel.Timeout expiry;
 
     ProfileSessionTokenEntry(UUID uuid, String token, long timestamp) {
       this.uuid = uuid;
@@ -353,28 +490,34 @@ public class AuthWithQqPlugin extends JavaPlugin {
     // Invalidate any existing token for this player
     String existingToken = playerToTokenMap.remove(uuid);
     if (existingToken != null) {
-      playerProfileSessionTokens.remove(existingToken);
+      removeProfileSessionToken(existingToken);
     }
 
-    int tokenExpiration = getConfig().getInt("binding.profile-token-expiration", 300); // Default 300 seconds
+    long tokenExpirationMillis = settings.getProfileTokenExpirationMillis();
     String token = UUID.randomUUID().toString(); // Generate a random UUID as token
 
-    playerProfileSessionTokens.put(token, new ProfileSessionTokenEntry(uuid, token, System.currentTimeMillis()));
+    ProfileSessionTokenEntry newEntry = new ProfileSessionTokenEntry(uuid, token, System.currentTimeMillis());
+    playerProfileSessionTokens.put(token, newEntry);
     playerToTokenMap.put(uuid, token); // Store reverse mapping
 
-    // Schedule task to remove token after expiration
-    getServer().getScheduler().runTaskLater(this, () -> {
-      ProfileSessionTokenEntry entry = playerProfileSessionTokens.get(token);
-      if (entry != null && entry.uuid.equals(uuid)) { // Ensure it's the same token
-        playerProfileSessionTokens.remove(token);
-        playerToTokenMap.remove(uuid);
+    // Remove token after expiration
+    newEntry.expiry = expiryWheel.schedule(tokenExpirationMillis, () -> {
+      if (playerProfileSessionTokens.remove(token, newEntry)) { // Ensure it's the same token
+        playerToTokenMap.remove(uuid, token);
         getLogger().info("Profile session token for " + uuid + " expired and removed.");
       }
-    }, tokenExpiration * 20L); // 20 ticks per second
+    });
 
     return token;
   }
 
+  private void removeProfileSessionToken(String token) {
+    ProfileSessionTokenEntry entry = playerProfileSessionTokens.remove(token);
+    if (entry != null && entry.expiry != null) {
+      entry.expiry.cancel();
+    }
+  }
+
   /**
    * Gets the UUID associated with a profile session token without consuming it.
    * Used for viewing profile data.
@@ -383,10 +526,10 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return The UUID of the player associated with the token, or null if invalid or expired.
    */
   public UUID getProfileSessionTokenUuid(String token) {
-    int tokenExpiration = getConfig().getInt("binding.profile-token-expiration", 300); // Default 300 seconds
+    long tokenExpirationMillis = settings.getProfileTokenExpirationMillis();
     ProfileSessionTokenEntry entry = playerProfileSessionTokens.get(token);
 
-    if (entry != null && (System.currentTimeMillis() - entry.timestamp) < (tokenExpiration * 1000L)) {
+    if (entry != null && (System.currentTimeMillis() - entry.timestamp) < tokenExpirationMillis) {
       // Token is valid, but don't remove it (for viewing)
       return entry.uuid;
     }
@@ -402,35 +545,19 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return The UUID of the player associated with the token, or null if invalid or expired.
    */
   public UUID validateProfileSessionToken(String token) {
-    int tokenExpiration = getConfig().getInt("binding.profile-token-expiration", 300); // Default 300 seconds
+    long tokenExpirationMillis = settings.getProfileTokenExpirationMillis();
     ProfileSessionTokenEntry entry = playerProfileSessionTokens.get(token);
 
-    if (entry != null && (System.currentTimeMillis() - entry.timestamp) < (tokenExpiration * 1000L)) {
+    if (entry != null && (System.currentTimeMillis() - entry.timestamp) < tokenExpirationMillis) {
       // Token is valid, remove it after first use for security (single-use)
-      playerProfileSessionTokens.remove(token);
-      playerToTokenMap.remove(entry.uuid);
+      removeProfileSessionToken(token);
+      playerToTokenMap.remove(entry.uuid, token);
       return entry.uuid;
     }
     return null;
   }
 
   // --- Web Login Session Management ---
-  private final Map<String, WebLoginSessionEntry> webLoginSessions = new HashMap<>(); // Token -> Entry
-
-  // Inner class to hold web login session token and its expiration
-  public static class WebLoginSessionEntry {
-    public final UUID uuid;
-    public final String token;
-    public final long createdAt;
-    public final long expiresAt;
-
-    WebLoginSessionEntry(UUID uuid, String token, long createdAt, long expiresAt) {
-      this.uuid = uuid;
-      this.token = token;
-      this.createdAt = createdAt;
-      this.expiresAt = expiresAt;
-    }
-  }
 
   /**
    * Creates a new web login session token for a player.
@@ -439,25 +566,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return The generated session token string.
    */
   public String createWebLoginSession(UUID uuid) {
-    int sessionExpiration = getConfig().getInt("binding.web-session-expiration", 1440); // Default 1440 minutes (24 hours)
-    String token = UUID.randomUUID().toString();
-    long now = System.currentTimeMillis();
-    long expiresAt = sessionExpiration > 0 ? now + (sessionExpiration * 60L * 1000L) : Long.MAX_VALUE;
-
-    webLoginSessions.put(token, new WebLoginSessionEntry(uuid, token, now, expiresAt));
-
-    // Schedule task to remove token after expiration (if expiration is set)
-    if (sessionExpiration > 0) {
-      getServer().getScheduler().runTaskLater(this, () -> {
-        WebLoginSessionEntry entry = webLoginSessions.get(token);
-        if (entry != null && entry.token.equals(token)) {
-          webLoginSessions.remove(token);
-          getLogger().info("Web login session token for " + uuid + " expired and removed.");
-        }
-      }, sessionExpiration * 60L * 20L); // Convert minutes to ticks
-    }
-
-    return token;
+    return webSessionStore.create(uuid, settings.getWebSessionExpirationMillis()).token;
   }
 
   /**
@@ -467,18 +576,8 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @return The UUID of the player associated with the token, or null if invalid or expired.
    */
   public UUID validateWebLoginSessionToken(String token) {
-    if (token == null || token.isEmpty()) {
-      return null;
-    }
-    WebLoginSessionEntry entry = webLoginSessions.get(token);
-    if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
-      return entry.uuid;
-    }
-    // Token expired or not found, remove it
-    if (entry != null) {
-      webLoginSessions.remove(token);
-    }
-    return null;
+    WebSessionStore.Session session = webSessionStore.get(token);
+    return session != null ? session.uuid : null;
   }
 
   /**
@@ -487,7 +586,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @param token The session token string.
    */
   public void revokeWebLoginSession(String token) {
-    webLoginSessions.remove(token);
+    webSessionStore.revoke(token);
   }
 
   /**
@@ -496,44 +595,72 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * @param token The session token string.
    * @return The session entry, or null if not found or expired.
    */
-  public WebLoginSessionEntry getWebLoginSession(String token) {
-    WebLoginSessionEntry entry = webLoginSessions.get(token);
-    if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
-      return entry;
-    }
-    if (entry != null) {
-      webLoginSessions.remove(token);
-    }
-    return null;
+  public WebSessionStore.Session getWebLoginSession(String token) {
+    return webSessionStore.get(token);
+  }
+
+  /**
+   * Gets the web login session store metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getWebSessionStats() {
+    return webSessionStore.getStats();
   }
 
   /**
-   * Verifies a password against a stored hash.
+   * Verifies a password against a stored hash on the password worker pool.
    *
    * @param password The plain text password.
    * @param hash The BCrypt hash.
-   * @return true if password matches, false otherwise.
+   * @return A future completed with true if the password matches; failed with a
+   *     {@link java.util.concurrent.RejectedExecutionException} if the pool is saturated.
    */
-  public boolean verifyPassword(String password, String hash) {
-    if (password == null || hash == null) {
-      return false;
-    }
-    try {
-      return BCrypt.checkpw(password, hash);
-    } catch (Exception e) {
-      getLogger().warning("Error verifying password: " + e.getMessage());
-      return false;
-    }
+  public CompletableFuture<Boolean> verifyPassword(String password, String hash) {
+    return passwordService.verify(password, hash);
   }
 
   /**
-   * Hashes a password using BCrypt.
+   * Hashes a password using BCrypt on the password worker pool.
    *
    * @param password The plain text password.
-   * @return The BCrypt hash.
+   * @return A future completed with the BCrypt hash; failed with a
+   *     {@link java.util.concurrent.RejectedExecutionException} if the pool is saturated.
+   */
+  public CompletableFuture<String> hashPassword(String password) {
+    return passwordService.hash(password);
+  }
+
+  /**
+   * Replaces a password hash made with an outdated cost once the password has been verified.
+   * Runs entirely in the background; a busy pool simply defers the upgrade to the next login.
+   *
+   * @param uuid The player's UUID.
+   * @param password The plain text password that matched the hash.
+   * @param hash The stored BCrypt hash.
+   */
+  public void upgradePasswordHash(UUID uuid, String password, String hash) {
+    passwordService.upgrade(password, hash).thenCompose(newHash -> newHash == null
+        ? CompletableFuture.completedFuture(null)
+        : databaseManager.replaceWebPasswordHash(uuid, hash, newHash));
+  }
+
+  /**
+   * Gets the password hashing metrics.
+   *
+   * @return A map of metric names to values.
    */
-  public String hashPassword(String password) {
-    return BCrypt.hashpw(password, BCrypt.gensalt());
+  public Map<String, Number> getPasswordStats() {
+    return passwordService.getStats();
+  }
+
+  /**
+   * Gets the plugin jar file, used to preload bundled web assets.
+   *
+   * @return The file the plugin was loaded from.
+   */
+  public java.io.File getPluginFile() {
+    return getFile();
   }
 
   /**
@@ -559,6 +686,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
       resetTodayStats();
     }
     
+    todayPlayerNames.put(uuid, playerName);
     // Record first join time if not already recorded today
     if (!todayFirstJoinTime.containsKey(uuid)) {
       todayFirstJoinTime.put(uuid, now);
@@ -614,6 +742,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
   private void resetTodayStats() {
     todayFirstJoinTime.clear();
     todayTotalOnlineTime.clear();
+    todayPlayerNames.clear();
     todayUniquePlayers = 0;
     todayResetTime = System.currentTimeMillis();
   }
@@ -683,6 +812,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
    * Gets today's online time for each player.
    * Returns a map of player names to their online time in milliseconds.
    * This includes both currently online players and players who have quit.
+   * Names come from the join records kept in memory, so this is safe to call from any thread.
    *
    * @return A map of player names to online time in milliseconds.
    */
@@ -697,16 +827,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
       long onlineTime = now - joinTime;
       
       // Get player name
-      String playerName = getDatabaseManager().getNameByUuid(uuid);
-      if (playerName == null) {
-        // Try to get from online players
-        Player player = getServer().getPlayer(uuid);
-        if (player != null) {
-          playerName = player.getName();
-        } else {
-          playerName = uuid.toString(); // Fallback to UUID
-        }
-      }
+      String playerName = todayPlayerNames.getOrDefault(uuid, uuid.toString()); // Fallback to UUID
       
       // Add to existing time if player has quit before
       Long existingTime = todayTotalOnlineTime.get(uuid);
@@ -722,10 +843,7 @@ public class AuthWithQqPlugin extends JavaPlugin {
       UUID uuid = entry.getKey();
       if (!todayFirstJoinTime.containsKey(uuid)) {
         // Player has quit, only use recorded time
-        String playerName = getDatabaseManager().getNameByUuid(uuid);
-        if (playerName == null) {
-          playerName = uuid.toString(); // Fallback to UUID
-        }
+        String playerName = todayPlayerNames.getOrDefault(uuid, uuid.toString()); // Fallback to UUID
         result.put(playerName, entry.getValue());
       }
     }
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 import com.cccece.authwithqq.util.MessageManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -111,8 +112,8 @@ public class BindCommand implements CommandExecutor, TabCompleter {
         }
 
         String sessionToken = plugin.createProfileSessionToken(player.getUniqueId());
-        String externalAddress = plugin.getConfig().getString("server.external-address", "127.0.0.1");
-        int port = plugin.getConfig().getInt("server.port", 8081);
+        String externalAddress = plugin.getSettings().getExternalAddress();
+        int port = plugin.getSettings().getPort();
         String profileLink = String.format("http://%s:%d/web/profile.html?token=%s", externalAddress, port, sessionToken);
 
         Component clickableLink = Component.text(profileLink)
@@ -131,24 +132,26 @@ public class BindCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        int maxBots = plugin.getConfig().getInt("binding.max-bots-per-player", 0);
-        int currentBotCount = plugin.getDatabaseManager().getBotCountForOwner(ownerUuid);
+        int maxBots = plugin.getSettings().getMaxBotsPerPlayer();
         if (maxBots == 0) {
             // 0 means bot adding is disabled
             player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.limit-reached", Collections.singletonMap("%limit%", "0")));
             return;
-        } else if (maxBots > 0 && currentBotCount >= maxBots) {
-            // Positive number means limit check
-            player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.limit-reached", Collections.singletonMap("%limit%", String.valueOf(maxBots))));
-            return;
         }
-        // Negative number means unlimited, allow adding
 
         UUID botUuid = UUID.nameUUIDFromBytes(("Bot-" + botName).getBytes(StandardCharsets.UTF_8));
-        
-        plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName);
-        
-        player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.add-success", Collections.singletonMap("%bot_name%", botName)));
+
+        // Positive limits are checked inside the write, negative ones mean unlimited
+        plugin.getDatabaseManager().markPlayerAsBotWithinLimit(botUuid, ownerUuid, botName, maxBots)
+            .whenComplete((otherBots, error) -> {
+                if (error != null) {
+                    player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.database-error")); // Already logged
+                } else if (maxBots > 0 && otherBots >= maxBots) {
+                    player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.limit-reached", Collections.singletonMap("%limit%", String.valueOf(maxBots))));
+                } else {
+                    player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.add-success", Collections.singletonMap("%bot_name%", botName)));
+                }
+            });
     }
 
     private void handleRemoveBot(Player player, String botName) {
@@ -167,30 +170,50 @@ public class BindCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        plugin.getDatabaseManager().deleteBot(botUuid);
-        player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.remove-success", Collections.singletonMap("%bot_name%", botName)));
+        plugin.getDatabaseManager().deleteBot(botUuid).whenComplete((ignored, error) -> {
+            if (error != null) {
+                player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.database-error")); // Already logged
+            } else {
+                player.sendMessage(plugin.getMessageManager().getMessage("messages.bind-command.bot.remove-success", Collections.singletonMap("%bot_name%", botName)));
+            }
+        });
     }
 
     private void handleSetPassword(Player player, String password) {
-        if (!plugin.getConfig().getBoolean("binding.web-login-enabled", true)) {
+        if (!plugin.getSettings().isWebLoginEnabled()) {
             player.sendMessage(Component.text("网页登录功能已禁用", NamedTextColor.RED));
             return;
         }
 
-        int minLength = plugin.getConfig().getInt("binding.web-password-min-length", 6);
+        int minLength = plugin.getSettings().getWebPasswordMinLength();
         if (password.length() < minLength) {
             player.sendMessage(Component.text("密码长度至少需要 " + minLength + " 个字符", NamedTextColor.RED));
             return;
         }
 
-        String passwordHash = plugin.hashPassword(password);
-        plugin.getDatabaseManager().setWebPasswordHash(player.getUniqueId(), passwordHash);
-        player.sendMessage(Component.text("密码设置成功！您现在可以在网页端登录", NamedTextColor.GREEN));
+        // BCrypt is slow by design, so hash on the password pool instead of stalling the tick
+        UUID uuid = player.getUniqueId();
+        plugin.hashPassword(password)
+            .thenCompose(passwordHash -> plugin.getDatabaseManager().setWebPasswordHash(uuid, passwordHash))
+            .whenComplete((ignored, error) -> {
+                if (error == null) {
+                    player.sendMessage(Component.text("密码设置成功！您现在可以在网页端登录", NamedTextColor.GREEN));
+                } else if (error instanceof RejectedExecutionException || error.getCause() instanceof RejectedExecutionException) {
+                    player.sendMessage(Component.text("服务器繁忙，请稍后再试", NamedTextColor.RED));
+                } else {
+                    player.sendMessage(Component.text("密码设置失败，请联系管理员", NamedTextColor.RED));
+                }
+            });
     }
 
     private void handleRemovePassword(Player player) {
-        plugin.getDatabaseManager().removeWebPassword(player.getUniqueId());
-        player.sendMessage(Component.text("密码已删除", NamedTextColor.GREEN));
+        plugin.getDatabaseManager().removeWebPassword(player.getUniqueId()).whenComplete((ignored, error) -> {
+            if (error == null) {
+                player.sendMessage(Component.text("密码已删除", NamedTextColor.GREEN));
+            } else {
+                player.sendMessage(Component.text("密码删除失败，请联系管理员", NamedTextColor.RED));
+            }
+        });
     }
 
     private void handlePasswordStatus(Player player) {
@@ -0,0 +1,245 @@
+package com.cccece.authwithqq;
+
+import com.cccece.authwithqq.util.CommandMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Immutable, typed snapshot of the settings read on hot paths.
+ *
+ * <p>Event handlers and web requests read these final fields instead of walking the
+ * configuration tree with string keys on every call. A new snapshot is built whenever the
+ * configuration is (re)loaded and replaces the previous one in a single volatile write, so a
+ * reader always sees one consistent version of every setting.
+ */
+public final class PluginSettings {
+  // The plugin name from plugin.yml, which Bukkit uses as the fallback prefix of our commands
+  private static final String COMMAND_NAMESPACE = "authwithqq";
+
+  private final int codeLength;
+  private final long codeExpirationMillis;
+  private final long profileTokenExpirationMillis;
+  private final long webSessionExpirationMillis;
+  private final boolean webLoginEnabled;
+  private final int webPasswordMinLength;
+  private final int maxAccountsPerQq;
+  private final int maxBotsPerPlayer;
+  private final List<Map<?, ?>> playerCustomFields;
+  private final List<Map<?, ?>> botCustomFields;
+  private final List<Map<?, ?>> legacyCustomFields;
+  private final boolean classifiedCustomFields;
+
+  private final Set<String> whitelistedPlayers;
+  private final boolean whitelistBypassOps;
+
+  private final boolean allowMove;
+  private final boolean allowInteract;
+  private final boolean allowWorldChange;
+  private final boolean allowFakePlayers;
+  private final boolean skipNpcStatistics;
+  private final String guestGameMode;
+  private final List<Map<?, ?>> guestPotionEffects;
+  private final CommandMatcher allowedCommands;
+  private final String verificationDisplayMethod;
+  private final long actionbarIntervalMillis;
+  private final String joinPromptTemplate;
+
+  private final String externalAddress;
+  private final int port;
+
+  private PluginSettings(ConfigurationSection config, Logger logger) {
+    int length = config.getInt("binding.code-length", 6);
+    if (length < 4 || length > 8) {
+      logger.warning("Invalid code-length configured. Defaulting to 6.");
+      length = 6;
+    }
+    this.codeLength = length;
+    this.codeExpirationMillis = config.getInt("binding.code-expiration", 300) * 1000L; // Default 300 seconds
+    this.profileTokenExpirationMillis = config.getInt("binding.profile-token-expiration", 300) * 1000L;
+    this.webSessionExpirationMillis = config.getInt("binding.web-session-expiration", 1440) * 60L * 1000L; // Default 24 hours
+    this.webLoginEnabled = config.getBoolean("binding.web-login-enabled", true);
+    this.webPasswordMinLength = config.getInt("binding.web-password-min-length", 6);
+    this.maxAccountsPerQq = config.getInt("binding.max-accounts-per-qq", 1);
+    this.maxBotsPerPlayer = config.getInt("binding.max-bots-per-player", 0);
+    this.classifiedCustomFields = config.isConfigurationSection("binding.custom-fields.player")
+        || config.isConfigurationSection("binding.custom-fields.bot");
+    this.playerCustomFields = copyMapList(config.getMapList("binding.custom-fields.player"));
+    this.botCustomFields = copyMapList(config.getMapList("binding.custom-fields.bot"));
+    this.legacyCustomFields = copyMapList(config.getMapList("binding.custom-fields"));
+
+    this.whitelistedPlayers = Set.copyOf(config.getStringList("whitelist.players"));
+    this.whitelistBypassOps = config.getBoolean("whitelist.bypass-ops", true);
+
+    this.allowMove = config.getBoolean("guest-mode.allow-move", true);
+    this.allowInteract = config.getBoolean("guest-mode.allow-interact", true);
+    this.allowWorldChange = config.getBoolean("guest-mode.allow-world-change", true);
+    this.allowFakePlayers = config.getBoolean("guest-mode.allow-fake-players", false);
+    this.skipNpcStatistics = config.getBoolean("guest-mode.skip-npc-statistics", true);
+    this.guestGameMode = config.getString("guest-mode.gamemode", "SURVIVAL").toUpperCase(Locale.ROOT);
+    this.guestPotionEffects = copyMapList(config.getMapList("guest-mode.potion-effects"));
+    this.allowedCommands = CommandMatcher.compile(config.getStringList("guest-mode.allowed-commands"), COMMAND_NAMESPACE);
+    this.verificationDisplayMethod = config.getString("guest-mode.verification-display-method", "BOTH").toUpperCase(Locale.ROOT);
+    this.actionbarIntervalMillis = Math.max(0L, config.getLong("guest-mode.actionbar-interval-ms", 1000L));
+    this.joinPromptTemplate = config.getString("messages.guest.join-prompt", "&6请绑定您的QQ，验证码：%code%。请访问 %web_link% 进行绑定。");
+
+    this.externalAddress = config.getString("server.external-address", "127.0.0.1");
+    this.port = config.getInt("server.port", 8081);
+  }
+
+  /**
+   * Builds a snapshot of the current configuration.
+   *
+   * @param config The plugin configuration.
+   * @param logger The logger for reporting invalid values.
+   * @return The parsed settings, falling back to defaults for missing or invalid values.
+   */
+  public static PluginSettings fromConfig(ConfigurationSection config, Logger logger) {
+    return new PluginSettings(config, logger);
+  }
+
+  private static List<Map<?, ?>> copyMapList(List<Map<?, ?>> maps) {
+    List<Map<?, ?>> copy = new ArrayList<>(maps.size());
+    for (Map<?, ?> map : maps) {
+      copy.add(Collections.unmodifiableMap(new LinkedHashMap<>(map))); // Keeps the configured key order
+    }
+    return List.copyOf(copy);
+  }
+
+  public int getCodeLength() {
+    return codeLength;
+  }
+
+  public long getCodeExpirationMillis() {
+    return codeExpirationMillis;
+  }
+
+  public long getProfileTokenExpirationMillis() {
+    return profileTokenExpirationMillis;
+  }
+
+  public long getWebSessionExpirationMillis() {
+    return webSessionExpirationMillis;
+  }
+
+  public boolean isWebLoginEnabled() {
+    return webLoginEnabled;
+  }
+
+  public int getWebPasswordMinLength() {
+    return webPasswordMinLength;
+  }
+
+  public int getMaxAccountsPerQq() {
+    return maxAccountsPerQq;
+  }
+
+  /**
+   * Gets the bot limit per owner.
+   *
+   * @return The limit; 0 disables bots, a negative value means unlimited.
+   */
+  public int getMaxBotsPerPlayer() {
+    return maxBotsPerPlayer;
+  }
+
+  /**
+   * Gets the custom profile fields for an account type.
+   *
+   * @param type "player" or "bot"; ignored when the old flat list format is configured.
+   * @return The field definitions; empty if the type is unknown.
+   */
+  public List<Map<?, ?>> getCustomFields(String type) {
+    if (!classifiedCustomFields) {
+      return legacyCustomFields; // Old format: flat list (backward compatibility)
+    }
+    if ("player".equals(type)) {
+      return playerCustomFields;
+    }
+    if ("bot".equals(type)) {
+      return botCustomFields;
+    }
+    return List.of();
+  }
+
+  public boolean isWhitelisted(String playerName) {
+    return whitelistedPlayers.contains(playerName);
+  }
+
+  public boolean isWhitelistBypassOps() {
+    return whitelistBypassOps;
+  }
+
+  public boolean isAllowMove() {
+    return allowMove;
+  }
+
+  public boolean isAllowInteract() {
+    return allowInteract;
+  }
+
+  public boolean isAllowWorldChange() {
+    return allowWorldChange;
+  }
+
+  public boolean isAllowFakePlayers() {
+    return allowFakePlayers;
+  }
+
+  public boolean isSkipNpcStatistics() {
+    return skipNpcStatistics;
+  }
+
+  /**
+   * Gets the configured guest game mode name, upper-cased but not validated.
+   *
+   * @return The game mode name.
+   */
+  public String getGuestGameMode() {
+    return guestGameMode;
+  }
+
+  public List<Map<?, ?>> getGuestPotionEffects() {
+    return guestPotionEffects;
+  }
+
+  /**
+   * Gets the compiled list of commands guests may use.
+   *
+   * @return The command matcher.
+   */
+  public CommandMatcher getAllowedCommands() {
+    return allowedCommands;
+  }
+
+  public String getVerificationDisplayMethod() {
+    return verificationDisplayMethod;
+  }
+
+  /**
+   * Gets the minimum time between two identical actionbar reminders to the same guest.
+   *
+   * @return The interval in milliseconds; 0 sends every reminder.
+   */
+  public long getActionbarIntervalMillis() {
+    return actionbarIntervalMillis;
+  }
+
+  public String getJoinPromptTemplate() {
+    return joinPromptTemplate;
+  }
+
+  public String getExternalAddress() {
+    return externalAddress;
+  }
+
+  public int getPort() {
+    return port;
+  }
+}
@@ -0,0 +1,288 @@
+package com.cccece.authwithqq.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, bounded worker pool.
+ *
+ * <p>BCrypt is deliberately slow, so it must never run on the server thread, and a burst of
+ * logins must not be able to occupy every core. Work is queued up to a fixed depth; beyond
+ * that, requests fail fast with a {@link RejectedExecutionException} that callers turn into
+ * a "try again later" response instead of piling up more work.
+ *
+ * <p>The work factor can be calibrated at startup to a target hashing time on this machine.
+ * Hashes made with a lower factor are upgraded after the next successful login, on the pool
+ * and off the request path.
+ */
+public final class PasswordService implements AutoCloseable {
+  /** The lowest work factor accepted by jBCrypt. */
+  public static final int MIN_COST = 4;
+  /** The highest work factor accepted by jBCrypt. */
+  public static final int MAX_COST = 30;
+
+  private final Logger logger;
+  private final ThreadPoolExecutor executor;
+  private final int threads;
+  private final int queueSize;
+  private volatile int cost;
+
+  // --- Metrics ---
+  private final LongAdder hashed = new LongAdder();
+  private final LongAdder verified = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder rehashed = new LongAdder();
+  private final LongAdder hashNanos = new LongAdder();
+  private final LongAdder verifyNanos = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final AtomicLong maxTaskNanos = new AtomicLong();
+  private volatile long calibrationMillis = -1;
+
+  /**
+   * Starts the worker pool.
+   *
+   * @param cost The BCrypt work factor for new hashes.
+   * @param threads The number of worker threads, or 0 or less for one per core.
+   * @param queueSize How many requests may wait for a worker before new ones are rejected.
+   * @param logger The logger for reporting errors.
+   */
+  public PasswordService(int cost, int threads, int queueSize, Logger logger) {
+    this.logger = logger;
+    this.cost = clampCost(cost);
+    this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.queueSize = Math.max(1, queueSize);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(this.queueSize), runnable -> {
+          Thread thread = new Thread(runnable, "AuthWithQq-Password-" + threadCount.getAndIncrement());
+          thread.setDaemon(true);
+          // Logins should not compete with the server thread for CPU
+          thread.setPriority(Thread.NORM_PRIORITY - 1);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * A queued piece of work together with the future it completes, so work dropped on close
+   * can still fail its future instead of leaving callers waiting forever.
+   */
+  private static final class Task implements Runnable {
+    private final CompletableFuture<?> future;
+    private final Runnable body;
+
+    Task(CompletableFuture<?> future, Runnable body) {
+      this.future = future;
+      this.body = body;
+    }
+
+    @Override
+    public void run() {
+      body.run();
+    }
+  }
+
+  private static int clampCost(int cost) {
+    return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+  }
+
+  /**
+   * Hashes a password with the configured work factor.
+   *
+   * @param password The plain text password.
+   * @return A future completed with the BCrypt hash, or failed with a
+   *     {@link RejectedExecutionException} if the pool is saturated.
+   */
+  public CompletableFuture<String> hash(String password) {
+    int workFactor = cost;
+    return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(workFactor)), hashed, hashNanos);
+  }
+
+  /**
+   * Verifies a password against a stored hash. A malformed hash counts as a mismatch.
+   *
+   * @param password The plain text password.
+   * @param hash The stored BCrypt hash.
+   * @return A future completed with true if the password matches, or failed with a
+   *     {@link RejectedExecutionException} if the pool is saturated.
+   */
+  public CompletableFuture<Boolean> verify(String password, String hash) {
+    if (password == null || hash == null) {
+      return CompletableFuture.completedFuture(false);
+    }
+    return submit(() -> {
+      try {
+        return BCrypt.checkpw(password, hash);
+      } catch (IllegalArgumentException e) {
+        logger.warning("Error verifying password: " + e.getMessage());
+        return false;
+      }
+    }, verified, verifyNanos);
+  }
+
+  private <T> CompletableFuture<T> submit(Callable<T> task, LongAdder counter, LongAdder nanos) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    long queuedAt = System.nanoTime();
+    try {
+      executor.execute(new Task(future, () -> {
+        long start = System.nanoTime();
+        queueWaitNanos.add(start - queuedAt);
+        try {
+          future.complete(task.call());
+        } catch (Exception e) {
+          logger.log(Level.WARNING, "Password hashing task failed", e);
+          future.completeExceptionally(e);
+        } finally {
+          long elapsed = System.nanoTime() - start;
+          counter.increment();
+          nanos.add(elapsed);
+          maxTaskNanos.accumulateAndGet(elapsed, Math::max);
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Measures BCrypt on this machine and raises the work factor to the highest value whose
+   * hashing time stays within the target. Runs on the pool; the configured cost is kept as
+   * the minimum.
+   *
+   * @param targetMillis The desired time for a single hash.
+   * @return A future completed with the chosen cost, or failed if the pool is saturated.
+   */
+  public CompletableFuture<Integer> calibrate(long targetMillis) {
+    int floor = cost;
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    try {
+      executor.execute(new Task(future, () -> {
+        long start = System.nanoTime();
+        // Time a cheap cost a few times; each additional step doubles the work
+        int probeCost = 8;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+          long probeStart = System.nanoTime();
+          BCrypt.hashpw("calibration", BCrypt.gensalt(probeCost));
+          best = Math.min(best, System.nanoTime() - probeStart);
+        }
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int chosen = probeCost;
+        while (chosen < MAX_COST && best << (chosen + 1 - probeCost) <= targetNanos) {
+          chosen++;
+        }
+        chosen = Math.max(floor, chosen);
+        cost = chosen;
+        calibrationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Calibrated BCrypt cost to " + chosen + " (about "
+            + TimeUnit.NANOSECONDS.toMillis(best << (chosen - probeCost)) + " ms per hash, target " + targetMillis + " ms)");
+        future.complete(chosen);
+      }));
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Checks whether a stored hash was made with a lower work factor than the current one.
+   *
+   * @param hash The stored BCrypt hash.
+   * @return true if the hash should be replaced after the next successful login.
+   */
+  public boolean needsRehash(String hash) {
+    // Format: $2a$10$<salt and hash>
+    if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+      return false;
+    }
+    try {
+      return Integer.parseInt(hash.substring(4, 6)) < cost;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Re-hashes a password that was just verified if its stored hash is stale.
+   *
+   * @param password The plain text password, known to match the hash.
+   * @param hash The stored BCrypt hash.
+   * @return A future completed with the new hash, or with null if no upgrade was needed or
+   *     the pool was too busy (the next login will try again).
+   */
+  public CompletableFuture<String> upgrade(String password, String hash) {
+    if (!needsRehash(hash)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return hash(password).handle((newHash, error) -> {
+      if (error != null) {
+        return null;
+      }
+      rehashed.increment();
+      return newHash;
+    });
+  }
+
+  /**
+   * Gets the work factor used for new hashes.
+   *
+   * @return The BCrypt cost.
+   */
+  public int getCost() {
+    return cost;
+  }
+
+  /**
+   * Returns a snapshot of the hashing metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long hashes = hashed.sum();
+    long verifications = verified.sum();
+    stats.put("cost", cost);
+    stats.put("threads", threads);
+    stats.put("queue_size", queueSize);
+    stats.put("queue_depth", executor.getQueue().size());
+    stats.put("active", executor.getActiveCount());
+    stats.put("hashed", hashes);
+    stats.put("verified", verifications);
+    stats.put("rejected", rejected.sum());
+    stats.put("rehashed", rehashed.sum());
+    stats.put("calibration_ms", calibrationMillis);
+    stats.put("avg_hash_ms", hashes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(hashNanos.sum() / hashes));
+    stats.put("avg_verify_ms", verifications == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(verifyNanos.sum() / verifications));
+    long tasks = hashes + verifications;
+    stats.put("avg_queue_wait_ms", tasks == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum() / tasks));
+    stats.put("max_task_ms", TimeUnit.NANOSECONDS.toMillis(maxTaskNanos.get()));
+    return stats;
+  }
+
+  /**
+   * Stops the worker pool. Queued requests fail with a {@link RejectedExecutionException},
+   * as when the pool is saturated; requests already running still complete.
+   */
+  @Override
+  public void close() {
+    for (Runnable dropped : executor.shutdownNow()) {
+      if (dropped instanceof Task task) {
+        rejected.increment();
+        task.future.completeExceptionally(new RejectedExecutionException("Password service stopped"));
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.cccece.authwithqq.auth;
+
+import com.cccece.authwithqq.util.TimingWheel;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe store of the binding verification codes handed out to guests.
+ *
+ * <p>Entries are indexed both by player and by code, so validating a code typed on the web
+ * page is a single hash lookup instead of a scan over every guest. Lookups are lock-free;
+ * issuing and removing codes is serialized so the two indexes always agree and a code that
+ * is still live is never issued to a second player. A bind consumes its code with
+ * {@link #consume}, so two concurrent requests can never both use the same code. Each code is removed by the shared
+ * expiry wheel when it runs out, so codes of guests who left do not accumulate.
+ */
+public final class VerificationCodeStore {
+  private static final int MAX_GENERATION_ATTEMPTS = 1000;
+
+  /**
+   * A code issued to one player.
+   */
+  public static final class Entry {
+    private final UUID uuid;
+    private final String code;
+    private final long createdAt;
+    private TimingWheel.Timeout expiry;
+
+    Entry(UUID uuid, String code, long createdAt) {
+      this.uuid = uuid;
+      this.code = code;
+      this.createdAt = createdAt;
+    }
+
+    public UUID getUuid() {
+      return uuid;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    boolean isLive(long now, long expirationMillis) {
+      return now - createdAt < expirationMillis;
+    }
+  }
+
+  private final SecureRandom random;
+  private final TimingWheel expiryWheel;
+  private final Map<UUID, Entry> byPlayer = new ConcurrentHashMap<>();
+  private final Map<String, Entry> byCode = new ConcurrentHashMap<>();
+
+  // --- Metrics ---
+  private final LongAdder issued = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+
+  /**
+   * Creates an empty store.
+   *
+   * @param random The source of randomness for new codes.
+   * @param expiryWheel The wheel that removes codes once they expire.
+   */
+  public VerificationCodeStore(SecureRandom random, TimingWheel expiryWheel) {
+    this.random = random;
+    this.expiryWheel = expiryWheel;
+  }
+
+  /**
+   * Returns the player's live code, issuing a new one if there is none or it expired.
+   *
+   * @param uuid The player's UUID.
+   * @param length The number of digits of a new code.
+   * @param expirationMillis How long a code stays valid after it was issued.
+   * @return The verification code.
+   */
+  public String getOrCreate(UUID uuid, int length, long expirationMillis) {
+    long now = System.currentTimeMillis();
+    Entry entry = byPlayer.get(uuid);
+    if (entry != null && entry.isLive(now, expirationMillis)) {
+      return entry.code; // Fast path, taken on every actionbar reminder
+    }
+    synchronized (this) {
+      entry = byPlayer.get(uuid);
+      if (entry != null && entry.isLive(now, expirationMillis)) {
+        return entry.code;
+      }
+      if (entry != null) {
+        remove(entry);
+      }
+      Entry created = new Entry(uuid, nextFreeCode(length, now, expirationMillis), now);
+      byPlayer.put(uuid, created);
+      byCode.put(created.code, created);
+      created.expiry = expiryWheel.schedule(expirationMillis, () -> expire(created));
+      issued.increment();
+      return created.code;
+    }
+  }
+
+  // Caller holds the lock. An expired holder of a drawn code is evicted instead of retried.
+  private String nextFreeCode(int length, long now, long expirationMillis) {
+    for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+      String code = randomCode(length);
+      Entry holder = byCode.get(code);
+      if (holder == null) {
+        return code;
+      }
+      if (!holder.isLive(now, expirationMillis)) {
+        remove(holder);
+        return code;
+      }
+      collisions.increment();
+    }
+    throw new IllegalStateException("No free verification code of length " + length + "; increase binding.code-length");
+  }
+
+  private String randomCode(int length) {
+    StringBuilder code = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      code.append(random.nextInt(10)); // 0-9
+    }
+    return code.toString();
+  }
+
+  /**
+   * Checks whether the code is the live code of the given player.
+   *
+   * @param code The code to validate.
+   * @param uuid The player's UUID.
+   * @param expirationMillis How long a code stays valid after it was issued.
+   * @return true if the code matches and has not expired.
+   */
+  public boolean isValid(String code, UUID uuid, long expirationMillis) {
+    Entry entry = byPlayer.get(uuid);
+    return entry != null && entry.code.equals(code) && entry.isLive(System.currentTimeMillis(), expirationMillis);
+  }
+
+  /**
+   * Validates the player's code and removes it in one step, so only one caller can use it.
+   *
+   * @param code The code to validate.
+   * @param uuid The player's UUID.
+   * @param expirationMillis How long a code stays valid after it was issued.
+   * @return The consumed entry, or null if the code does not match or has expired.
+   */
+  public synchronized Entry consume(String code, UUID uuid, long expirationMillis) {
+    if (!isValid(code, uuid, expirationMillis)) {
+      return null;
+    }
+    Entry entry = byPlayer.get(uuid);
+    remove(entry);
+    return entry;
+  }
+
+  /**
+   * Puts back a consumed code whose bind was rejected, unless it has expired or the player
+   * has been issued a new code in the meantime.
+   *
+   * @param entry The entry returned by {@link #consume}.
+   * @param expirationMillis How long a code stays valid after it was issued.
+   */
+  public synchronized void restore(Entry entry, long expirationMillis) {
+    long remaining = expirationMillis - (System.currentTimeMillis() - entry.createdAt);
+    if (remaining <= 0 || byPlayer.containsKey(entry.uuid) || byCode.containsKey(entry.code)) {
+      return;
+    }
+    byPlayer.put(entry.uuid, entry);
+    byCode.put(entry.code, entry);
+    entry.expiry = expiryWheel.schedule(remaining, () -> expire(entry));
+  }
+
+  /**
+   * Looks up the player a live code was issued to.
+   *
+   * @param code The code to look up.
+   * @param expirationMillis How long a code stays valid after it was issued.
+   * @return The entry, or null if the code is unknown or expired.
+   */
+  public Entry find(String code, long expirationMillis) {
+    Entry entry = byCode.get(code);
+    return entry != null && entry.isLive(System.currentTimeMillis(), expirationMillis) ? entry : null;
+  }
+
+  /**
+   * Removes the player's code, typically after a successful bind.
+   *
+   * @param uuid The player's UUID.
+   */
+  public synchronized void invalidate(UUID uuid) {
+    Entry entry = byPlayer.get(uuid);
+    if (entry != null) {
+      remove(entry);
+    }
+  }
+
+  // Caller holds the lock.
+  private void remove(Entry entry) {
+    byPlayer.remove(entry.uuid, entry);
+    byCode.remove(entry.code, entry);
+    if (entry.expiry != null) {
+      entry.expiry.cancel();
+    }
+  }
+
+  private synchronized void expire(Entry entry) {
+    if (byCode.remove(entry.code, entry)) {
+      byPlayer.remove(entry.uuid, entry);
+      expired.increment();
+    }
+  }
+
+  /**
+   * Returns a snapshot of the store metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("live_codes", byCode.size());
+    stats.put("issued", issued.sum());
+    stats.put("collisions", collisions.sum());
+    stats.put("expired", expired.sum());
+    return stats;
+  }
+}
@@ -0,0 +1,254 @@
+package com.cccece.authwithqq.auth;
+
+import com.cccece.authwithqq.database.DatabaseManager;
+import com.cccece.authwithqq.util.TimingWheel;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Web login sessions, persisted in the database so they survive restarts.
+ *
+ * <p>Only a SHA-256 hash of each token is written to disk. Sessions are held in an in-memory
+ * cache once used; after a restart the cache starts empty and each session is loaded lazily
+ * the first time its token is presented, so users stay logged in without anything being
+ * read up front. Expired sessions drop out of the cache through the shared expiry wheel and
+ * are deleted from the database in one batched statement per sweep.
+ */
+public final class WebSessionStore implements AutoCloseable {
+  private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  // Outlives any lookup that read the row just before it was deleted
+  private static final long REVOKED_MARKER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  /**
+   * A logged-in web session. Immutable apart from its expiry handle.
+   */
+  public static final class Session {
+    public final UUID uuid;
+    public final String token;
+    public final long createdAt;
+    public final long expiresAt;
+    private volatile TimingWheel.Timeout expiry;
+
+    Session(UUID uuid, String token, long createdAt, long expiresAt) {
+      this.uuid = uuid;
+      this.token = token;
+      this.createdAt = createdAt;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  private final DatabaseManager databaseManager;
+  private final TimingWheel expiryWheel;
+  private final Logger logger;
+  private final Map<String, Session> cache = new ConcurrentHashMap<>(); // Token hash -> session
+  private final Set<String> revoked = ConcurrentHashMap.newKeySet(); // Token hashes being logged out
+  private volatile boolean closed = false;
+
+  // --- Metrics ---
+  private final LongAdder created = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder loaded = new LongAdder();
+  private final LongAdder unknown = new LongAdder();
+  private final LongAdder expiredDeleted = new LongAdder();
+
+  /**
+   * Creates the store.
+   *
+   * @param databaseManager The database the sessions are persisted in.
+   * @param expiryWheel The wheel that evicts sessions from the cache once they expire.
+   * @param logger The logger for reporting errors.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "DatabaseManager and TimingWheel are shared services, not meant for defensive copying.")
+  public WebSessionStore(DatabaseManager databaseManager, TimingWheel expiryWheel, Logger logger) {
+    this.databaseManager = databaseManager;
+    this.expiryWheel = expiryWheel;
+    this.logger = logger;
+  }
+
+  /**
+   * Schedules the periodic deletion of expired sessions, starting with those left over from
+   * before the restart.
+   */
+  public void start() {
+    sweep();
+  }
+
+  private void sweep() {
+    if (closed) {
+      return;
+    }
+    databaseManager.deleteExpiredWebSessions(System.currentTimeMillis())
+        .thenAccept(count -> {
+          expiredDeleted.add(count);
+          if (count > 0) {
+            logger.info("Deleted " + count + " expired web login sessions.");
+          }
+        })
+        .exceptionally(error -> null); // Already logged by the database manager
+    expiryWheel.schedule(SWEEP_INTERVAL_MILLIS, this::sweep);
+  }
+
+  /**
+   * Creates and persists a new session. Returns once the session has been committed, so it
+   * survives a crash right after the login response.
+   *
+   * @param uuid The player's UUID.
+   * @param lifetimeMillis How long the session is valid, or 0 or less for no expiry.
+   * @return The new session.
+   */
+  public Session create(UUID uuid, long lifetimeMillis) {
+    String token = UUID.randomUUID().toString();
+    long now = System.currentTimeMillis();
+    long expiresAt = lifetimeMillis > 0 ? now + lifetimeMillis : Long.MAX_VALUE;
+    Session session = new Session(uuid, token, now, expiresAt);
+    String tokenHash = hash(token);
+    // Only a committed session is cached, so a failed save leaves nothing valid behind
+    databaseManager.saveWebSession(tokenHash, uuid, now, expiresAt).join();
+    cache.put(tokenHash, session);
+    scheduleEviction(tokenHash, session);
+    created.increment();
+    return session;
+  }
+
+  /**
+   * Looks up a live session, loading it from the database if it is not cached yet.
+   *
+   * @param token The session token presented by the client.
+   * @return The session, or null if the token is unknown or expired.
+   */
+  public Session get(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    String tokenHash = hash(token);
+    Session session = cache.get(tokenHash);
+    if (session != null) {
+      if (!session.isExpired(now)) {
+        cacheHits.increment();
+        return session;
+      }
+      evict(tokenHash, session); // The database row goes with the next sweep
+      return null;
+    }
+
+    if (revoked.contains(tokenHash)) {
+      unknown.increment();
+      return null;
+    }
+    Map<String, String> row = databaseManager.findWebSession(tokenHash);
+    if (row == null) {
+      unknown.increment();
+      return null;
+    }
+    Session stored = new Session(UUID.fromString(row.get("uuid")), token,
+        Long.parseLong(row.get("created_at")), Long.parseLong(row.get("expires_at")));
+    if (stored.isExpired(now)) {
+      unknown.increment();
+      return null;
+    }
+    Session existing = cache.putIfAbsent(tokenHash, stored);
+    if (existing != null) {
+      return existing; // Another request loaded it at the same time
+    }
+    if (revoked.contains(tokenHash)) {
+      // Logged out while the row was being read; revoke() may have run before the put
+      cache.remove(tokenHash, stored);
+      unknown.increment();
+      return null;
+    }
+    scheduleEviction(tokenHash, stored);
+    loaded.increment();
+    return stored;
+  }
+
+  /**
+   * Ends a session, in memory and on disk. Returns once the deletion has been committed.
+   *
+   * <p>The token is marked as revoked first, so a concurrent {@link #get(String)} that
+   * still finds the row cannot cache the session again.
+   *
+   * @param token The session token.
+   */
+  public void revoke(String token) {
+    if (token == null || token.isEmpty()) {
+      return;
+    }
+    String tokenHash = hash(token);
+    revoked.add(tokenHash);
+    Session session = cache.get(tokenHash);
+    if (session != null) {
+      evict(tokenHash, session);
+    }
+    try {
+      databaseManager.deleteWebSession(tokenHash).join();
+    } catch (CompletionException e) {
+      // Already logged by the database manager; the marker is kept so the token stays unusable
+      logger.warning("Web session could not be deleted, it stays revoked until the next restart.");
+      return;
+    }
+    expiryWheel.schedule(REVOKED_MARKER_MILLIS, () -> revoked.remove(tokenHash));
+  }
+
+  private void scheduleEviction(String tokenHash, Session session) {
+    if (session.expiresAt != Long.MAX_VALUE) {
+      session.expiry = expiryWheel.schedule(session.expiresAt - System.currentTimeMillis(),
+          () -> cache.remove(tokenHash, session));
+    }
+  }
+
+  private void evict(String tokenHash, Session session) {
+    if (cache.remove(tokenHash, session) && session.expiry != null) {
+      session.expiry.cancel();
+    }
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the session store metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("cached_sessions", cache.size());
+    stats.put("created", created.sum());
+    stats.put("cache_hits", cacheHits.sum());
+    stats.put("loaded_from_disk", loaded.sum());
+    stats.put("unknown_tokens", unknown.sum());
+    stats.put("expired_deleted", expiredDeleted.sum());
+    return stats;
+  }
+
+  /**
+   * Stops the periodic sweep. Sessions stay on disk for the next start.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
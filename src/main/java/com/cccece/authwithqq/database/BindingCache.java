@@ -0,0 +1,444 @@
+package com.cccece.authwithqq.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory copy of the binding data the plugin looks up on almost every request.
+ *
+ * <p>Three indexes are kept, each complete for the keys it holds:
+ * <ul>
+ *   <li>UUID to {@link Record}: the player row (name and QQ) and the bot row (bot name and
+ *   owner) of one UUID, including the fact that either row is missing;</li>
+ *   <li>QQ to the UUIDs of every account bound to it, including an empty list;</li>
+ *   <li>lower-case player name to UUID, for names that were found.</li>
+ * </ul>
+ *
+ * <p>Lookups are lock-free. Entries are only added by loads and changed by the
+ * {@link DatabaseManager} write methods, which update the cache when a write is queued and
+ * again once it commits. Every change is logged with a sequence number against the UUIDs and
+ * QQ numbers it touches; a loaded entry that refers to a key changed after the load started
+ * is dropped instead of cached, so it cannot bring back a value the change replaced. Loads
+ * of unrelated keys are still cached while writes are going on.
+ *
+ * <p>Each index holds at most {@code maxSize} entries. When one is full, a second-chance
+ * sweep evicts entries that have not been read since the previous sweep, so the QQ numbers
+ * the bot keeps checking stay cached.
+ */
+final class BindingCache {
+  private static final int CHANGE_LOG_SIZE = 4096; // Far more changes than happen during one load
+
+  /**
+   * What the database holds for one UUID.
+   */
+  static final class Record {
+    static final Record ABSENT = new Record(false, null, 0, false, null, null);
+
+    private final boolean registered;
+    private final String name;
+    private final long qq;
+    private final boolean bot;
+    private final String botName;
+    private final UUID botOwner;
+
+    Record(boolean registered, String name, long qq, boolean bot, String botName, UUID botOwner) {
+      this.registered = registered;
+      this.name = name;
+      this.qq = qq;
+      this.bot = bot;
+      this.botName = botName;
+      this.botOwner = botOwner;
+    }
+
+    /** Whether the UUID has a row in auth_players. */
+    boolean isRegistered() {
+      return registered;
+    }
+
+    /** The name in auth_players, or null without a player row. */
+    String getName() {
+      return name;
+    }
+
+    long getQq() {
+      return qq;
+    }
+
+    /** Whether the UUID has a row in auth_bots. */
+    boolean isBot() {
+      return bot;
+    }
+
+    String getBotName() {
+      return botName;
+    }
+
+    UUID getBotOwner() {
+      return botOwner;
+    }
+
+    LoginState toLoginState() {
+      return registered && qq == 0 && !bot ? LoginState.UNBOUND : new LoginState(qq, bot, registered);
+    }
+
+    Record withPlayer(String playerName) {
+      return new Record(true, playerName, 0, bot, botName, botOwner);
+    }
+
+    Record withQq(long newQq) {
+      return new Record(registered, name, newQq, bot, botName, botOwner);
+    }
+
+    Record withBot(String newBotName, UUID owner) {
+      return new Record(registered, name, qq, true, newBotName, owner);
+    }
+
+    Record withoutBot() {
+      return new Record(registered, name, qq, false, null, null);
+    }
+  }
+
+  private static final class NamedUuid {
+    private final String name; // Exact spelling, since the name column compares case-sensitively
+    private final UUID uuid;
+
+    private NamedUuid(String name, UUID uuid) {
+      this.name = name;
+      this.uuid = uuid;
+    }
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private volatile boolean referenced;
+
+    private Entry(V value) {
+      this.value = value;
+    }
+  }
+
+  private final int maxSize;
+  private final Map<UUID, Entry<Record>> records = new ConcurrentHashMap<>();
+  private final Map<Long, Entry<List<UUID>>> accounts = new ConcurrentHashMap<>();
+  private final Map<UUID, Long> accountKeys = new HashMap<>(); // UUID -> QQ list it appears in; guarded by this
+  private final Map<String, Entry<NamedUuid>> names = new ConcurrentHashMap<>(); // Lower-case name -> UUID
+  // UUID or QQ number -> sequence number of its latest change, oldest first; guarded by this
+  private final LinkedHashMap<Object, Long> changes = new LinkedHashMap<>();
+  private volatile long changeSeq;
+  private long forgottenSeq; // Latest change no longer in the log; guarded by this
+
+  // --- Metrics ---
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder staleLoads = new LongAdder();
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxSize The maximum number of entries per index; 0 disables caching.
+   */
+  BindingCache(int maxSize) {
+    this.maxSize = Math.max(0, maxSize);
+  }
+
+  /**
+   * Returns the current change stamp; take it before reading the database and pass it to
+   * the matching {@code put} method.
+   */
+  long stamp() {
+    return changeSeq;
+  }
+
+  Record getRecord(UUID uuid) {
+    return lookup(records, uuid);
+  }
+
+  /**
+   * Gets the accounts bound to a QQ number.
+   *
+   * @return The UUIDs, or null if the QQ number is not cached.
+   */
+  List<UUID> getAccounts(long qq) {
+    return lookup(accounts, qq);
+  }
+
+  /**
+   * Gets the UUID of the player row with exactly this name.
+   *
+   * @return The UUID, or null if the name is not cached.
+   */
+  UUID getUuidByName(String name) {
+    Entry<NamedUuid> entry = names.get(name.toLowerCase(Locale.ROOT));
+    if (entry == null || !name.equals(entry.value.name)) {
+      misses.increment();
+      return null;
+    }
+    entry.referenced = true;
+    hits.increment();
+    return entry.value.uuid;
+  }
+
+  private <K, V> V lookup(Map<K, Entry<V>> index, K key) {
+    Entry<V> entry = index.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    entry.referenced = true;
+    hits.increment();
+    return entry.value;
+  }
+
+  synchronized void putRecords(Map<UUID, Record> loaded, long loadStamp) {
+    if (maxSize == 0) {
+      return;
+    }
+    for (Map.Entry<UUID, Record> record : loaded.entrySet()) {
+      UUID owner = record.getValue().getBotOwner();
+      if (isStale(record.getKey(), loadStamp) || owner != null && isStale(owner, loadStamp)) {
+        staleLoads.increment();
+        continue;
+      }
+      put(records, record.getKey(), record.getValue());
+    }
+  }
+
+  synchronized void putAccounts(long qq, List<UUID> uuids, long loadStamp) {
+    if (qq == 0 || maxSize == 0) {
+      return;
+    }
+    // A listed account that moved away, or one that moved here, makes the list stale
+    boolean stale = isStale(qq, loadStamp);
+    for (int i = 0; i < uuids.size() && !stale; i++) {
+      stale = isStale(uuids.get(i), loadStamp);
+    }
+    if (stale) {
+      staleLoads.increment();
+      return;
+    }
+    if (!accounts.containsKey(qq)) {
+      makeRoom(accounts, this::forgetAccounts);
+    }
+    putAccountList(qq, List.copyOf(uuids));
+  }
+
+  synchronized void putName(String name, UUID uuid, long loadStamp) {
+    if (maxSize == 0) {
+      return;
+    }
+    if (isStale(uuid, loadStamp)) {
+      staleLoads.increment();
+      return;
+    }
+    put(names, name.toLowerCase(Locale.ROOT), new NamedUuid(name, uuid));
+  }
+
+  // Caller holds the lock. Once a change has left the log, loads older than it are all suspect.
+  private boolean isStale(Object key, long loadStamp) {
+    if (forgottenSeq > loadStamp) {
+      return true;
+    }
+    Long changedAt = changes.get(key);
+    return changedAt != null && changedAt > loadStamp;
+  }
+
+  // Caller holds the lock.
+  private void changed(Object key) {
+    long seq = changeSeq + 1;
+    changeSeq = seq;
+    changes.remove(key); // Re-inserted at the end, so the log stays ordered by sequence number
+    changes.put(key, seq);
+    if (changes.size() > CHANGE_LOG_SIZE) {
+      Iterator<Long> oldest = changes.values().iterator();
+      forgottenSeq = oldest.next();
+      oldest.remove();
+    }
+  }
+
+  // Caller holds the lock.
+  private <K, V> void put(Map<K, Entry<V>> index, K key, V value) {
+    if (!index.containsKey(key)) {
+      makeRoom(index, null);
+    }
+    index.put(key, new Entry<>(value));
+  }
+
+  // Caller holds the lock.
+  private <K, V> void makeRoom(Map<K, Entry<V>> index, Consumer<V> onEvict) {
+    if (index.size() < maxSize) {
+      return;
+    }
+    // Second chance: an entry read since the last sweep loses its mark instead of its place.
+    // The second pass evicts entries the first one only unmarked.
+    for (int pass = 0; pass < 2 && index.size() >= maxSize; pass++) {
+      Iterator<Map.Entry<K, Entry<V>>> iterator = index.entrySet().iterator();
+      while (iterator.hasNext() && index.size() >= maxSize) {
+        Map.Entry<K, Entry<V>> entry = iterator.next();
+        if (entry.getValue().referenced) {
+          entry.getValue().referenced = false;
+          continue;
+        }
+        iterator.remove();
+        evictions.increment();
+        if (onEvict != null) {
+          onEvict.accept(entry.getValue().value);
+        }
+      }
+    }
+  }
+
+  // Caller holds the lock.
+  private void putAccountList(long qq, List<UUID> uuids) {
+    Entry<List<UUID>> previous = accounts.put(qq, new Entry<>(uuids));
+    if (previous != null) {
+      forgetAccounts(previous.value);
+    }
+    for (UUID uuid : uuids) {
+      accountKeys.put(uuid, qq);
+    }
+  }
+
+  // Caller holds the lock.
+  private void forgetAccounts(List<UUID> uuids) {
+    for (UUID uuid : uuids) {
+      accountKeys.remove(uuid);
+    }
+  }
+
+  // Caller holds the lock.
+  private void removeFromAccounts(UUID uuid) {
+    Long qq = accountKeys.remove(uuid);
+    Entry<List<UUID>> entry = qq != null ? accounts.get(qq) : null;
+    if (entry != null) {
+      List<UUID> remaining = new ArrayList<>(entry.value);
+      remaining.remove(uuid);
+      putAccountList(qq, List.copyOf(remaining));
+    }
+  }
+
+  // --- Write-through updates, each safe to apply more than once ---
+
+  /**
+   * Applies an {@code INSERT OR IGNORE} of player rows.
+   */
+  synchronized void playersAdded(Map<UUID, String> players) {
+    for (Map.Entry<UUID, String> player : players.entrySet()) {
+      changed(player.getKey());
+      Entry<Record> entry = records.get(player.getKey());
+      if (entry != null && !entry.value.isRegistered()) {
+        records.put(player.getKey(), new Entry<>(entry.value.withPlayer(player.getValue())));
+      }
+    }
+  }
+
+  /**
+   * Applies a change of the QQ number bound to a player row.
+   */
+  synchronized void bindingChanged(UUID uuid, long qq) {
+    changed(uuid);
+    changed(qq);
+    Entry<Record> entry = records.get(uuid);
+    if (entry != null && !entry.value.isRegistered()) {
+      return; // The UPDATE matches no row
+    }
+    if (entry != null) {
+      records.put(uuid, new Entry<>(entry.value.withQq(qq)));
+    }
+    removeFromAccounts(uuid);
+    Entry<List<UUID>> target = accounts.get(qq);
+    if (target == null) {
+      return;
+    }
+    if (entry == null) {
+      // Whether the row exists is unknown, so the list can no longer be trusted
+      accounts.remove(qq);
+      forgetAccounts(target.value);
+      return;
+    }
+    List<UUID> updated = new ArrayList<>(target.value);
+    updated.add(uuid);
+    putAccountList(qq, List.copyOf(updated));
+  }
+
+  /**
+   * Applies the deletion of a player row together with the bots it owns.
+   */
+  synchronized void playerDeleted(UUID uuid) {
+    changed(uuid); // Also covers loads of the bots it owns, whose records name it
+    records.remove(uuid);
+    removeFromAccounts(uuid);
+    names.values().removeIf(entry -> entry.value.uuid.equals(uuid));
+    for (Map.Entry<UUID, Entry<Record>> entry : records.entrySet()) {
+      Record record = entry.getValue().value;
+      if (record.isBot() && uuid.equals(record.getBotOwner())) {
+        entry.setValue(new Entry<>(record.withoutBot()));
+      }
+    }
+  }
+
+  /**
+   * Applies an {@code INSERT OR REPLACE} of a bot row.
+   */
+  synchronized void botMarked(UUID botUuid, UUID owner, String botName) {
+    changed(botUuid);
+    Entry<Record> entry = records.get(botUuid);
+    if (entry != null) {
+      records.put(botUuid, new Entry<>(entry.value.withBot(botName, owner)));
+    }
+  }
+
+  /**
+   * Applies the deletion of a bot row.
+   */
+  synchronized void botDeleted(UUID botUuid) {
+    changed(botUuid);
+    Entry<Record> entry = records.get(botUuid);
+    if (entry != null) {
+      records.put(botUuid, new Entry<>(entry.value.withoutBot()));
+    }
+  }
+
+  /**
+   * Drops everything, e.g. after a write that was already applied failed to commit.
+   */
+  synchronized void clear() {
+    changeSeq++;
+    forgottenSeq = changeSeq; // Every load in flight is suspect
+    changes.clear();
+    records.clear();
+    accounts.clear();
+    accountKeys.clear();
+    names.clear();
+  }
+
+  /**
+   * Returns a snapshot of the cache metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long hitCount = hits.sum();
+    long lookups = hitCount + misses.sum();
+    stats.put("max_size", maxSize);
+    stats.put("players", records.size());
+    stats.put("qq_numbers", accounts.size());
+    stats.put("names", names.size());
+    stats.put("hits", hitCount);
+    stats.put("misses", lookups - hitCount);
+    stats.put("hit_rate", lookups == 0 ? 0 : (double) hitCount / lookups);
+    stats.put("evictions", evictions.sum());
+    stats.put("stale_loads", staleLoads.sum());
+    return stats;
+  }
+}
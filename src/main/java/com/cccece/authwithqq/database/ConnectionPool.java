@@ -0,0 +1,306 @@
+package com.cccece.authwithqq.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A small, bounded pool of long-lived SQLite connections.
+ * Readers share a fixed set of read-only connections, while every write goes through
+ * a single dedicated writer connection. All connections are opened and configured once
+ * and reused for the lifetime of the plugin.
+ *
+ * <p>Connections handed out by this pool are proxies: calling {@code close()} returns the
+ * underlying connection to the pool instead of closing it, so callers keep using
+ * try-with-resources exactly as they would with {@code DriverManager}.
+ */
+public class ConnectionPool implements AutoCloseable {
+  private final String url;
+  private final Logger logger;
+  private final DatabaseOptions options;
+  private final BlockingQueue<Connection> idleReaders;
+  private final Connection writer;
+  private final ReentrantLock writerLock = new ReentrantLock(true);
+  private volatile boolean closed = false;
+  private volatile long lastWriteMillis = System.currentTimeMillis();
+
+  // --- Metrics ---
+  private final LongAdder readAcquires = new LongAdder();
+  private final LongAdder writeAcquires = new LongAdder();
+  private final LongAdder readWaitNanos = new LongAdder();
+  private final LongAdder writeWaitNanos = new LongAdder();
+  private final AtomicLong maxReadWaitNanos = new AtomicLong();
+  private final AtomicLong maxWriteWaitNanos = new AtomicLong();
+  private final LongAdder acquireTimeouts = new LongAdder();
+  private final AtomicInteger readersInUse = new AtomicInteger();
+  private final AtomicInteger peakReadersInUse = new AtomicInteger();
+
+  /**
+   * Opens the writer connection and all pooled reader connections.
+   *
+   * @param url The JDBC url of the SQLite database.
+   * @param options The connection settings.
+   * @param logger The logger for reporting errors.
+   * @throws SQLException If a connection cannot be opened.
+   */
+  public ConnectionPool(String url, DatabaseOptions options, Logger logger) throws SQLException {
+    this.url = url;
+    this.options = options;
+    this.logger = logger;
+    this.idleReaders = new ArrayBlockingQueue<>(options.getReadPoolSize());
+    this.writer = openConnection(false);
+    try {
+      for (int i = 0; i < options.getReadPoolSize(); i++) {
+        Connection reader = openConnection(true);
+        idleReaders.add(reader);
+      }
+    } catch (SQLException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private Connection openConnection(boolean readOnly) throws SQLException {
+    Connection conn = DriverManager.getConnection(url);
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("PRAGMA busy_timeout = " + options.getBusyTimeoutMillis());
+      stmt.execute("PRAGMA synchronous = " + options.getSynchronous());
+      stmt.execute("PRAGMA cache_size = " + options.getCacheSize());
+      stmt.execute("PRAGMA mmap_size = " + options.getMmapSize());
+      stmt.execute("PRAGMA temp_store = " + options.getTempStore());
+      if (readOnly) {
+        stmt.execute("PRAGMA query_only = ON");
+      }
+    } catch (SQLException e) {
+      conn.close();
+      throw e;
+    }
+    return conn;
+  }
+
+  /**
+   * Borrows a read-only connection from the pool, waiting up to the configured acquire timeout.
+   * Closing the returned connection hands it back to the pool.
+   *
+   * @return A pooled read-only connection.
+   * @throws SQLException If the pool is closed or no connection became available in time.
+   */
+  public Connection getReadConnection() throws SQLException {
+    ensureOpen();
+    long start = System.nanoTime();
+    Connection conn;
+    try {
+      conn = idleReaders.poll(options.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a read connection", e);
+    }
+    if (conn == null) {
+      acquireTimeouts.increment();
+      throw new SQLException("Timed out waiting for a read connection");
+    }
+    long waited = System.nanoTime() - start;
+    readAcquires.increment();
+    readWaitNanos.add(waited);
+    maxReadWaitNanos.accumulateAndGet(waited, Math::max);
+    int inUse = readersInUse.incrementAndGet();
+    peakReadersInUse.accumulateAndGet(inUse, Math::max);
+    return wrap(conn, () -> releaseReader(conn));
+  }
+
+  /**
+   * Borrows the dedicated writer connection, waiting up to the configured acquire timeout.
+   * Only one caller holds the writer at a time; closing the returned connection releases it.
+   *
+   * @return The writer connection.
+   * @throws SQLException If the pool is closed or the writer did not become available in time.
+   */
+  public Connection getWriteConnection() throws SQLException {
+    return acquireWriter(true);
+  }
+
+  /**
+   * Borrows the writer connection for maintenance work such as checkpoints.
+   * Unlike {@link #getWriteConnection()}, releasing it does not count as a write
+   * when detecting quiet periods.
+   *
+   * @return The writer connection.
+   * @throws SQLException If the pool is closed or the writer did not become available in time.
+   */
+  Connection getMaintenanceConnection() throws SQLException {
+    return acquireWriter(false);
+  }
+
+  private Connection acquireWriter(boolean countsAsWrite) throws SQLException {
+    ensureOpen();
+    long start = System.nanoTime();
+    boolean locked;
+    try {
+      locked = writerLock.tryLock(options.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for the write connection", e);
+    }
+    if (!locked) {
+      acquireTimeouts.increment();
+      throw new SQLException("Timed out waiting for the write connection");
+    }
+    long waited = System.nanoTime() - start;
+    writeAcquires.increment();
+    writeWaitNanos.add(waited);
+    maxWriteWaitNanos.accumulateAndGet(waited, Math::max);
+    return wrap(writer, () -> releaseWriter(countsAsWrite));
+  }
+
+  private void releaseReader(Connection conn) {
+    readersInUse.decrementAndGet();
+    resetState(conn);
+    if (closed) {
+      closeQuietly(conn);
+    } else {
+      idleReaders.offer(conn);
+    }
+  }
+
+  private void releaseWriter(boolean countsAsWrite) {
+    if (countsAsWrite) {
+      lastWriteMillis = System.currentTimeMillis();
+    }
+    resetState(writer);
+    writerLock.unlock();
+  }
+
+  // Rolls back any transaction a caller forgot to finish so the next borrower starts clean.
+  private void resetState(Connection conn) {
+    try {
+      if (!conn.getAutoCommit()) {
+        conn.rollback();
+        conn.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      logger.log(Level.WARNING, "Could not reset pooled connection state", e);
+    }
+  }
+
+  private void ensureOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool is closed");
+    }
+  }
+
+  private Connection wrap(Connection target, Runnable release) {
+    InvocationHandler handler = new PooledConnectionHandler(target, release);
+    return (Connection) Proxy.newProxyInstance(
+        ConnectionPool.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+  }
+
+  /**
+   * Gets the time the writer connection was last released, used to detect quiet periods.
+   *
+   * @return The last write timestamp in milliseconds.
+   */
+  public long getLastWriteMillis() {
+    return lastWriteMillis;
+  }
+
+  /**
+   * Returns a snapshot of the pool's usage metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long reads = readAcquires.sum();
+    long writes = writeAcquires.sum();
+    stats.put("read_pool_size", options.getReadPoolSize());
+    stats.put("readers_in_use", readersInUse.get());
+    stats.put("readers_in_use_peak", peakReadersInUse.get());
+    stats.put("read_acquires", reads);
+    stats.put("read_wait_avg_us", reads == 0 ? 0 : readWaitNanos.sum() / reads / 1000);
+    stats.put("read_wait_max_us", maxReadWaitNanos.get() / 1000);
+    stats.put("write_acquires", writes);
+    stats.put("write_wait_avg_us", writes == 0 ? 0 : writeWaitNanos.sum() / writes / 1000);
+    stats.put("write_wait_max_us", maxWriteWaitNanos.get() / 1000);
+    stats.put("writer_queued_threads", writerLock.getQueueLength());
+    stats.put("acquire_timeouts", acquireTimeouts.sum());
+    return stats;
+  }
+
+  /**
+   * Closes every connection owned by the pool. Readers that are still borrowed are
+   * closed as soon as they are returned.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    Connection idle;
+    while ((idle = idleReaders.poll()) != null) {
+      closeQuietly(idle);
+    }
+    if (writer != null) {
+      closeQuietly(writer);
+    }
+  }
+
+  private void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      logger.log(Level.WARNING, "Could not close pooled connection", e);
+    }
+  }
+
+  /**
+   * Delegates every call to the pooled connection, except {@code close()} which releases it.
+   */
+  private static final class PooledConnectionHandler implements InvocationHandler {
+    private final Connection target;
+    private final Runnable release;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    PooledConnectionHandler(Connection target, Runnable release) {
+      this.target = target;
+      this.release = release;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (released.compareAndSet(false, true)) {
+            release.run();
+          }
+          return null;
+        case "isClosed":
+          return released.get() || target.isClosed();
+        default:
+          break;
+      }
+      if (released.get()) {
+        throw new SQLException("Connection has already been returned to the pool");
+      }
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
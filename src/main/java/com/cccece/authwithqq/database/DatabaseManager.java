@@ -1,43 +1,72 @@
 package com.cccece.authwithqq.database;
 
+import com.cccece.authwithqq.util.BloomFilter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages the SQLite database for AuthWithQq.
+ * All queries run on long-lived connections borrowed from a {@link ConnectionPool}.
  */
 public class DatabaseManager {
-  private final String url;
+  private static final String ALL_BOTS_SQL = "SELECT b.bot_uuid, b.bot_name, b.owner_uuid, b.created_at, "
+      + "p.name as owner_name, p.qq as owner_qq "
+      + "FROM auth_bots b "
+      + "LEFT JOIN auth_players p ON b.owner_uuid = p.uuid";
+  private static final int QQ_CHUNK_SIZE = 500; // QQ numbers per IN list, below SQLite's bound parameter limit
+
+  private final String path;
+  private final DatabaseOptions options;
   private final Logger logger;
+  private final BindingCache bindingCache;
+  private ConnectionPool pool;
+  private WalCheckpointer checkpointer;
+  private WriteQueue writeQueue;
+  private JoinPipeline joinPipeline;
+  private BloomFilter qqFilter; // Bound QQ numbers; null when disabled or not built
 
   /**
    * Initializes the DatabaseManager.
    *
    * @param path The path to the SQLite database file.
+   * @param options The connection pool and storage settings.
    * @param logger The logger for reporting errors.
    */
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Logger instance is a shared service, not meant for defensive copying.")
-  public DatabaseManager(String path, Logger logger) {
-    this.url = "jdbc:sqlite:" + path;
+  public DatabaseManager(String path, DatabaseOptions options, Logger logger) {
+    this.path = path;
+    this.options = options;
     this.logger = logger;
+    this.bindingCache = new BindingCache(options.getBindingCacheSize());
+    try {
+      this.pool = new ConnectionPool("jdbc:sqlite:" + path, options, logger);
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, "Could not open database connections", e);
+      return;
+    }
     initialize();
   }
 
   private void initialize() {
-    try (Connection conn = getConnection();
+    try (Connection conn = getWriteConnection();
          Statement stmt = conn.createStatement()) {
+      applyJournalMode(stmt);
       // Table for basic player information
       stmt.execute("CREATE TABLE IF NOT EXISTS auth_players ("
           + "uuid VARCHAR(36) PRIMARY KEY, "
@@ -69,14 +98,191 @@ public class DatabaseManager {
       stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_bots_owner ON auth_bots(owner_uuid)");
       // Ensure indexes on auth_players
       stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_players_name ON auth_players(name)");
-      stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_players_qq ON auth_players(qq)");
+      // Keyset pagination indexes: each sort column paired with the uuid tie-breaker
+      stmt.execute("DROP INDEX IF EXISTS idx_auth_players_qq");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_players_qq_uuid ON auth_players(qq, uuid)");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_players_created_uuid ON auth_players(created_at, uuid)");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_auth_players_name_nocase "
+          + "ON auth_players(name COLLATE NOCASE, uuid)");
+      // Index for meta key=value filters
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_meta_key_value ON player_meta(meta_key, meta_value)");
+      // Table for web login sessions; only a hash of the token is stored
+      stmt.execute("CREATE TABLE IF NOT EXISTS web_sessions ("
+          + "token_hash VARCHAR(64) PRIMARY KEY, "
+          + "uuid VARCHAR(36) NOT NULL, "
+          + "created_at LONG, "
+          + "expires_at LONG"
+          + ")");
+      stmt.execute("CREATE INDEX IF NOT EXISTS idx_web_sessions_expires ON web_sessions(expires_at)");
     } catch (SQLException e) {
       logger.log(Level.SEVERE, "Could not initialize database", e);
     }
+    if (options.isWalEnabled()) {
+      checkpointer = new WalCheckpointer(pool, path, options, logger);
+    }
+    buildQqFilter();
+    writeQueue = new WriteQueue(pool, options, logger);
+    joinPipeline = new JoinPipeline(this, options, logger);
+  }
+
+  // Runs before the write queue starts, so no binding can change while the filter is filled.
+  private void buildQqFilter() {
+    if (!options.isQqFilterEnabled()) {
+      return;
+    }
+    try (Connection conn = getReadConnection();
+         Statement stmt = conn.createStatement()) {
+      long bound = 0;
+      try (ResultSet rs = stmt.executeQuery("SELECT COUNT(DISTINCT qq) FROM auth_players WHERE qq != 0")) {
+        if (rs.next()) {
+          bound = rs.getLong(1);
+        }
+      }
+      // Leave room for the bindings made until the next restart
+      BloomFilter filter = new BloomFilter(Math.max(options.getQqFilterExpectedBindings(), bound * 2),
+          options.getQqFilterFalsePositiveRate(), options.getQqFilterMaxMemoryKb() * 1024);
+      try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT qq FROM auth_players WHERE qq != 0")) {
+        while (rs.next()) {
+          filter.put(rs.getLong(1));
+        }
+      }
+      qqFilter = filter;
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, "Could not build the QQ filter, QQ lookups will always query the database", e);
+    }
   }
 
-  private Connection getConnection() throws SQLException {
-    return DriverManager.getConnection(url);
+  // journal_mode is persistent in the database file, so it only needs to be set once.
+  private void applyJournalMode(Statement stmt) throws SQLException {
+    try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + options.getJournalMode())) {
+      String mode = rs.next() ? rs.getString(1) : null;
+      if (mode == null || !mode.equalsIgnoreCase(options.getJournalMode())) {
+        logger.warning("Could not switch database to " + options.getJournalMode()
+            + " journal mode, still using " + mode);
+      }
+    }
+  }
+
+  private Connection getReadConnection() throws SQLException {
+    if (pool == null) {
+      throw new SQLException("Database is not available");
+    }
+    return pool.getReadConnection();
+  }
+
+  private Connection getWriteConnection() throws SQLException {
+    if (pool == null) {
+      throw new SQLException("Database is not available");
+    }
+    return pool.getWriteConnection();
+  }
+
+  /**
+   * Queues a mutation on the single writer thread and logs it if it fails.
+   *
+   * @param errorMessage The message logged when the write fails.
+   * @param operation The statements to execute on the writer connection.
+   * @return A future completed once the write has been committed.
+   */
+  private CompletableFuture<Void> submitWrite(String errorMessage, WriteQueue.WriteOperation operation) {
+    if (writeQueue == null) {
+      logger.severe(errorMessage + ": database is not available");
+      return CompletableFuture.failedFuture(new SQLException("Database is not available"));
+    }
+    CompletableFuture<Void> future = writeQueue.submit(operation);
+    future.whenComplete((ignored, error) -> {
+      if (error != null) {
+        logger.log(Level.SEVERE, errorMessage, error);
+      }
+    });
+    return future;
+  }
+
+  // Applies a binding change to the cache when the write is queued, so the caller reads its own
+  // write, and again once it commits, replacing anything a concurrent load read from the old row.
+  private CompletableFuture<Void> writeThrough(Runnable cacheUpdate, CompletableFuture<Void> write) {
+    cacheUpdate.run();
+    write.whenComplete((ignored, error) -> {
+      if (error != null) {
+        bindingCache.clear(); // The change was already applied, but never reached the database
+      } else {
+        cacheUpdate.run();
+      }
+    });
+    return write;
+  }
+
+  /**
+   * Gets the connection pool usage metrics.
+   *
+   * @return A map of metric names to values, empty if the database is not available.
+   */
+  public Map<String, Number> getPoolStats() {
+    return pool != null ? pool.getStats() : new HashMap<>();
+  }
+
+  /**
+   * Gets the WAL checkpoint metrics, including checkpoint durations and the current WAL size.
+   *
+   * @return A map of metric names to values, empty if WAL mode is disabled.
+   */
+  public Map<String, Number> getCheckpointStats() {
+    return checkpointer != null ? checkpointer.getStats() : new HashMap<>();
+  }
+
+  /**
+   * Gets the join pipeline metrics, including login state load latency percentiles.
+   *
+   * @return A map of metric names to values, empty if the database is not available.
+   */
+  public Map<String, Number> getJoinPipelineStats() {
+    return joinPipeline != null ? joinPipeline.getStats() : new HashMap<>();
+  }
+
+  /**
+   * Returns a snapshot of the binding cache metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getBindingCacheStats() {
+    return bindingCache.getStats();
+  }
+
+  /**
+   * Returns the size and hit metrics of the bound QQ filter.
+   *
+   * @return A map of metric names to values, empty if the filter is disabled.
+   */
+  public Map<String, Number> getQqFilterStats() {
+    return qqFilter != null ? qqFilter.getStats() : new HashMap<>();
+  }
+
+  /**
+   * Gets the group-commit write queue metrics.
+   *
+   * @return A map of metric names to values, empty if the database is not available.
+   */
+  public Map<String, Number> getWriteQueueStats() {
+    return writeQueue != null ? writeQueue.getStats() : new HashMap<>();
+  }
+
+  /**
+   * Flushes pending writes, stops the checkpoint scheduler and closes all pooled
+   * database connections. Called when the plugin is disabled.
+   */
+  public void close() {
+    if (joinPipeline != null) {
+      joinPipeline.close(); // Queues its last guest inserts, so it goes first
+    }
+    if (writeQueue != null) {
+      writeQueue.close();
+    }
+    if (checkpointer != null) {
+      checkpointer.close();
+    }
+    if (pool != null) {
+      pool.close();
+    }
   }
 
   /**
@@ -84,73 +290,256 @@ public class DatabaseManager {
    *
    * @param uuid The player's UUID.
    * @param name The player's name.
+   * @return A future completed once the write has been committed.
    */
-  public void addGuest(UUID uuid, String name) {
+  public CompletableFuture<Void> addGuest(UUID uuid, String name) {
     String sql = "INSERT OR IGNORE INTO auth_players (uuid, name, created_at) VALUES (?, ?, ?)";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      pstmt.setString(2, name);
-      pstmt.setLong(3, System.currentTimeMillis());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not add guest", e);
+    long createdAt = System.currentTimeMillis();
+    return writeThrough(() -> bindingCache.playersAdded(Collections.singletonMap(uuid, name)),
+        submitWrite("Could not add guest", conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, uuid.toString());
+            pstmt.setString(2, name);
+            pstmt.setLong(3, createdAt);
+            pstmt.executeUpdate();
+          }
+        }));
+  }
+
+  /**
+   * Registers a joining player as a guest if they are new and loads their binding. Returning
+   * players are usually answered from the binding cache; other requests arriving close
+   * together are resolved in one batch.
+   *
+   * @param uuid The player's UUID.
+   * @param name The player's name.
+   * @return A future completed with the player's login state.
+   */
+  public CompletableFuture<LoginState> loadLoginState(UUID uuid, String name) {
+    BindingCache.Record cached = bindingCache.getRecord(uuid);
+    if (cached != null && cached.isRegistered()) {
+      return CompletableFuture.completedFuture(cached.toLoginState());
     }
+    if (joinPipeline == null) {
+      return CompletableFuture.failedFuture(new SQLException("Database is not available"));
+    }
+    return joinPipeline.submit(uuid, name);
   }
 
   /**
-   * Deletes a player and all their associated metadata and bots.
+   * Loads a player's binding without registering them, e.g. while their login may still be
+   * denied. Batched like {@link #loadLoginState(UUID, String)}.
    *
    * @param uuid The player's UUID.
+   * @return A future completed with the player's login state.
    */
-  public void deletePlayer(UUID uuid) {
-    String uuidStr = uuid.toString();
-    try (Connection conn = getConnection()) {
-      conn.setAutoCommit(false);
-      try {
-        // Delete from auth_players
-        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM auth_players WHERE uuid = ?")) {
-          pstmt.setString(1, uuidStr);
-          pstmt.executeUpdate();
-        }
-        // Delete from player_meta
-        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM player_meta WHERE uuid = ?")) {
-          pstmt.setString(1, uuidStr);
-          pstmt.executeUpdate();
+  public CompletableFuture<LoginState> loadLoginState(UUID uuid) {
+    BindingCache.Record cached = bindingCache.getRecord(uuid);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached.toLoginState());
+    }
+    if (joinPipeline == null) {
+      return CompletableFuture.failedFuture(new SQLException("Database is not available"));
+    }
+    return joinPipeline.submit(uuid, null);
+  }
+
+  // Queues one batched INSERT OR IGNORE for a batch of joining players.
+  CompletableFuture<Void> addGuests(Map<UUID, String> players) {
+    String sql = "INSERT OR IGNORE INTO auth_players (uuid, name, created_at) VALUES (?, ?, ?)";
+    long createdAt = System.currentTimeMillis();
+    return writeThrough(() -> bindingCache.playersAdded(players),
+        submitWrite("Could not add guests", conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<UUID, String> player : players.entrySet()) {
+              pstmt.setString(1, player.getKey().toString());
+              pstmt.setString(2, player.getValue());
+              pstmt.setLong(3, createdAt);
+              pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+          }
+        }));
+  }
+
+  // Reads the player and bot rows of a batch of UUIDs in one statement and caches them.
+  Map<UUID, BindingCache.Record> loadBindings(Collection<UUID> uuids) throws SQLException {
+    String placeholders = String.join(", ", Collections.nCopies(uuids.size(), "?"));
+    String sql = "SELECT uuid, name, qq, NULL, 0 AS bot FROM auth_players WHERE uuid IN (" + placeholders + ") "
+        + "UNION ALL SELECT bot_uuid, bot_name, 0, owner_uuid, 1 FROM auth_bots WHERE bot_uuid IN (" + placeholders + ")";
+    long stamp = bindingCache.stamp();
+    Map<UUID, BindingCache.Record> records = new HashMap<>();
+    for (UUID uuid : uuids) {
+      records.put(uuid, BindingCache.Record.ABSENT);
+    }
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      int index = 1;
+      for (int pass = 0; pass < 2; pass++) {
+        for (UUID uuid : uuids) {
+          pstmt.setString(index++, uuid.toString());
         }
-        // Delete associated bots from auth_bots
-        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM auth_bots WHERE owner_uuid = ?")) {
-          pstmt.setString(1, uuidStr);
-          pstmt.executeUpdate();
+      }
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          UUID uuid = UUID.fromString(rs.getString(1));
+          BindingCache.Record record = records.get(uuid);
+          if (rs.getInt(5) == 1) {
+            String owner = rs.getString(4);
+            records.put(uuid, record.withBot(rs.getString(2), owner != null ? UUID.fromString(owner) : null));
+          } else {
+            records.put(uuid, record.withPlayer(rs.getString(2)).withQq(rs.getLong(3)));
+          }
         }
-        conn.commit();
-      } catch (SQLException e) {
-        conn.rollback();
-        throw e;
-      } finally {
-        conn.setAutoCommit(true);
+      }
+    }
+    bindingCache.putRecords(records, stamp);
+    return records;
+  }
+
+  /**
+   * Loads the bindings of players into the cache, e.g. of those already online when the
+   * plugin is enabled.
+   *
+   * @param uuids The players' UUIDs.
+   */
+  public void preloadBindings(Collection<UUID> uuids) {
+    List<UUID> list = new ArrayList<>(uuids);
+    int chunkSize = options.getLoginBatchSize(); // Stays below SQLite's bound parameter limit
+    try {
+      for (int i = 0; i < list.size(); i += chunkSize) {
+        loadBindings(list.subList(i, Math.min(list.size(), i + chunkSize)));
       }
     } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not delete player", e);
+      logger.log(Level.SEVERE, "Could not preload bindings", e);
+    }
+  }
+
+  // Serves a single UUID from the cache, loading it on a miss.
+  private BindingCache.Record getBinding(UUID uuid, String errorMessage) {
+    BindingCache.Record cached = bindingCache.getRecord(uuid);
+    if (cached != null) {
+      return cached;
+    }
+    try {
+      return loadBindings(List.of(uuid)).get(uuid);
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, errorMessage, e);
+      return BindingCache.Record.ABSENT;
     }
   }
 
+  /**
+   * Deletes a player and all their associated metadata and bots.
+   *
+   * @param uuid The player's UUID.
+   * @return A future completed once the write has been committed.
+   */
+  public CompletableFuture<Void> deletePlayer(UUID uuid) {
+    String uuidStr = uuid.toString();
+    // The write queue runs each operation in its own savepoint, so the three deletes stay atomic
+    return writeThrough(() -> bindingCache.playerDeleted(uuid),
+        submitWrite("Could not delete player", conn -> {
+          // Delete from auth_players
+          try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM auth_players WHERE uuid = ?")) {
+            pstmt.setString(1, uuidStr);
+            pstmt.executeUpdate();
+          }
+          // Delete from player_meta
+          try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM player_meta WHERE uuid = ?")) {
+            pstmt.setString(1, uuidStr);
+            pstmt.executeUpdate();
+          }
+          // Delete associated bots from auth_bots
+          try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM auth_bots WHERE owner_uuid = ?")) {
+            pstmt.setString(1, uuidStr);
+            pstmt.executeUpdate();
+          }
+        }));
+  }
+
   /**
    * Updates the binding information for a player.
    *
    * @param uuid The player's UUID.
    * @param qq The QQ number to bind.
+   * @return A future completed once the write has been committed.
    */
-  public void updateBinding(UUID uuid, long qq) {
+  public CompletableFuture<Void> updateBinding(UUID uuid, long qq) {
     String sql = "UPDATE auth_players SET qq = ? WHERE uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setLong(1, qq);
-      pstmt.setString(2, uuid.toString());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not update binding", e);
+    if (qqFilter != null && qq != 0) {
+      qqFilter.put(qq); // Before the write, so no lookup misses a committed binding
     }
+    return writeThrough(() -> bindingCache.bindingChanged(uuid, qq),
+        submitWrite("Could not update binding", conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, qq);
+            pstmt.setString(2, uuid.toString());
+            pstmt.executeUpdate();
+          }
+        }));
+  }
+
+  /**
+   * Binds a QQ number to a player unless that QQ number already has the maximum number of
+   * accounts. Keeping the bound QQ number is always allowed. The count and the update run in
+   * the same write, so concurrent binds cannot both pass the limit. A QQ number the filter has
+   * never seen has no accounts, so its count is skipped.
+   *
+   * @param uuid The player's UUID.
+   * @param qq The QQ number to bind.
+   * @param maxAccounts The maximum number of accounts per QQ number.
+   * @return A future completed with true if the binding was written, or false if the QQ number
+   *     is at the limit, once the write has been committed.
+   */
+  public CompletableFuture<Boolean> updateBindingWithinLimit(UUID uuid, long qq, int maxAccounts) {
+    String currentSql = "SELECT qq FROM auth_players WHERE uuid = ?";
+    String countSql = "SELECT COUNT(*) FROM auth_players WHERE qq = ?";
+    String updateSql = "UPDATE auth_players SET qq = ? WHERE uuid = ?";
+    boolean[] bound = new boolean[1];
+    return submitWrite("Could not update binding", conn -> {
+      try (PreparedStatement current = conn.prepareStatement(currentSql)) {
+        current.setString(1, uuid.toString());
+        try (ResultSet rs = current.executeQuery()) {
+          if (rs.next() && rs.getLong(1) == qq) {
+            bound[0] = true; // Already bound to this QQ number
+            return;
+          }
+        }
+      }
+      // Filter keys are only added on the write thread or before a write is queued, so a
+      // definite miss here cannot overlook a binding that runs before this one
+      int accountCount = 0;
+      if (!isNeverBound(qq)) {
+        try (PreparedStatement count = conn.prepareStatement(countSql)) {
+          count.setLong(1, qq);
+          try (ResultSet rs = count.executeQuery()) {
+            accountCount = rs.next() ? rs.getInt(1) : 0;
+          }
+        }
+        if (accountCount == 0 && qqFilter != null) {
+          qqFilter.recordFalsePositive();
+        }
+      }
+      if (accountCount >= maxAccounts) {
+        return;
+      }
+      if (qqFilter != null && qq != 0) {
+        qqFilter.put(qq); // Before the update commits, so no lookup misses the binding
+      }
+      try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+        update.setLong(1, qq);
+        update.setString(2, uuid.toString());
+        update.executeUpdate();
+      }
+      bound[0] = true;
+    }).thenApply(ignored -> {
+      // Only a committed binding reaches the cache, since a rejected one changed nothing
+      if (bound[0]) {
+        bindingCache.bindingChanged(uuid, qq);
+      }
+      return bound[0];
+    });
   }
 
   /**
@@ -160,19 +549,7 @@ public class DatabaseManager {
    * @return The bound QQ number, or 0 if not bound.
    */
   public long getQq(UUID uuid) {
-    String sql = "SELECT qq FROM auth_players WHERE uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return rs.getLong("qq");
-        }
-      }
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not get QQ", e);
-    }
-    return 0;
+    return getBinding(uuid, "Could not get QQ").getQq();
   }
 
   /**
@@ -181,18 +558,18 @@ public class DatabaseManager {
    * @param uuid The player's UUID.
    * @param key The metadata key.
    * @param value The metadata value.
+   * @return A future completed once the write has been committed.
    */
-  public void setMeta(UUID uuid, String key, String value) {
+  public CompletableFuture<Void> setMeta(UUID uuid, String key, String value) {
     String sql = "INSERT OR REPLACE INTO player_meta (uuid, meta_key, meta_value) VALUES (?, ?, ?)";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      pstmt.setString(2, key);
-      pstmt.setString(3, value);
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not set meta", e);
-    }
+    return submitWrite("Could not set meta", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, uuid.toString());
+        pstmt.setString(2, key);
+        pstmt.setString(3, value);
+        pstmt.executeUpdate();
+      }
+    });
   }
 
   /**
@@ -200,17 +577,17 @@ public class DatabaseManager {
    *
    * @param uuid The player's UUID.
    * @param key The metadata key to delete.
+   * @return A future completed once the write has been committed.
    */
-  public void deleteMeta(UUID uuid, String key) {
+  public CompletableFuture<Void> deleteMeta(UUID uuid, String key) {
     String sql = "DELETE FROM player_meta WHERE uuid = ? AND meta_key = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      pstmt.setString(2, key);
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not delete meta", e);
-    }
+    return submitWrite("Could not delete meta", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, uuid.toString());
+        pstmt.setString(2, key);
+        pstmt.executeUpdate();
+      }
+    });
   }
 
   /**
@@ -221,7 +598,7 @@ public class DatabaseManager {
   public List<String> getAllMetaKeys() {
     List<String> keys = new ArrayList<>();
     String sql = "SELECT DISTINCT meta_key FROM player_meta";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          Statement stmt = conn.createStatement();
          ResultSet rs = stmt.executeQuery(sql)) {
       while (rs.next()) {
@@ -235,28 +612,36 @@ public class DatabaseManager {
 
   /**
    * Gets all player data for CSV export.
+   * Players and their metadata are read with a single join ordered by UUID, so every
+   * player's meta rows arrive consecutively and the result is assembled in one pass.
    *
    * @return A list of maps, each containing player data.
    */
   public List<Map<String, String>> getAllPlayersData() {
     List<Map<String, String>> data = new ArrayList<>();
-    String sql = "SELECT * FROM auth_players";
-    try (Connection conn = getConnection();
+    String sql = "SELECT p.uuid, p.name, p.qq, p.created_at, m.meta_key, m.meta_value "
+        + "FROM auth_players p LEFT JOIN player_meta m ON m.uuid = p.uuid "
+        + "ORDER BY p.uuid";
+    try (Connection conn = getReadConnection();
          Statement stmt = conn.createStatement();
          ResultSet rs = stmt.executeQuery(sql)) {
+      String currentUuid = null;
+      Map<String, String> playerMap = null;
       while (rs.next()) {
-        Map<String, String> playerMap = new HashMap<>();
-        String uuid = rs.getString("uuid");
-        playerMap.put("UUID", uuid);
-        playerMap.put("Name", rs.getString("name"));
-        playerMap.put("QQ", String.valueOf(rs.getLong("qq")));
-        playerMap.put("Created", String.valueOf(rs.getLong("created_at")));
-        
-        // Fetch meta
-        Map<String, String> meta = getAllMeta(UUID.fromString(uuid));
-        playerMap.putAll(meta);
-        
-        data.add(playerMap);
+        String uuid = rs.getString(1);
+        if (!uuid.equals(currentUuid)) {
+          currentUuid = uuid;
+          playerMap = new HashMap<>();
+          playerMap.put("UUID", uuid);
+          playerMap.put("Name", rs.getString(2));
+          playerMap.put("QQ", String.valueOf(rs.getLong(3)));
+          playerMap.put("Created", String.valueOf(rs.getLong(4)));
+          data.add(playerMap);
+        }
+        String metaKey = rs.getString(5);
+        if (metaKey != null) { // null when the player has no meta rows
+          playerMap.put(metaKey, rs.getString(6));
+        }
       }
     } catch (SQLException e) {
       logger.log(Level.SEVERE, "Could not get all players data", e);
@@ -264,6 +649,129 @@ public class DatabaseManager {
     return data;
   }
 
+  /**
+   * Streams one page of players matching the query's filters, in the query's sort order.
+   * Each player is handed to the callback, together with its meta fields, as soon as its
+   * last row has been read, so the page is never held in memory as a whole.
+   *
+   * @param query The filters, sort order and cursor.
+   * @param callback Receives each player in the same format as {@link #getAllPlayersData()}.
+   * @return The cursor for the next page and, for the first page, the matching total.
+   * @throws IOException If the players could not be read or the callback fails to write a row.
+   */
+  public PlayerPage getPlayersPage(PlayerQuery query, RowCallback callback) throws IOException {
+    StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+    List<Object> params = new ArrayList<>();
+    if (query.getBound() != null) {
+      where.append(query.getBound() ? " AND p.qq > 0" : " AND (p.qq IS NULL OR p.qq = 0)");
+    }
+    if (query.getQq() != null) {
+      where.append(" AND p.qq = ?");
+      params.add(query.getQq());
+    }
+    if (query.getNamePrefix() != null) {
+      // A range rather than LIKE, so '_' in names matches literally and the NOCASE index is used
+      where.append(" AND p.name >= ? COLLATE NOCASE AND p.name < ? COLLATE NOCASE");
+      params.add(query.getNamePrefix());
+      params.add(query.getNamePrefix() + Character.MAX_VALUE);
+    }
+    if (query.getMetaKey() != null) {
+      where.append(" AND p.uuid IN (SELECT uuid FROM player_meta WHERE meta_key = ? AND meta_value = ?)");
+      params.add(query.getMetaKey());
+      params.add(query.getMetaValue());
+    }
+
+    String orderBy = query.getSort().getOrderBy() + " " + (query.isDescending() ? "DESC" : "ASC")
+        + ", p.uuid " + (query.isDescending() ? "DESC" : "ASC");
+    String select = "SELECT p.uuid, p.name, p.qq, p.created_at FROM auth_players p" + where;
+    String limit = " ORDER BY " + orderBy + " LIMIT ?";
+    String pageSql = select + limit;
+    List<Object> pageParams = new ArrayList<>(params);
+    if (query.hasCursor()) {
+      boolean afterNull = query.getAfterValue() == null;
+      String[] predicates = query.getSort().getKeysetPredicates(query.isDescending(), afterNull);
+      pageSql = "SELECT * FROM (" + select + " AND " + predicates[0] + limit + ")";
+      if (!afterNull) {
+        pageParams.add(query.getAfterValue());
+      }
+      pageParams.add(query.getAfterUuid());
+      if (predicates.length > 1) {
+        // Separate ranges, so each seeks into the index instead of scanning past the cursor
+        pageParams.add(query.getLimit() + 1);
+        pageParams.addAll(params);
+        pageSql += " UNION ALL SELECT * FROM (" + select + " AND " + predicates[1] + limit + ")";
+      }
+    }
+    pageParams.add(query.getLimit() + 1); // One extra row tells whether another page follows
+    // Select the page first, then join its meta rows so each player's rows arrive together
+    String sql = "WITH page AS (" + pageSql + ") "
+        + "SELECT p.uuid, p.name, p.qq, p.created_at, m.meta_key, m.meta_value "
+        + "FROM page p LEFT JOIN player_meta m ON m.uuid = p.uuid ORDER BY " + orderBy;
+
+    String nextCursor = null;
+    long total = -1;
+    try (Connection conn = getReadConnection()) {
+      if (!query.hasCursor()) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM auth_players p" + where)) {
+          bindAll(pstmt, params);
+          try (ResultSet rs = pstmt.executeQuery()) {
+            total = rs.next() ? rs.getLong(1) : 0;
+          }
+        }
+      }
+
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        bindAll(pstmt, pageParams);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          Map<String, String> current = null;
+          String currentSortValue = null; // As stored, so NULL stays distinct from "null" and 0
+          int emitted = 0;
+          while (rs.next()) {
+            String uuid = rs.getString(1);
+            if (current == null || !uuid.equals(current.get("UUID"))) {
+              if (current != null) {
+                callback.accept(current);
+                emitted++;
+              }
+              if (emitted == query.getLimit()) { // This is the extra row: the page is full
+                nextCursor = query.cursorAfter(currentSortValue, current.get("UUID"));
+                current = null;
+                break;
+              }
+              current = new HashMap<>();
+              current.put("UUID", uuid);
+              current.put("Name", rs.getString(2));
+              current.put("QQ", String.valueOf(rs.getLong(3)));
+              current.put("Created", String.valueOf(rs.getLong(4)));
+              currentSortValue = switch (query.getSort()) {
+                case NAME -> rs.getString(2);
+                case QQ -> rs.getObject(3) != null ? String.valueOf(rs.getLong(3)) : null;
+                case CREATED -> rs.getObject(4) != null ? String.valueOf(rs.getLong(4)) : null;
+              };
+            }
+            String metaKey = rs.getString(5);
+            if (metaKey != null) { // null when the player has no meta rows
+              current.put(metaKey, rs.getString(6));
+            }
+          }
+          if (current != null) {
+            callback.accept(current);
+          }
+        }
+      }
+    } catch (SQLException e) {
+      // Rows may already have been written, so the caller must abort rather than end the page
+      throw new IOException("Could not get players page", e);
+    }
+    return new PlayerPage(nextCursor, total);
+  }
+
+  private static void bindAll(PreparedStatement pstmt, List<?> params) throws SQLException {
+    for (int i = 0; i < params.size(); i++) {
+      pstmt.setObject(i + 1, params.get(i));
+    }
+  }
+
   /**
    * Gets all metadata for a specific player UUID.
    *
@@ -273,7 +781,7 @@ public class DatabaseManager {
   public Map<String, String> getAllMeta(UUID uuid) {
     Map<String, String> meta = new HashMap<>();
     String sql = "SELECT meta_key, meta_value FROM player_meta WHERE uuid = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, uuid.toString());
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -294,19 +802,112 @@ public class DatabaseManager {
    * @return The UUID, or null if not found.
    */
   public UUID findUuidByQq(long qq) {
-    String sql = "SELECT uuid FROM auth_players WHERE qq = ?";
-    try (Connection conn = getConnection();
+    List<UUID> accounts = getAccounts(qq, "Could not find UUID by QQ");
+    return accounts.isEmpty() ? null : accounts.get(0);
+  }
+
+  /**
+   * Finds the accounts bound to many QQ numbers at once, e.g. for a sweep over the members of
+   * a QQ group. Cached QQ numbers are answered from memory; the rest are read with chunked
+   * {@code IN} lists and cached.
+   *
+   * @param qqs The QQ numbers. 0 marks an unbound player and never has accounts.
+   * @return Each QQ number mapped to the UUIDs bound to it, in the order given.
+   * @throws SQLException If the bindings could not be read.
+   */
+  public Map<Long, List<UUID>> findAccountsByQq(Collection<Long> qqs) throws SQLException {
+    Map<Long, List<UUID>> accounts = new LinkedHashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long qq : qqs) {
+      if (accounts.containsKey(qq)) {
+        continue;
+      }
+      if (isNeverBound(qq)) {
+        accounts.put(qq, List.of());
+        continue;
+      }
+      List<UUID> cached = bindingCache.getAccounts(qq);
+      accounts.put(qq, cached); // A placeholder for a miss keeps the order
+      if (cached == null) {
+        missing.add(qq);
+      } else {
+        noteFilterOutcome(cached);
+      }
+    }
+    for (int i = 0; i < missing.size(); i += QQ_CHUNK_SIZE) {
+      List<Long> chunk = missing.subList(i, Math.min(missing.size(), i + QQ_CHUNK_SIZE));
+      String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+      String sql = "SELECT qq, uuid FROM auth_players WHERE qq IN (" + placeholders + ")";
+      Map<Long, List<UUID>> loaded = new HashMap<>();
+      for (Long qq : chunk) {
+        loaded.put(qq, new ArrayList<>());
+      }
+      long stamp = bindingCache.stamp();
+      try (Connection conn = getReadConnection();
+           PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        for (int j = 0; j < chunk.size(); j++) {
+          pstmt.setLong(j + 1, chunk.get(j));
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            loaded.get(rs.getLong(1)).add(UUID.fromString(rs.getString(2)));
+          }
+        }
+      }
+      for (Map.Entry<Long, List<UUID>> entry : loaded.entrySet()) {
+        bindingCache.putAccounts(entry.getKey(), entry.getValue(), stamp);
+        accounts.put(entry.getKey(), entry.getValue());
+        noteFilterOutcome(entry.getValue());
+      }
+    }
+    return accounts;
+  }
+
+  // Serves the accounts bound to a QQ number from the cache, loading them on a miss.
+  private List<UUID> getAccounts(long qq, String errorMessage) {
+    if (qq != 0 && isNeverBound(qq)) {
+      return List.of();
+    }
+    List<UUID> cached = bindingCache.getAccounts(qq);
+    if (cached != null) {
+      if (qq != 0) {
+        noteFilterOutcome(cached);
+      }
+      return cached;
+    }
+    // Every unbound player has qq 0, so that list is capped and never cached
+    String sql = "SELECT uuid FROM auth_players WHERE qq = ?" + (qq == 0 ? " LIMIT 1" : "");
+    long stamp = bindingCache.stamp();
+    List<UUID> accounts = new ArrayList<>();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setLong(1, qq);
       try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return UUID.fromString(rs.getString("uuid"));
+        while (rs.next()) {
+          accounts.add(UUID.fromString(rs.getString("uuid")));
         }
       }
     } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not find UUID by QQ", e);
+      logger.log(Level.SEVERE, errorMessage, e);
+      return accounts;
+    }
+    bindingCache.putAccounts(qq, accounts, stamp);
+    if (qq != 0) {
+      noteFilterOutcome(accounts);
+    }
+    return accounts;
+  }
+
+  // Whether the QQ number has definitely never been bound, which needs no cache or database.
+  private boolean isNeverBound(long qq) {
+    return qq == 0 || (qqFilter != null && !qqFilter.mightContain(qq));
+  }
+
+  // Counts a QQ number the filter let through but that has no accounts.
+  private void noteFilterOutcome(List<UUID> accounts) {
+    if (accounts.isEmpty() && qqFilter != null) {
+      qqFilter.recordFalsePositive();
     }
-    return null;
   }
 
   /**
@@ -318,36 +919,45 @@ public class DatabaseManager {
    * @return The name, or null if not found.
    */
   public String getNameByUuid(UUID uuid) {
-    // First check if it's a bot
-    if (isBot(uuid)) {
-      String sql = "SELECT bot_name FROM auth_bots WHERE bot_uuid = ?";
-      try (Connection conn = getConnection();
-           PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, uuid.toString());
-        try (ResultSet rs = pstmt.executeQuery()) {
-          if (rs.next()) {
-            return rs.getString("bot_name");
-          }
-        }
-      } catch (SQLException e) {
-        logger.log(Level.SEVERE, "Could not get bot name by UUID", e);
+    return displayName(getBinding(uuid, "Could not get name by UUID"));
+  }
+
+  /**
+   * Gets the names of many players at once. Cached players are answered from memory; the
+   * rest are read in batches and cached.
+   *
+   * @param uuids The players' UUIDs.
+   * @return Each UUID mapped to its name as returned by {@link #getNameByUuid(UUID)}, or to
+   *     null if not found.
+   * @throws SQLException If the names could not be read.
+   */
+  public Map<UUID, String> getNamesByUuid(Collection<UUID> uuids) throws SQLException {
+    Map<UUID, String> names = new HashMap<>();
+    List<UUID> missing = new ArrayList<>();
+    for (UUID uuid : uuids) {
+      BindingCache.Record cached = bindingCache.getRecord(uuid);
+      if (cached != null) {
+        names.put(uuid, displayName(cached));
+      } else {
+        missing.add(uuid);
       }
     }
-    
-    // If not a bot or bot name not found, try auth_players table
-    String sql = "SELECT name FROM auth_players WHERE uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return rs.getString("name");
-        }
+    int chunkSize = options.getLoginBatchSize(); // Two bound parameters per UUID
+    for (int i = 0; i < missing.size(); i += chunkSize) {
+      Map<UUID, BindingCache.Record> loaded = loadBindings(missing.subList(i, Math.min(missing.size(), i + chunkSize)));
+      for (Map.Entry<UUID, BindingCache.Record> record : loaded.entrySet()) {
+        names.put(record.getKey(), displayName(record.getValue()));
       }
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not get name by UUID", e);
     }
-    return null;
+    return names;
+  }
+
+  // Bots are named by their auth_bots row, falling back to auth_players.
+  private static String displayName(BindingCache.Record record) {
+    if (record.isBot() && record.getBotName() != null) {
+      return record.getBotName();
+    }
+    return record.getName();
   }
 
   /**
@@ -357,13 +967,20 @@ public class DatabaseManager {
    * @return The UUID, or null if not found.
    */
   public UUID getPlayerUuid(String name) {
+    UUID cached = bindingCache.getUuidByName(name);
+    if (cached != null) {
+      return cached;
+    }
     String sql = "SELECT uuid FROM auth_players WHERE name = ?";
-    try (Connection conn = getConnection();
+    long stamp = bindingCache.stamp();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, name);
       try (ResultSet rs = pstmt.executeQuery()) {
         if (rs.next()) {
-          return UUID.fromString(rs.getString("uuid"));
+          UUID uuid = UUID.fromString(rs.getString("uuid"));
+          bindingCache.putName(name, uuid, stamp);
+          return uuid;
         }
       }
     } catch (SQLException e) {
@@ -407,16 +1024,18 @@ public class DatabaseManager {
    * @return The count of bound accounts.
    */
   public int getAccountCountByQq(long qq) {
-    String sql = "SELECT COUNT(*) FROM auth_players WHERE qq = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setLong(1, qq);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return rs.getInt(1);
-        }
-        return 0; // Added for clarity, though rs.getInt(1) would be 0 if no results
-      }
+    if (qq == 0) {
+      return countUnboundAccounts();
+    }
+    return getAccounts(qq, "Could not get account count by QQ").size();
+  }
+
+  private int countUnboundAccounts() {
+    String sql = "SELECT COUNT(*) FROM auth_players WHERE qq = 0";
+    try (Connection conn = getReadConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(sql)) {
+      return rs.next() ? rs.getInt(1) : 0;
     } catch (SQLException e) {
       logger.log(Level.SEVERE, "Could not get account count by QQ", e);
     }
@@ -429,19 +1048,67 @@ public class DatabaseManager {
    * @param botUuid The UUID of the bot player.
    * @param ownerUuid The UUID of the owner player.
    * @param botName The name of the bot.
+   * @return A future completed once the write has been committed.
    */
-  public void markPlayerAsBot(UUID botUuid, UUID ownerUuid, String botName) {
+  public CompletableFuture<Void> markPlayerAsBot(UUID botUuid, UUID ownerUuid, String botName) {
     String sql = "INSERT OR REPLACE INTO auth_bots (bot_uuid, bot_name, owner_uuid, created_at) VALUES (?, ?, ?, ?)";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, botUuid.toString());
-      pstmt.setString(2, botName);
-      pstmt.setString(3, ownerUuid != null ? ownerUuid.toString() : null);
-      pstmt.setLong(4, System.currentTimeMillis());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not mark player as bot in auth_bots", e);
-    }
+    long createdAt = System.currentTimeMillis();
+    return writeThrough(() -> bindingCache.botMarked(botUuid, ownerUuid, botName),
+        submitWrite("Could not mark player as bot in auth_bots", conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, botUuid.toString());
+            pstmt.setString(2, botName);
+            pstmt.setString(3, ownerUuid != null ? ownerUuid.toString() : null);
+            pstmt.setLong(4, createdAt);
+            pstmt.executeUpdate();
+          }
+        }));
+  }
+
+  /**
+   * Marks a player as a bot of an owner unless the owner already has the maximum number of
+   * bots. Re-binding a bot the owner already has does not count against the limit. The count
+   * and the insert run in the same write, so concurrent requests cannot both pass the limit.
+   *
+   * @param botUuid The UUID of the bot player.
+   * @param ownerUuid The UUID of the owner player.
+   * @param botName The name of the bot.
+   * @param maxBots The maximum number of bots per owner; a negative number means unlimited.
+   * @return A future completed with the number of other bots the owner has once the write has
+   *     been committed; the bot was only written if that number is below the limit.
+   */
+  public CompletableFuture<Integer> markPlayerAsBotWithinLimit(UUID botUuid, UUID ownerUuid, String botName,
+      int maxBots) {
+    String countSql = "SELECT COUNT(*) FROM auth_bots WHERE owner_uuid = ? AND bot_uuid != ?";
+    String insertSql = "INSERT OR REPLACE INTO auth_bots (bot_uuid, bot_name, owner_uuid, created_at) VALUES (?, ?, ?, ?)";
+    long createdAt = System.currentTimeMillis();
+    int[] otherBots = new int[1];
+    boolean[] marked = new boolean[1];
+    return submitWrite("Could not mark player as bot in auth_bots", conn -> {
+      try (PreparedStatement count = conn.prepareStatement(countSql)) {
+        count.setString(1, ownerUuid.toString());
+        count.setString(2, botUuid.toString());
+        try (ResultSet rs = count.executeQuery()) {
+          otherBots[0] = rs.next() ? rs.getInt(1) : 0;
+        }
+      }
+      if (maxBots >= 0 && otherBots[0] >= maxBots) {
+        return;
+      }
+      try (PreparedStatement insert = conn.prepareStatement(insertSql)) {
+        insert.setString(1, botUuid.toString());
+        insert.setString(2, botName);
+        insert.setString(3, ownerUuid.toString());
+        insert.setLong(4, createdAt);
+        insert.executeUpdate();
+      }
+      marked[0] = true;
+    }).thenApply(ignored -> {
+      if (marked[0]) {
+        bindingCache.botMarked(botUuid, ownerUuid, botName);
+      }
+      return otherBots[0];
+    });
   }
 
   /**
@@ -452,7 +1119,7 @@ public class DatabaseManager {
    */
   public int getBotCountForOwner(UUID ownerUuid) {
     String sql = "SELECT COUNT(*) FROM auth_bots WHERE owner_uuid = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, ownerUuid.toString());
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -473,35 +1140,24 @@ public class DatabaseManager {
    * @return true if the UUID is associated with a bot, false otherwise.
    */
   public boolean isBot(UUID uuid) {
-    String sql = "SELECT COUNT(*) FROM auth_bots WHERE bot_uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return rs.getInt(1) > 0;
-        }
-      }
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not check if UUID is bot", e);
-    }
-    return false;
+    return getBinding(uuid, "Could not check if UUID is bot").isBot();
   }
 
   /**
    * Deletes a bot from the auth_bots table.
    *
    * @param botUuid The UUID of the bot to delete.
+   * @return A future completed once the write has been committed.
    */
-  public void deleteBot(UUID botUuid) {
+  public CompletableFuture<Void> deleteBot(UUID botUuid) {
     String sql = "DELETE FROM auth_bots WHERE bot_uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, botUuid.toString());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not delete bot from auth_bots", e);
-    }
+    return writeThrough(() -> bindingCache.botDeleted(botUuid),
+        submitWrite("Could not delete bot from auth_bots", conn -> {
+          try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, botUuid.toString());
+            pstmt.executeUpdate();
+          }
+        }));
   }
 
   /**
@@ -511,20 +1167,7 @@ public class DatabaseManager {
    * @return The owner's UUID, or null if not found or not a bot.
    */
   public UUID getBotOwner(UUID botUuid) {
-    String sql = "SELECT owner_uuid FROM auth_bots WHERE bot_uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, botUuid.toString());
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          String ownerUuidStr = rs.getString("owner_uuid");
-          return ownerUuidStr != null ? UUID.fromString(ownerUuidStr) : null;
-        }
-      }
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not get bot owner", e);
-    }
-    return null;
+    return getBinding(botUuid, "Could not get bot owner").getBotOwner();
   }
 
   /**
@@ -536,7 +1179,7 @@ public class DatabaseManager {
   public List<Map<String, String>> getBotsByOwner(UUID ownerUuid) {
     List<Map<String, String>> bots = new ArrayList<>();
     String sql = "SELECT * FROM auth_bots WHERE owner_uuid = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, ownerUuid.toString());
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -563,7 +1206,7 @@ public class DatabaseManager {
    */
   public UUID getOwnerByBotName(String botName) {
     String sql = "SELECT owner_uuid FROM auth_bots WHERE bot_name = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, botName);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -596,7 +1239,7 @@ public class DatabaseManager {
    */
   public UUID getBotUuidByName(String botName) {
     String sql = "SELECT bot_uuid FROM auth_bots WHERE bot_name = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, botName);
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -617,22 +1260,11 @@ public class DatabaseManager {
    */
   public List<Map<String, String>> getAllBotsData() {
     List<Map<String, String>> bots = new ArrayList<>();
-    String sql = "SELECT b.bot_uuid, b.bot_name, b.owner_uuid, b.created_at, "
-        + "p.name as owner_name, p.qq as owner_qq "
-        + "FROM auth_bots b "
-        + "LEFT JOIN auth_players p ON b.owner_uuid = p.uuid";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          Statement stmt = conn.createStatement();
-         ResultSet rs = stmt.executeQuery(sql)) {
+         ResultSet rs = stmt.executeQuery(ALL_BOTS_SQL)) {
       while (rs.next()) {
-        Map<String, String> botMap = new HashMap<>();
-        botMap.put("bot_uuid", rs.getString("bot_uuid"));
-        botMap.put("bot_name", rs.getString("bot_name"));
-        botMap.put("owner_uuid", rs.getString("owner_uuid"));
-        botMap.put("created_at", String.valueOf(rs.getLong("created_at")));
-        botMap.put("owner_name", rs.getString("owner_name"));
-        botMap.put("owner_qq", rs.getString("owner_qq") != null ? String.valueOf(rs.getLong("owner_qq")) : "0");
-        bots.add(botMap);
+        bots.add(toBotMap(rs));
       }
     } catch (SQLException e) {
       logger.log(Level.SEVERE, "Could not get all bots data", e);
@@ -640,22 +1272,72 @@ public class DatabaseManager {
     return bots;
   }
 
+  /**
+   * Streams all bots with their owner information, one row at a time.
+   *
+   * @param callback Receives each bot in the same format as {@link #getAllBotsData()}.
+   * @throws IOException If the bots could not be read or the callback fails to write a row.
+   */
+  public void forEachBot(RowCallback callback) throws IOException {
+    try (Connection conn = getReadConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(ALL_BOTS_SQL)) {
+      while (rs.next()) {
+        callback.accept(toBotMap(rs));
+      }
+    } catch (SQLException e) {
+      throw new IOException("Could not stream bots data", e);
+    }
+  }
+
+  private static Map<String, String> toBotMap(ResultSet rs) throws SQLException {
+    Map<String, String> botMap = new HashMap<>();
+    botMap.put("bot_uuid", rs.getString("bot_uuid"));
+    botMap.put("bot_name", rs.getString("bot_name"));
+    botMap.put("owner_uuid", rs.getString("owner_uuid"));
+    botMap.put("created_at", String.valueOf(rs.getLong("created_at")));
+    botMap.put("owner_name", rs.getString("owner_name"));
+    botMap.put("owner_qq", rs.getString("owner_qq") != null ? String.valueOf(rs.getLong("owner_qq")) : "0");
+    return botMap;
+  }
+
   /**
    * Sets the web login password hash for a player.
    *
    * @param uuid The player's UUID.
    * @param passwordHash The BCrypt hash of the password.
+   * @return A future completed once the write has been committed.
    */
-  public void setWebPasswordHash(UUID uuid, String passwordHash) {
+  public CompletableFuture<Void> setWebPasswordHash(UUID uuid, String passwordHash) {
     String sql = "UPDATE auth_players SET web_password_hash = ? WHERE uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, passwordHash);
-      pstmt.setString(2, uuid.toString());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not set web password hash", e);
-    }
+    return submitWrite("Could not set web password hash", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, passwordHash);
+        pstmt.setString(2, uuid.toString());
+        pstmt.executeUpdate();
+      }
+    });
+  }
+
+  /**
+   * Replaces a player's web login password hash, but only if it still has the expected value.
+   * Used for rehashing, so a password changed in the meantime is never overwritten.
+   *
+   * @param uuid The player's UUID.
+   * @param expectedHash The hash the new one replaces.
+   * @param newHash The new BCrypt hash.
+   * @return A future completed once the write has been committed.
+   */
+  public CompletableFuture<Void> replaceWebPasswordHash(UUID uuid, String expectedHash, String newHash) {
+    String sql = "UPDATE auth_players SET web_password_hash = ? WHERE uuid = ? AND web_password_hash = ?";
+    return submitWrite("Could not replace web password hash", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, newHash);
+        pstmt.setString(2, uuid.toString());
+        pstmt.setString(3, expectedHash);
+        pstmt.executeUpdate();
+      }
+    });
   }
 
   /**
@@ -666,7 +1348,7 @@ public class DatabaseManager {
    */
   public String getWebPasswordHash(UUID uuid) {
     String sql = "SELECT web_password_hash FROM auth_players WHERE uuid = ?";
-    try (Connection conn = getConnection();
+    try (Connection conn = getReadConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
       pstmt.setString(1, uuid.toString());
       try (ResultSet rs = pstmt.executeQuery()) {
@@ -684,16 +1366,16 @@ public class DatabaseManager {
    * Removes the web login password for a player.
    *
    * @param uuid The player's UUID.
+   * @return A future completed once the write has been committed.
    */
-  public void removeWebPassword(UUID uuid) {
+  public CompletableFuture<Void> removeWebPassword(UUID uuid) {
     String sql = "UPDATE auth_players SET web_password_hash = NULL WHERE uuid = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, uuid.toString());
-      pstmt.executeUpdate();
-    } catch (SQLException e) {
-      logger.log(Level.SEVERE, "Could not remove web password", e);
-    }
+    return submitWrite("Could not remove web password", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, uuid.toString());
+        pstmt.executeUpdate();
+      }
+    });
   }
 
   /**
@@ -706,5 +1388,85 @@ public class DatabaseManager {
     String hash = getWebPasswordHash(uuid);
     return hash != null && !hash.isEmpty();
   }
-}
 
+  /**
+   * Persists a web login session.
+   *
+   * @param tokenHash The hash of the session token.
+   * @param uuid The player's UUID.
+   * @param createdAt When the session was created.
+   * @param expiresAt When the session expires.
+   * @return A future completed once the write has been committed.
+   */
+  public CompletableFuture<Void> saveWebSession(String tokenHash, UUID uuid, long createdAt, long expiresAt) {
+    String sql = "INSERT OR REPLACE INTO web_sessions (token_hash, uuid, created_at, expires_at) VALUES (?, ?, ?, ?)";
+    return submitWrite("Could not save web session", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, tokenHash);
+        pstmt.setString(2, uuid.toString());
+        pstmt.setLong(3, createdAt);
+        pstmt.setLong(4, expiresAt);
+        pstmt.executeUpdate();
+      }
+    });
+  }
+
+  /**
+   * Loads a web login session.
+   *
+   * @param tokenHash The hash of the session token.
+   * @return A map with "uuid", "created_at" and "expires_at", or null if there is no such session.
+   */
+  public Map<String, String> findWebSession(String tokenHash) {
+    String sql = "SELECT uuid, created_at, expires_at FROM web_sessions WHERE token_hash = ?";
+    try (Connection conn = getReadConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, tokenHash);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        if (rs.next()) {
+          Map<String, String> session = new HashMap<>();
+          session.put("uuid", rs.getString("uuid"));
+          session.put("created_at", String.valueOf(rs.getLong("created_at")));
+          session.put("expires_at", String.valueOf(rs.getLong("expires_at")));
+          return session;
+        }
+      }
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, "Could not load web session", e);
+    }
+    return null;
+  }
+
+  /**
+   * Deletes a web login session.
+   *
+   * @param tokenHash The hash of the session token.
+   * @return A future completed once the write has been committed.
+   */
+  public CompletableFuture<Void> deleteWebSession(String tokenHash) {
+    String sql = "DELETE FROM web_sessions WHERE token_hash = ?";
+    return submitWrite("Could not delete web session", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, tokenHash);
+        pstmt.executeUpdate();
+      }
+    });
+  }
+
+  /**
+   * Deletes every web login session that expired before the given time in one statement.
+   *
+   * @param now The current time in milliseconds.
+   * @return A future completed with the number of deleted sessions once the write has been committed.
+   */
+  public CompletableFuture<Integer> deleteExpiredWebSessions(long now) {
+    String sql = "DELETE FROM web_sessions WHERE expires_at <= ?";
+    int[] deleted = new int[1];
+    return submitWrite("Could not delete expired web sessions", conn -> {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setLong(1, now);
+        deleted[0] = pstmt.executeUpdate();
+      }
+    }).thenApply(ignored -> deleted[0]);
+  }
+}
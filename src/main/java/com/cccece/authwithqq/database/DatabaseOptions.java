@@ -0,0 +1,168 @@
+package com.cccece.authwithqq.database;
+
+import java.util.Locale;
+import java.util.Set;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+/**
+ * Immutable connection and storage settings for the {@link DatabaseManager}.
+ */
+public final class DatabaseOptions {
+  private static final Set<String> JOURNAL_MODES = Set.of("WAL", "DELETE");
+  private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+  private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+
+  private final int readPoolSize;
+  private final int busyTimeoutMillis;
+  private final long acquireTimeoutMillis;
+  private final String journalMode;
+  private final String synchronous;
+  private final int cacheSize;
+  private final long mmapSize;
+  private final String tempStore;
+  private final int checkpointIntervalSeconds;
+  private final int checkpointQuietSeconds;
+  private final int writeBatchSize;
+  private final int writeBatchDelayMillis;
+  private final int loginBatchSize;
+  private final int loginBatchDelayMillis;
+  private final int bindingCacheSize;
+  private final boolean qqFilterEnabled;
+  private final long qqFilterExpectedBindings;
+  private final double qqFilterFalsePositiveRate;
+  private final long qqFilterMaxMemoryKb;
+
+  private DatabaseOptions(ConfigurationSection section) {
+    this.readPoolSize = Math.max(1, section.getInt("read-pool-size", 4));
+    this.busyTimeoutMillis = Math.max(0, section.getInt("busy-timeout", 5000));
+    this.acquireTimeoutMillis = Math.max(1, section.getLong("acquire-timeout", 10000L));
+    this.journalMode = choice(section.getString("journal-mode", "WAL"), JOURNAL_MODES, "WAL");
+    this.synchronous = choice(section.getString("synchronous", "NORMAL"), SYNCHRONOUS_MODES, "NORMAL");
+    this.cacheSize = section.getInt("cache-size", -8000);
+    this.mmapSize = Math.max(0, section.getLong("mmap-size", 67108864L));
+    this.tempStore = choice(section.getString("temp-store", "MEMORY"), TEMP_STORES, "MEMORY");
+    this.checkpointIntervalSeconds = Math.max(0, section.getInt("checkpoint.interval", 60));
+    this.checkpointQuietSeconds = Math.max(0, section.getInt("checkpoint.quiet-period", 300));
+    this.writeBatchSize = Math.max(1, section.getInt("write-batch.max-size", 256));
+    this.writeBatchDelayMillis = Math.max(0, section.getInt("write-batch.max-delay", 5));
+    // Each login uses two bound parameters; stay well below SQLite's variable limit
+    this.loginBatchSize = Math.max(1, Math.min(400, section.getInt("login-batch.max-size", 128)));
+    this.loginBatchDelayMillis = Math.max(0, section.getInt("login-batch.max-delay", 20));
+    this.bindingCacheSize = Math.max(0, section.getInt("binding-cache.max-size", 10000));
+    this.qqFilterEnabled = section.getBoolean("qq-filter.enabled", true);
+    this.qqFilterExpectedBindings = Math.max(1, section.getLong("qq-filter.expected-bindings", 100000L));
+    double rate = section.getDouble("qq-filter.false-positive-rate", 0.01);
+    this.qqFilterFalsePositiveRate = rate > 0 && rate < 1 ? rate : 0.01;
+    this.qqFilterMaxMemoryKb = Math.max(1, section.getLong("qq-filter.max-memory-kb", 1024L));
+  }
+
+  /**
+   * Reads the database options from the "database" section of config.yml.
+   *
+   * @param section The configuration section, may be null.
+   * @return The parsed options, falling back to defaults for missing or invalid values.
+   */
+  public static DatabaseOptions fromConfig(ConfigurationSection section) {
+    return new DatabaseOptions(section != null ? section : new MemoryConfiguration());
+  }
+
+  // Pragma values are concatenated into SQL, so only accept known keywords.
+  private static String choice(String value, Set<String> allowed, String fallback) {
+    if (value == null) {
+      return fallback;
+    }
+    String normalized = value.trim().toUpperCase(Locale.ROOT);
+    return allowed.contains(normalized) ? normalized : fallback;
+  }
+
+  public int getReadPoolSize() {
+    return readPoolSize;
+  }
+
+  public int getBusyTimeoutMillis() {
+    return busyTimeoutMillis;
+  }
+
+  public long getAcquireTimeoutMillis() {
+    return acquireTimeoutMillis;
+  }
+
+  /**
+   * Whether the database runs in write-ahead-log mode with scheduled checkpoints.
+   *
+   * @return true if WAL journaling is enabled.
+   */
+  public boolean isWalEnabled() {
+    return "WAL".equals(journalMode);
+  }
+
+  public String getJournalMode() {
+    return journalMode;
+  }
+
+  public String getSynchronous() {
+    return synchronous;
+  }
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  public long getMmapSize() {
+    return mmapSize;
+  }
+
+  public String getTempStore() {
+    return tempStore;
+  }
+
+  public int getCheckpointIntervalSeconds() {
+    return checkpointIntervalSeconds;
+  }
+
+  public int getCheckpointQuietSeconds() {
+    return checkpointQuietSeconds;
+  }
+
+  public int getWriteBatchSize() {
+    return writeBatchSize;
+  }
+
+  public int getWriteBatchDelayMillis() {
+    return writeBatchDelayMillis;
+  }
+
+  public int getLoginBatchSize() {
+    return loginBatchSize;
+  }
+
+  public int getLoginBatchDelayMillis() {
+    return loginBatchDelayMillis;
+  }
+
+  public int getBindingCacheSize() {
+    return bindingCacheSize;
+  }
+
+  /**
+   * Whether "is this QQ number bound?" lookups are screened by an in-memory Bloom filter.
+   *
+   * @return true if the filter is enabled.
+   */
+  public boolean isQqFilterEnabled() {
+    return qqFilterEnabled;
+  }
+
+  public long getQqFilterExpectedBindings() {
+    return qqFilterExpectedBindings;
+  }
+
+  public double getQqFilterFalsePositiveRate() {
+    return qqFilterFalsePositiveRate;
+  }
+
+  public long getQqFilterMaxMemoryKb() {
+    return qqFilterMaxMemoryKb;
+  }
+}
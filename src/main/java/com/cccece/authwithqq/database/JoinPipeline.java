@@ -0,0 +1,220 @@
+package com.cccece.authwithqq.database;
+
+import com.cccece.authwithqq.util.LatencyRecorder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the login state of joining players in batches.
+ *
+ * <p>After a restart, every reconnecting player would otherwise cost its own insert and
+ * select. Requests are collected on one thread for a short window, bounded by a maximum
+ * batch size and delay, and then resolved together: the bindings and bot flags of the whole
+ * batch are read with a single {@code SELECT ... WHERE uuid IN (...)}, which also warms the
+ * binding cache, and only the players submitted for registration and found without a row go
+ * to the write queue as one batched {@code INSERT OR IGNORE}.
+ */
+public class JoinPipeline implements AutoCloseable {
+  private static final class PendingLogin {
+    final UUID uuid;
+    final String name; // Null to only read the state
+    final CompletableFuture<LoginState> future = new CompletableFuture<>();
+    final long enqueuedNanos = System.nanoTime();
+
+    PendingLogin(UUID uuid, String name) {
+      this.uuid = uuid;
+      this.name = name;
+    }
+  }
+
+  private static final PendingLogin SHUTDOWN = new PendingLogin(null, null);
+
+  private final DatabaseManager databaseManager;
+  private final Logger logger;
+  private final int maxBatchSize;
+  private final long maxBatchDelayNanos;
+  private final BlockingQueue<PendingLogin> queue = new LinkedBlockingQueue<>();
+  private final Thread thread;
+  private volatile boolean accepting = true;
+
+  // --- Metrics ---
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder resolved = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final AtomicLong maxBatch = new AtomicLong();
+  private final LatencyRecorder latency = new LatencyRecorder(1024);
+
+  /**
+   * Starts the pipeline thread.
+   *
+   * @param databaseManager The database the batches are resolved against.
+   * @param options The settings providing the batch size and delay bounds.
+   * @param logger The logger for reporting errors.
+   */
+  JoinPipeline(DatabaseManager databaseManager, DatabaseOptions options, Logger logger) {
+    this.databaseManager = databaseManager;
+    this.logger = logger;
+    this.maxBatchSize = options.getLoginBatchSize();
+    this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(options.getLoginBatchDelayMillis());
+    this.thread = new Thread(this::run, "AuthWithQq-Join-Pipeline");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Loads a player's login state, registering them as a guest first if they are new and a
+   * name is given.
+   *
+   * @param uuid The player's UUID.
+   * @param name The player's name, or null to load the state without registering the player.
+   * @return A future completed with the login state once the player's batch is resolved.
+   */
+  public CompletableFuture<LoginState> submit(UUID uuid, String name) {
+    PendingLogin pending = new PendingLogin(uuid, name);
+    if (!accepting) {
+      pending.future.completeExceptionally(new SQLException("Join pipeline is closed"));
+      return pending.future;
+    }
+    queue.add(pending);
+    return pending.future;
+  }
+
+  private void run() {
+    List<PendingLogin> batch = new ArrayList<>(maxBatchSize);
+    boolean shuttingDown = false;
+    while (!shuttingDown) {
+      try {
+        PendingLogin first = queue.take();
+        if (first == SHUTDOWN) {
+          break;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize) {
+          PendingLogin next = queue.poll();
+          if (next == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              break;
+            }
+            next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+          }
+          if (next == SHUTDOWN) {
+            shuttingDown = true;
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        shuttingDown = true;
+      }
+      resolve(batch);
+      batch.clear();
+    }
+    // Logins still waiting are answered rather than left hanging
+    List<PendingLogin> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    remaining.remove(SHUTDOWN);
+    for (int i = 0; i < remaining.size(); i += maxBatchSize) {
+      resolve(remaining.subList(i, Math.min(remaining.size(), i + maxBatchSize)));
+    }
+  }
+
+  private void resolve(List<PendingLogin> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Set<UUID> uuids = new LinkedHashSet<>();
+    Map<UUID, String> names = new LinkedHashMap<>(); // Players to register if they are new
+    for (PendingLogin pending : batch) {
+      uuids.add(pending.uuid);
+      if (pending.name != null) {
+        names.put(pending.uuid, pending.name);
+      }
+    }
+    Map<UUID, BindingCache.Record> records;
+    try {
+      records = databaseManager.loadBindings(uuids);
+      // A new row has no binding yet, so the login state does not wait for the insert
+      names.keySet().removeIf(uuid -> records.get(uuid).isRegistered());
+      if (!names.isEmpty()) {
+        databaseManager.addGuests(names);
+        names.forEach((uuid, name) -> records.put(uuid, records.get(uuid).withPlayer(name)));
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.log(Level.SEVERE, "Could not load the login state of " + batch.size() + " players", e);
+      failed.add(batch.size());
+      for (PendingLogin pending : batch) {
+        pending.future.completeExceptionally(e);
+      }
+      return;
+    }
+    long now = System.nanoTime();
+    batches.increment();
+    resolved.add(batch.size());
+    maxBatch.accumulateAndGet(batch.size(), Math::max);
+    for (PendingLogin pending : batch) {
+      latency.record(now - pending.enqueuedNanos);
+      pending.future.complete(records.get(pending.uuid).toLoginState());
+    }
+  }
+
+  /**
+   * Returns a snapshot of the pipeline metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long batchCount = batches.sum();
+    long resolvedCount = resolved.sum();
+    stats.put("queued", queue.size());
+    stats.put("batches", batchCount);
+    stats.put("resolved", resolvedCount);
+    stats.put("failed", failed.sum());
+    stats.put("max_batch", maxBatch.get());
+    stats.put("avg_batch", batchCount == 0 ? 0 : (double) resolvedCount / batchCount);
+    stats.putAll(latency.getStats("load_"));
+    return stats;
+  }
+
+  /**
+   * Resolves the logins already queued and stops the pipeline thread.
+   */
+  @Override
+  public void close() {
+    accepting = false;
+    queue.add(SHUTDOWN);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      logger.warning("Join pipeline thread did not finish within 10 seconds.");
+      return;
+    }
+    // Fail anything that slipped in after the final drain
+    PendingLogin late;
+    while ((late = queue.poll()) != null) {
+      late.future.completeExceptionally(new SQLException("Join pipeline is closed"));
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.cccece.authwithqq.database;
+
+/**
+ * The binding data a joining player needs, loaded in one round trip.
+ */
+public final class LoginState {
+  /** The state of a registered player with no binding and no bot record. */
+  public static final LoginState UNBOUND = new LoginState(0, false, true);
+
+  private final long qq;
+  private final boolean bot;
+  private final boolean registered;
+
+  LoginState(long qq, boolean bot, boolean registered) {
+    this.qq = qq;
+    this.bot = bot;
+    this.registered = registered;
+  }
+
+  /**
+   * Gets the bound QQ number.
+   *
+   * @return The QQ number, or 0 if the player is not bound.
+   */
+  public long getQq() {
+    return qq;
+  }
+
+  /**
+   * Whether the UUID is registered as a bot of another player.
+   *
+   * @return true for a bot.
+   */
+  public boolean isBot() {
+    return bot;
+  }
+
+  /**
+   * Whether the player has a row in auth_players, i.e. has joined before.
+   *
+   * @return false if the player still has to be registered as a guest.
+   */
+  public boolean isRegistered() {
+    return registered;
+  }
+}
@@ -0,0 +1,33 @@
+package com.cccece.authwithqq.database;
+
+/**
+ * Paging information returned by {@link DatabaseManager#getPlayersPage(PlayerQuery, RowCallback)}
+ * after the page's rows have been handed to the callback.
+ */
+public final class PlayerPage {
+  private final String nextCursor;
+  private final long total;
+
+  PlayerPage(String nextCursor, long total) {
+    this.nextCursor = nextCursor;
+    this.total = total;
+  }
+
+  /**
+   * Gets the cursor for the following page.
+   *
+   * @return The cursor, or null if this is the last page.
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Gets the number of players matching the filters. Only counted for the first page.
+   *
+   * @return The total, or -1 if it was not counted.
+   */
+  public long getTotal() {
+    return total;
+  }
+}
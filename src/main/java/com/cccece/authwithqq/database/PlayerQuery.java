@@ -0,0 +1,183 @@
+package com.cccece.authwithqq.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable filter, sort and cursor settings for a page of players.
+ *
+ * <p>Pages are keyset-paginated: the cursor encodes the sort value and UUID of the last
+ * row of the previous page, so each page is an index range scan that starts where the
+ * previous one stopped instead of skipping over an ever-growing OFFSET.
+ */
+public final class PlayerQuery {
+  /**
+   * Columns a page of players can be ordered by. The UUID is always the tie-breaker.
+   */
+  public enum Sort {
+    CREATED("p.created_at", ""),
+    NAME("p.name", " COLLATE NOCASE"),
+    QQ("p.qq", "");
+
+    private final String column;
+    private final String collation;
+
+    Sort(String column, String collation) {
+      this.column = column;
+      this.collation = collation;
+    }
+
+    String getOrderBy() {
+      return column + collation;
+    }
+
+    // The collation goes on the parameter side so SQLite can still seek into the index.
+    // NULLs sort first in ascending and last in descending order, but match no comparison,
+    // so the rows after a cursor may span two ranges: the first predicate, which takes the
+    // cursor value (unless it is NULL) and UUID, and a second one with no parameters.
+    String[] getKeysetPredicates(boolean descending, boolean afterNull) {
+      if (afterNull) {
+        String nulls = column + " IS NULL AND p.uuid " + (descending ? "<" : ">") + " ?";
+        return descending ? new String[] {nulls} : new String[] {nulls, column + " IS NOT NULL"};
+      }
+      String values = "(" + column + ", p.uuid) " + (descending ? "<" : ">") + " (?" + collation + ", ?)";
+      return descending ? new String[] {values, column + " IS NULL"} : new String[] {values};
+    }
+  }
+
+  public static final int DEFAULT_LIMIT = 50;
+  public static final int MAX_LIMIT = 500;
+
+  private final Boolean bound;
+  private final Long qq;
+  private final String namePrefix;
+  private final String metaKey;
+  private final String metaValue;
+  private final Sort sort;
+  private final boolean descending;
+  private final int limit;
+  private final Object afterValue;
+  private final String afterUuid;
+
+  private PlayerQuery(Map<String, String> params) {
+    String boundParam = params.get("bound");
+    this.bound = boundParam == null || boundParam.isEmpty() ? null : Boolean.valueOf(boundParam);
+    String qqParam = params.get("qq");
+    this.qq = qqParam == null || qqParam.isEmpty() ? null : Long.valueOf(qqParam);
+    String nameParam = params.get("name");
+    this.namePrefix = nameParam == null || nameParam.isEmpty() ? null : nameParam;
+    String metaParam = params.get("meta");
+    if (metaParam != null && metaParam.contains("=")) {
+      int separator = metaParam.indexOf('=');
+      this.metaKey = metaParam.substring(0, separator);
+      this.metaValue = metaParam.substring(separator + 1);
+    } else {
+      this.metaKey = null;
+      this.metaValue = null;
+    }
+    String sortParam = params.getOrDefault("sort", "created");
+    this.sort = Sort.valueOf(sortParam.toUpperCase(Locale.ROOT));
+    this.descending = "desc".equalsIgnoreCase(params.get("order"));
+    String limitParam = params.get("limit");
+    int requested = limitParam == null || limitParam.isEmpty() ? DEFAULT_LIMIT : Integer.parseInt(limitParam);
+    this.limit = Math.max(1, Math.min(MAX_LIMIT, requested));
+
+    String cursor = params.get("cursor");
+    if (cursor == null || cursor.isEmpty()) {
+      this.afterValue = null;
+      this.afterUuid = null;
+    } else {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      // Format: sort|order|uuid|value (the value comes last as names may contain any character),
+      // where the value is "n" for NULL or "v" followed by the value
+      String[] parts = decoded.split("\\|", 4);
+      if (parts.length != 4 || !parts[0].equals(sort.name()) || !parts[1].equals(descending ? "desc" : "asc")) {
+        throw new IllegalArgumentException("Cursor does not match the requested sort order");
+      }
+      this.afterUuid = parts[2];
+      // Parsed up front so a tampered cursor is rejected before the response starts streaming
+      if (parts[3].equals("n")) {
+        this.afterValue = null;
+      } else if (parts[3].startsWith("v")) {
+        String value = parts[3].substring(1);
+        this.afterValue = sort == Sort.NAME ? value : (Object) Long.valueOf(value);
+      } else {
+        throw new IllegalArgumentException("Malformed cursor value");
+      }
+    }
+  }
+
+  /**
+   * Parses a page request from the query parameters of {@code GET /api/players}.
+   * Supported parameters are {@code bound}, {@code qq}, {@code name} (prefix), {@code meta}
+   * ({@code key=value}), {@code sort} ({@code created}, {@code name} or {@code qq}),
+   * {@code order} ({@code asc} or {@code desc}), {@code limit} and {@code cursor}.
+   *
+   * @param params The query parameters.
+   * @return The parsed query.
+   * @throws IllegalArgumentException If a parameter or the cursor is malformed.
+   */
+  public static PlayerQuery fromParams(Map<String, String> params) {
+    return new PlayerQuery(params);
+  }
+
+  /**
+   * Builds the cursor that continues after the given row.
+   *
+   * @param sortValue The sort column value of the last row on the page, or null if it is NULL.
+   * @param uuid The UUID of the last row on the page.
+   * @return An opaque, URL-safe cursor token.
+   */
+  String cursorAfter(String sortValue, String uuid) {
+    String raw = sort.name() + "|" + (descending ? "desc" : "asc") + "|" + uuid + "|"
+        + (sortValue == null ? "n" : "v" + sortValue);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public Boolean getBound() {
+    return bound;
+  }
+
+  public Long getQq() {
+    return qq;
+  }
+
+  public String getNamePrefix() {
+    return namePrefix;
+  }
+
+  public String getMetaKey() {
+    return metaKey;
+  }
+
+  public String getMetaValue() {
+    return metaValue;
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public boolean hasCursor() {
+    return afterUuid != null;
+  }
+
+  // Null when the previous page ended on a NULL sort value.
+  Object getAfterValue() {
+    return afterValue;
+  }
+
+  String getAfterUuid() {
+    return afterUuid;
+  }
+}
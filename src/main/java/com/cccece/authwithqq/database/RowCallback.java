@@ -0,0 +1,19 @@
+package com.cccece.authwithqq.database;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives rows one at a time while the underlying result set is still open, so large
+ * results can be written straight to a response without being collected in memory first.
+ */
+@FunctionalInterface
+public interface RowCallback {
+  /**
+   * Handles a single row.
+   *
+   * @param row The row's column values, keyed the same way as the list-returning queries.
+   * @throws IOException If the row cannot be written; this stops the iteration.
+   */
+  void accept(Map<String, String> row) throws IOException;
+}
@@ -0,0 +1,147 @@
+package com.cccece.authwithqq.database;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically checkpoints the SQLite write-ahead log on a background thread.
+ * Checkpoints are PASSIVE by default so they never block readers or writers; once the
+ * database has seen no writes for the configured quiet period, a TRUNCATE checkpoint
+ * is run instead to shrink the WAL file back to zero bytes.
+ */
+public class WalCheckpointer implements AutoCloseable {
+  private final ConnectionPool pool;
+  private final File walFile;
+  private final Logger logger;
+  private final long quietPeriodMillis;
+  private final ScheduledExecutorService scheduler;
+  private volatile long truncatedAtWriteMillis = -1;
+
+  // --- Metrics ---
+  private final LongAdder passiveCheckpoints = new LongAdder();
+  private final LongAdder truncateCheckpoints = new LongAdder();
+  private final LongAdder busyCheckpoints = new LongAdder();
+  private final LongAdder failedCheckpoints = new LongAdder();
+  private final AtomicLong lastDurationMicros = new AtomicLong();
+  private final AtomicLong maxDurationMicros = new AtomicLong();
+  private final AtomicLong lastLogFrames = new AtomicLong();
+  private final AtomicLong lastCheckpointedFrames = new AtomicLong();
+  private final AtomicLong lastWalSizeBytes = new AtomicLong();
+
+  /**
+   * Starts the checkpoint scheduler.
+   *
+   * @param pool The connection pool whose writer connection runs the checkpoints.
+   * @param databasePath The path to the SQLite database file.
+   * @param options The storage settings providing interval and quiet period.
+   * @param logger The logger for reporting errors.
+   */
+  public WalCheckpointer(ConnectionPool pool, String databasePath, DatabaseOptions options, Logger logger) {
+    this.pool = pool;
+    this.walFile = new File(databasePath + "-wal");
+    this.logger = logger;
+    this.quietPeriodMillis = options.getCheckpointQuietSeconds() * 1000L;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "AuthWithQq-WAL-Checkpoint");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = options.getCheckpointIntervalSeconds();
+    if (interval > 0) { // 0 leaves checkpointing to SQLite's own auto-checkpoint
+      scheduler.scheduleWithFixedDelay(this::runScheduled, interval, interval, TimeUnit.SECONDS);
+    }
+  }
+
+  private void runScheduled() {
+    long lastWrite = pool.getLastWriteMillis();
+    boolean quiet = quietPeriodMillis > 0 && System.currentTimeMillis() - lastWrite >= quietPeriodMillis;
+    if (quiet && truncatedAtWriteMillis == lastWrite) {
+      return; // Nothing has been written since the WAL was last truncated
+    }
+    checkpoint(quiet ? "TRUNCATE" : "PASSIVE");
+  }
+
+  /**
+   * Runs a single checkpoint and records its duration and frame counts.
+   *
+   * @param mode The checkpoint mode, either "PASSIVE" or "TRUNCATE".
+   */
+  public void checkpoint(String mode) {
+    long lastWrite = pool.getLastWriteMillis();
+    long start = System.nanoTime();
+    try (Connection conn = pool.getMaintenanceConnection();
+         Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+      if (rs.next()) {
+        boolean busy = rs.getInt(1) != 0;
+        lastLogFrames.set(rs.getLong(2));
+        lastCheckpointedFrames.set(rs.getLong(3));
+        if (busy) {
+          busyCheckpoints.increment();
+        }
+        if ("TRUNCATE".equals(mode) && !busy) {
+          truncatedAtWriteMillis = lastWrite;
+        }
+      }
+      if ("TRUNCATE".equals(mode)) {
+        truncateCheckpoints.increment();
+      } else {
+        passiveCheckpoints.increment();
+      }
+    } catch (SQLException e) {
+      failedCheckpoints.increment();
+      logger.log(Level.WARNING, "Could not run " + mode + " WAL checkpoint", e);
+    } finally {
+      long micros = (System.nanoTime() - start) / 1000;
+      lastDurationMicros.set(micros);
+      maxDurationMicros.accumulateAndGet(micros, Math::max);
+      lastWalSizeBytes.set(walFile.length());
+    }
+  }
+
+  /**
+   * Returns a snapshot of the checkpoint metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("wal_size_bytes", walFile.length());
+    stats.put("wal_size_after_last_checkpoint_bytes", lastWalSizeBytes.get());
+    stats.put("checkpoints_passive", passiveCheckpoints.sum());
+    stats.put("checkpoints_truncate", truncateCheckpoints.sum());
+    stats.put("checkpoints_busy", busyCheckpoints.sum());
+    stats.put("checkpoints_failed", failedCheckpoints.sum());
+    stats.put("last_checkpoint_us", lastDurationMicros.get());
+    stats.put("max_checkpoint_us", maxDurationMicros.get());
+    stats.put("last_wal_frames", lastLogFrames.get());
+    stats.put("last_checkpointed_frames", lastCheckpointedFrames.get());
+    return stats;
+  }
+
+  /**
+   * Stops the scheduler and truncates the WAL one last time.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    try {
+      scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    checkpoint("TRUNCATE");
+  }
+}
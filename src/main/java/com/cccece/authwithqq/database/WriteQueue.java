@@ -0,0 +1,237 @@
+package com.cccece.authwithqq.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serializes every database mutation onto a single writer thread.
+ * The thread drains queued operations and commits them together in one transaction
+ * (group commit), bounded by a maximum batch size and a maximum batching delay, so a
+ * burst of small writes costs a handful of fsyncs instead of one per statement.
+ *
+ * <p>Each operation runs inside its own savepoint: a failing operation is rolled back
+ * and its future completed exceptionally without affecting the rest of the batch.
+ */
+public class WriteQueue implements AutoCloseable {
+  /**
+   * A single unit of work executed on the writer connection.
+   */
+  @FunctionalInterface
+  public interface WriteOperation {
+    void execute(Connection conn) throws SQLException;
+  }
+
+  private static final class PendingWrite {
+    final WriteOperation operation;
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final long enqueuedNanos = System.nanoTime();
+
+    PendingWrite(WriteOperation operation) {
+      this.operation = operation;
+    }
+  }
+
+  private static final PendingWrite SHUTDOWN = new PendingWrite(conn -> { });
+
+  private final ConnectionPool pool;
+  private final Logger logger;
+  private final int maxBatchSize;
+  private final long maxBatchDelayNanos;
+  private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+  private final Thread writerThread;
+  private volatile boolean accepting = true;
+
+  // --- Metrics ---
+  private final LongAdder committedBatches = new LongAdder();
+  private final LongAdder committedOperations = new LongAdder();
+  private final LongAdder failedOperations = new LongAdder();
+  private final AtomicLong maxBatch = new AtomicLong();
+  private final LongAdder queueLatencyNanos = new LongAdder();
+  private final AtomicLong maxQueueLatencyNanos = new AtomicLong();
+  private final LongAdder commitNanos = new LongAdder();
+  private final AtomicLong maxCommitNanos = new AtomicLong();
+
+  /**
+   * Starts the writer thread.
+   *
+   * @param pool The connection pool providing the writer connection.
+   * @param options The settings providing the batch size and delay bounds.
+   * @param logger The logger for reporting errors.
+   */
+  public WriteQueue(ConnectionPool pool, DatabaseOptions options, Logger logger) {
+    this.pool = pool;
+    this.logger = logger;
+    this.maxBatchSize = options.getWriteBatchSize();
+    this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(options.getWriteBatchDelayMillis());
+    this.writerThread = new Thread(this::run, "AuthWithQq-DB-Writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Queues a write operation for the writer thread.
+   *
+   * @param operation The operation to run on the writer connection.
+   * @return A future completed once the operation's batch has been committed.
+   */
+  public CompletableFuture<Void> submit(WriteOperation operation) {
+    PendingWrite pending = new PendingWrite(operation);
+    if (!accepting) {
+      pending.future.completeExceptionally(new SQLException("Write queue is closed"));
+      return pending.future;
+    }
+    queue.add(pending);
+    return pending.future;
+  }
+
+  private void run() {
+    List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+    boolean shuttingDown = false;
+    while (!shuttingDown) {
+      try {
+        PendingWrite first = queue.take();
+        if (first == SHUTDOWN) {
+          break;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize) {
+          // Take whatever is already queued, then wait out the remaining delay for more.
+          PendingWrite next = queue.poll();
+          if (next == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              break;
+            }
+            next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+          }
+          if (next == SHUTDOWN) {
+            shuttingDown = true;
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        shuttingDown = true;
+      }
+      commit(batch);
+      batch.clear();
+    }
+    // Flush anything still queued so no accepted write is lost on shutdown.
+    List<PendingWrite> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    remaining.remove(SHUTDOWN);
+    for (int i = 0; i < remaining.size(); i += maxBatchSize) {
+      commit(remaining.subList(i, Math.min(remaining.size(), i + maxBatchSize)));
+    }
+  }
+
+  private void commit(List<PendingWrite> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    List<PendingWrite> succeeded = new ArrayList<>(batch.size());
+    try (Connection conn = pool.getWriteConnection()) {
+      conn.setAutoCommit(false);
+      for (PendingWrite pending : batch) {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+          pending.operation.execute(conn);
+          conn.releaseSavepoint(savepoint);
+          succeeded.add(pending);
+        } catch (SQLException | RuntimeException e) {
+          conn.rollback(savepoint);
+          failedOperations.increment();
+          pending.future.completeExceptionally(e);
+        }
+      }
+      conn.commit();
+      conn.setAutoCommit(true);
+    } catch (SQLException e) {
+      logger.log(Level.SEVERE, "Could not commit batch of " + batch.size() + " database writes", e);
+      for (PendingWrite pending : succeeded) {
+        failedOperations.increment();
+        pending.future.completeExceptionally(e);
+      }
+      for (PendingWrite pending : batch) {
+        pending.future.completeExceptionally(e); // No-op for futures already completed
+      }
+      return;
+    }
+    long now = System.nanoTime();
+    long commitTime = now - start;
+    committedBatches.increment();
+    committedOperations.add(succeeded.size());
+    maxBatch.accumulateAndGet(batch.size(), Math::max);
+    commitNanos.add(commitTime);
+    maxCommitNanos.accumulateAndGet(commitTime, Math::max);
+    for (PendingWrite pending : succeeded) {
+      long latency = now - pending.enqueuedNanos;
+      queueLatencyNanos.add(latency);
+      maxQueueLatencyNanos.accumulateAndGet(latency, Math::max);
+      pending.future.complete(null);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the write queue metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long batches = committedBatches.sum();
+    long operations = committedOperations.sum();
+    stats.put("queue_depth", queue.size());
+    stats.put("committed_batches", batches);
+    stats.put("committed_operations", operations);
+    stats.put("failed_operations", failedOperations.sum());
+    stats.put("avg_batch_size", batches == 0 ? 0 : (double) operations / batches);
+    stats.put("max_batch_size", maxBatch.get());
+    stats.put("avg_commit_us", batches == 0 ? 0 : commitNanos.sum() / batches / 1000);
+    stats.put("max_commit_us", maxCommitNanos.get() / 1000);
+    stats.put("avg_write_latency_us", operations == 0 ? 0 : queueLatencyNanos.sum() / operations / 1000);
+    stats.put("max_write_latency_us", maxQueueLatencyNanos.get() / 1000);
+    return stats;
+  }
+
+  /**
+   * Stops accepting writes, commits everything already queued and stops the writer thread.
+   */
+  @Override
+  public void close() {
+    accepting = false;
+    queue.add(SHUTDOWN);
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writerThread.isAlive()) {
+      logger.warning("Database writer thread did not finish within 30 seconds; pending writes may be lost.");
+      return;
+    }
+    // Fail anything that slipped in after the writer's final drain
+    PendingWrite late;
+    while ((late = queue.poll()) != null) {
+      late.future.completeExceptionally(new SQLException("Write queue is closed"));
+    }
+  }
+}
@@ -1,14 +1,20 @@
 package com.cccece.authwithqq.listener;
 
 import com.cccece.authwithqq.AuthWithQqPlugin;
+import com.cccece.authwithqq.PluginSettings;
+import com.cccece.authwithqq.database.LoginState;
+import com.cccece.authwithqq.util.LatencyRecorder;
+import com.cccece.authwithqq.util.TimingWheel;
 import com.cccece.authwithqq.util.MessageManager;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent; // ADDED
 import net.kyori.adventure.text.format.NamedTextColor; // ADDED
@@ -16,6 +22,8 @@ import net.kyori.adventure.text.format.TextDecoration; // ADDED
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.title.Title;
 import org.bukkit.GameMode;
+import org.bukkit.command.Command;
+import org.bukkit.command.PluginIdentifiableCommand;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -23,10 +31,12 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
@@ -41,9 +51,31 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * Handles guest restrictions for players who have not bound their QQ.
  */
 public class GuestListener implements Listener {
+  private static final long PRELOAD_TTL_MILLIS = 60_000L;
+
+  /**
+   * Binding data loaded during pre-login, consumed by the join handler.
+   */
+  private static final class LoginData {
+    private final LoginState state;
+    private volatile TimingWheel.Timeout expiry;
+
+    private LoginData(LoginState state) {
+      this.state = state;
+    }
+  }
+
   private final AuthWithQqPlugin plugin;
-  private final Set<UUID> guestCache = new HashSet<>();
-  private final Map<UUID, GameMode> originalGameModes = new HashMap<>();
+  private final GuestStateRegistry guestStates = new GuestStateRegistry();
+  private final Map<UUID, LoginData> preloaded = new ConcurrentHashMap<>();
+
+  // --- Metrics ---
+  private final LongAdder promptsSent = new LongAdder();
+  private final LongAdder promptsSuppressed = new LongAdder();
+  private final LongAdder promptsRendered = new LongAdder();
+  private final LongAdder preloadHits = new LongAdder();
+  private final LongAdder preloadMisses = new LongAdder();
+  private final LatencyRecorder joinLatency = new LatencyRecorder(1024);
   private final LegacyComponentSerializer serializer = LegacyComponentSerializer.legacyAmpersand();
 
   /**
@@ -65,12 +97,11 @@ public class GuestListener implements Listener {
   public void onQuit(PlayerQuitEvent event) {
     Player player = event.getPlayer();
     UUID uuid = player.getUniqueId();
-    guestCache.remove(uuid);
-    originalGameModes.remove(uuid);
+    guestStates.remove(uuid);
     // plugin.invalidateCode(uuid); // Invalidate code from centralized manager on quit
     
     // Check if NPC statistics should be skipped
-    boolean skipNpcStatistics = plugin.getConfig().getBoolean("guest-mode.skip-npc-statistics", true);
+    boolean skipNpcStatistics = plugin.getSettings().isSkipNpcStatistics();
     boolean isNpc = player.hasMetadata("NPC");
     
     // Record player quit for statistics (skip if NPC and skip-npc-statistics is enabled)
@@ -79,6 +110,55 @@ public class GuestListener implements Listener {
     }
   }
 
+  /**
+   * Loads what the join handler needs while the player is still connecting, on the async
+   * login thread, so joining needs no database reads on the server thread. Nothing is written
+   * here, since a later check may still deny the login.
+   *
+   * @param event The AsyncPlayerPreLoginEvent.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+    if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+      return;
+    }
+    UUID uuid = event.getUniqueId();
+    LoginState state;
+    try {
+      // Batched with the other players logging in at the same time
+      state = plugin.getDatabaseManager().loadLoginState(uuid).join();
+    } catch (CompletionException e) {
+      return; // Already logged; the join handler retries
+    }
+    LoginData data = new LoginData(state);
+    LoginData previous = preloaded.put(uuid, data);
+    if (previous != null && previous.expiry != null) {
+      previous.expiry.cancel();
+    }
+    // Dropped if the player never arrives, e.g. disconnected while loading the world
+    data.expiry = plugin.getExpiryWheel().schedule(PRELOAD_TTL_MILLIS, () -> preloaded.remove(uuid, data));
+  }
+
+  /**
+   * Discards preloaded data when a later check (ban, whitelist, full server) denies the login.
+   *
+   * @param event The PlayerLoginEvent.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onLogin(PlayerLoginEvent event) {
+    if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+      discardPreload(event.getPlayer().getUniqueId());
+    }
+  }
+
+  private LoginData discardPreload(UUID uuid) {
+    LoginData data = preloaded.remove(uuid);
+    if (data != null && data.expiry != null) {
+      data.expiry.cancel();
+    }
+    return data;
+  }
+
   /**
    * Checks if a joining player is a guest, applies restrictions, and generates a verification code.
    *
@@ -88,61 +168,89 @@ public class GuestListener implements Listener {
   public void onJoin(PlayerJoinEvent event) {
     Player player = event.getPlayer();
     UUID uuid = player.getUniqueId();
-    
-    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-      plugin.getDatabaseManager().addGuest(uuid, player.getName());
-      long qq = plugin.getDatabaseManager().getQq(uuid);
-
-      plugin.getServer().getScheduler().runTask(plugin, () -> {
-        // --- NEW: Whitelist and Fake Player Bypass Logic ---
-        List<String> whitelistedPlayers = plugin.getConfig().getStringList("whitelist.players");
-        boolean bypassOps = plugin.getConfig().getBoolean("whitelist.bypass-ops", true);
-        boolean allowFakePlayers = plugin.getConfig().getBoolean("guest-mode.allow-fake-players", false);
-        boolean skipNpcStatistics = plugin.getConfig().getBoolean("guest-mode.skip-npc-statistics", true);
-
-        // Check for whitelisted players
-        if (whitelistedPlayers.contains(player.getName())) {
-          plugin.getLogger().info(player.getName() + " is whitelisted, skipping verification.");
-          unmarkGuest(uuid);
-          // Record player join for statistics (even if whitelisted)
-          plugin.recordPlayerJoin(uuid, player.getName());
-          return;
-        }
-
-        // Check for ops if bypass-ops is enabled
-        if (bypassOps && player.isOp()) {
-          plugin.getLogger().info(player.getName() + " is an operator, skipping verification.");
-          unmarkGuest(uuid);
-          // Record player join for statistics (even if op)
-          plugin.recordPlayerJoin(uuid, player.getName());
-          return;
-        }
+    long joinedNanos = System.nanoTime();
+
+    LoginData data = discardPreload(uuid);
+    if (data != null) {
+      preloadHits.increment();
+      if (!data.state.isRegistered()) {
+        // Only queued; the write queue commits it together with the other joins of a storm
+        plugin.getDatabaseManager().addGuest(uuid, player.getName());
+      }
+      completeJoin(player, data.state, joinedNanos);
+      return;
+    }
 
-        // Check for fake players (Citizens NPC)
-        boolean isNpc = player.hasMetadata("NPC");
-        if (allowFakePlayers && isNpc) { // Assuming "NPC" metadata for Citizens
-          plugin.getLogger().info(player.getName() + " is a fake player, skipping verification.");
-          unmarkGuest(uuid);
-          // Record player join for statistics only if not skipping NPC statistics
-          if (!skipNpcStatistics) {
-            plugin.recordPlayerJoin(uuid, player.getName());
+    // Not preloaded, e.g. the plugin was enabled while the player was logging in
+    preloadMisses.increment();
+    plugin.getDatabaseManager().loadLoginState(uuid, player.getName())
+        .exceptionally(error -> LoginState.UNBOUND) // Already logged; restrict rather than let through
+        .thenAccept(state -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+          if (player.isOnline()) {
+            completeJoin(player, state, joinedNanos);
           }
-          return;
-        }
-        // --- END NEW LOGIC ---
+        }));
+  }
 
-        if (qq == 0) {
-          markGuest(player); // Call the new markGuest method
-        } else {
-          // Player is bound, clear any existing guest status
-          unmarkGuest(uuid); // Ensure any lingering effects are removed
-          player.sendMessage(plugin.getMessageManager().getMessage("messages.guest.welcome", Map.of("%player%", player.getName())));
-        }
-        
-        // Record player join for statistics
+  // Runs on the server thread with the player's binding already loaded.
+  private void completeJoin(Player player, LoginState state, long joinedNanos) {
+    try {
+      applyJoin(player, state.getQq(), state.isBot());
+    } finally {
+      joinLatency.record(System.nanoTime() - joinedNanos);
+    }
+  }
+
+  private void applyJoin(Player player, long qq, boolean bot) {
+    UUID uuid = player.getUniqueId();
+
+    // --- NEW: Whitelist and Fake Player Bypass Logic ---
+    PluginSettings settings = plugin.getSettings();
+    boolean bypassOps = settings.isWhitelistBypassOps();
+    boolean allowFakePlayers = settings.isAllowFakePlayers();
+    boolean skipNpcStatistics = settings.isSkipNpcStatistics();
+
+    // Check for whitelisted players
+    if (settings.isWhitelisted(player.getName())) {
+      plugin.getLogger().info(player.getName() + " is whitelisted, skipping verification.");
+      unmarkGuest(uuid);
+      // Record player join for statistics (even if whitelisted)
+      plugin.recordPlayerJoin(uuid, player.getName());
+      return;
+    }
+
+    // Check for ops if bypass-ops is enabled
+    if (bypassOps && player.isOp()) {
+      plugin.getLogger().info(player.getName() + " is an operator, skipping verification.");
+      unmarkGuest(uuid);
+      // Record player join for statistics (even if op)
+      plugin.recordPlayerJoin(uuid, player.getName());
+      return;
+    }
+
+    // Check for fake players (Citizens NPC)
+    boolean isNpc = player.hasMetadata("NPC");
+    if (allowFakePlayers && isNpc) { // Assuming "NPC" metadata for Citizens
+      plugin.getLogger().info(player.getName() + " is a fake player, skipping verification.");
+      unmarkGuest(uuid);
+      // Record player join for statistics only if not skipping NPC statistics
+      if (!skipNpcStatistics) {
         plugin.recordPlayerJoin(uuid, player.getName());
-      });
-    });
+      }
+      return;
+    }
+    // --- END NEW LOGIC ---
+
+    if (qq == 0) {
+      markGuest(player, bot); // Call the new markGuest method
+    } else {
+      // Player is bound, clear any existing guest status
+      unmarkGuest(uuid); // Ensure any lingering effects are removed
+      player.sendMessage(plugin.getMessageManager().getMessage("messages.guest.welcome", Map.of("%player%", player.getName())));
+    }
+    
+    // Record player join for statistics
+    plugin.recordPlayerJoin(uuid, player.getName());
   }
 
   /**
@@ -152,26 +260,30 @@ public class GuestListener implements Listener {
    * @param player The player to mark as guest.
    */
   public void markGuest(Player player) {
+    markGuest(player, plugin.getDatabaseManager().isBot(player.getUniqueId()));
+  }
+
+  private void markGuest(Player player, boolean bot) {
     UUID uuid = player.getUniqueId();
     
     // --- NEW: Bot Bypass Logic ---
     // If the player is a bot, unmark them as guest and skip all restrictions.
     // Also consider if guest-mode.allow-fake-players is true as a general bypass.
-    boolean allowFakePlayers = plugin.getConfig().getBoolean("guest-mode.allow-fake-players", false);
-    if (plugin.getDatabaseManager().isBot(uuid) || (allowFakePlayers && player.hasMetadata("NPC"))) {
+    PluginSettings settings = plugin.getSettings();
+    boolean allowFakePlayers = settings.isAllowFakePlayers();
+    if (bot || (allowFakePlayers && player.hasMetadata("NPC"))) {
         plugin.getLogger().info(player.getName() + " is a bot or fake player, skipping guest restrictions.");
         unmarkGuest(uuid); // Unmark immediately, essentially treating them as bound
         return;
     }
     // --- END NEW LOGIC ---
 
-    guestCache.add(uuid);
-    
-    // Store original game mode
-    originalGameModes.put(uuid, player.getGameMode());
+    // Store original game mode; a repeated mark keeps the one recorded first
+    GuestStateRegistry.GuestState state = guestStates.register(uuid, player.getGameMode());
+    List<PotionEffectType> appliedEffects = new ArrayList<>();
 
     // Apply configured game mode
-    String configuredGameMode = plugin.getConfig().getString("guest-mode.gamemode", "SURVIVAL").toUpperCase();
+    String configuredGameMode = settings.getGuestGameMode();
     try {
       GameMode gm = GameMode.valueOf(configuredGameMode);
       player.setGameMode(gm);
@@ -182,17 +294,19 @@ public class GuestListener implements Listener {
     }
 
     // Apply allow-move potion effects
-    boolean allowMove = plugin.getConfig().getBoolean("guest-mode.allow-move", true);
+    boolean allowMove = settings.isAllowMove();
     if (!allowMove) {
       player.addPotionEffect(new PotionEffect(
           PotionEffectType.SLOWNESS, Integer.MAX_VALUE, 255, false, false));
       player.addPotionEffect(
           new PotionEffect(PotionEffectType.JUMP_BOOST, Integer.MAX_VALUE,
               128, false, false));
+      appliedEffects.add(PotionEffectType.SLOWNESS);
+      appliedEffects.add(PotionEffectType.JUMP_BOOST);
     }
 
     // Apply custom potion effects
-    List<Map<?, ?>> customPotionEffects = plugin.getConfig().getMapList("guest-mode.potion-effects");
+    List<Map<?, ?>> customPotionEffects = settings.getGuestPotionEffects();
     for (Map<?, ?> effectMap : customPotionEffects) {
       try {
         String typeName = (String) effectMap.get("type");
@@ -201,6 +315,7 @@ public class GuestListener implements Listener {
         if (effectType != null) {
           player.addPotionEffect(new PotionEffect(effectType, Integer.MAX_VALUE, level,
               false, false));
+          appliedEffects.add(effectType);
         } else {
           plugin.getLogger().warning("Invalid potion effect type configured: " + typeName);
         }
@@ -210,16 +325,18 @@ public class GuestListener implements Listener {
       }
     }
 
+    state.setAppliedEffects(appliedEffects);
+
     // Generate and store verification code with expiration logic
     String verificationCode = plugin.getOrCreateCode(uuid); // Use centralized manager
 
     // Construct the web link for binding, including UUID and name for authentication context
-    String externalAddress = plugin.getConfig().getString("server.external-address", "127.0.0.1");
-    int port = plugin.getConfig().getInt("server.port", 8081);
+    String externalAddress = settings.getExternalAddress();
+    int port = settings.getPort();
     String webLink = String.format("http://%s:%d/web/auth.html?uuid=%s&name=%s&verificationCode=%s", externalAddress, port, uuid.toString(), player.getName(), verificationCode);
 
     // Determine how to display verification information based on config
-    String displayMethod = plugin.getConfig().getString("guest-mode.verification-display-method", "BOTH").toUpperCase();
+    String displayMethod = settings.getVerificationDisplayMethod();
 
     // Prepare message components
     Component codeComponent = Component.text(verificationCode);
@@ -229,13 +346,13 @@ public class GuestListener implements Listener {
                                                 .clickEvent(ClickEvent.openUrl(webLink)); // Make it clickable
 
     Component finalMessageComponent = Component.empty();
-    String baseMessageTemplate = plugin.getConfig().getString("messages.guest.join-prompt", "&6请绑定您的QQ，验证码：%code%。请访问 %web_link% 进行绑定。");
+    String baseMessageTemplate = settings.getJoinPromptTemplate();
 
     // Manually construct the message Component based on displayMethod
     if ("CODE_ONLY".equals(displayMethod)) {
         // Remove web_link part from message template
         String processedTemplate = baseMessageTemplate.replace("。请访问 %web_link% 进行绑定。", "");
-        finalMessageComponent = plugin.getMessageManager().getMessage(processedTemplate, Map.of("%code%", verificationCode));
+        finalMessageComponent = plugin.getMessageManager().format(processedTemplate, Map.of("%code%", verificationCode));
     } else if ("WEB_ONLY".equals(displayMethod)) {
         // Remove code part from message template
         String processedTemplate = baseMessageTemplate.replace("，验证码：%code%", "");
@@ -274,9 +391,10 @@ public class GuestListener implements Listener {
    */
   @EventHandler
   public void onChat(AsyncPlayerChatEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())) {
+    GuestStateRegistry.GuestState state = guestStates.get(event.getPlayer().getUniqueId());
+    if (state != null) {
       event.setCancelled(true);
-      sendActionbar(event.getPlayer(), plugin.getOrCreateCode(event.getPlayer().getUniqueId()));
+      sendActionbar(event.getPlayer(), state);
     }
   }
 
@@ -288,10 +406,10 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onInteract(PlayerInteractEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-interact", true)) {
+    GuestStateRegistry.GuestState state = guestStates.get(event.getPlayer().getUniqueId());
+    if (state != null && !plugin.getSettings().isAllowInteract()) {
       event.setCancelled(true);
-      sendActionbar(event.getPlayer(), plugin.getOrCreateCode(event.getPlayer().getUniqueId()));
+      sendActionbar(event.getPlayer(), state);
     }
   }
 
@@ -303,15 +421,18 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
-    if (event.getDamager() instanceof Player
-        && guestCache.contains(event.getDamager().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-interact", true)) {
-      event.setCancelled(true);
-      sendActionbar((Player) event.getDamager(), plugin.getOrCreateCode(event.getDamager().getUniqueId()));
+    if (plugin.getSettings().isAllowInteract()) {
+      return;
+    }
+    if (event.getDamager() instanceof Player damager) {
+      GuestStateRegistry.GuestState state = guestStates.get(damager.getUniqueId());
+      if (state != null) {
+        event.setCancelled(true);
+        sendActionbar(damager, state);
+      }
     }
     if (event.getEntity() instanceof Player
-        && guestCache.contains(event.getEntity().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-interact", true)) {
+        && guestStates.isGuest(event.getEntity().getUniqueId())) {
       event.setCancelled(true);
       // No actionbar for being attacked, only for attacking
     }
@@ -325,10 +446,10 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onPlayerDropItem(PlayerDropItemEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-interact", true)) {
+    GuestStateRegistry.GuestState state = guestStates.get(event.getPlayer().getUniqueId());
+    if (state != null && !plugin.getSettings().isAllowInteract()) {
       event.setCancelled(true);
-      sendActionbar(event.getPlayer(), plugin.getOrCreateCode(event.getPlayer().getUniqueId()));
+      sendActionbar(event.getPlayer(), state);
     }
   }
 
@@ -340,11 +461,13 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onEntityPickupItem(EntityPickupItemEvent event) {
-    if (event.getEntity() instanceof Player
-        && guestCache.contains(event.getEntity().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-interact", true)) {
-      event.setCancelled(true);
-      sendActionbar((Player) event.getEntity(), plugin.getOrCreateCode(event.getEntity().getUniqueId()));
+    if (event.getEntity() instanceof Player player
+        && !plugin.getSettings().isAllowInteract()) {
+      GuestStateRegistry.GuestState state = guestStates.get(player.getUniqueId());
+      if (state != null) {
+        event.setCancelled(true);
+        sendActionbar(player, state);
+      }
     }
   }
 
@@ -355,8 +478,8 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onPlayerTeleport(PlayerTeleportEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-world-change", true)) {
+    if (!plugin.getSettings().isAllowWorldChange()
+        && guestStates.isGuest(event.getPlayer().getUniqueId())) {
       if (event.getFrom().getWorld() != null
           && event.getTo().getWorld() != null
           && !event.getFrom().getWorld().equals(event.getTo().getWorld())) {
@@ -373,8 +496,8 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onPlayerPortal(PlayerPortalEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())
-        && !plugin.getConfig().getBoolean("guest-mode.allow-world-change", true)) {
+    if (!plugin.getSettings().isAllowWorldChange()
+        && guestStates.isGuest(event.getPlayer().getUniqueId())) {
       if (event.getFrom().getWorld() != null
           && event.getTo().getWorld() != null
           && !event.getFrom().getWorld().equals(event.getTo().getWorld())) {
@@ -391,27 +514,80 @@ public class GuestListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOWEST)
   public void onCommand(PlayerCommandPreprocessEvent event) {
-    if (guestCache.contains(event.getPlayer().getUniqueId())) {
-      String message = event.getMessage().toLowerCase();
-      List<String> allowed = plugin.getConfig().getStringList("guest-mode.allowed-commands");
-      
-      boolean isAllowed = false;
-      for (String cmd : allowed) {
-        if (message.startsWith(cmd.toLowerCase())) {
-          isAllowed = true;
-          break;
-        }
-      }
+    GuestStateRegistry.GuestState state = guestStates.get(event.getPlayer().getUniqueId());
+    if (state != null) {
+      // One hash lookup on the command label; aliases resolve through the server's command map
+      boolean isAllowed = plugin.getSettings().getAllowedCommands().matches(event.getMessage(), this::resolveCommandName);
       
       if (!isAllowed) {
         event.setCancelled(true);
-        sendActionbar(event.getPlayer(), plugin.getOrCreateCode(event.getPlayer().getUniqueId()));
+        sendActionbar(event.getPlayer(), state);
       }
     }
   }
 
-  private void sendActionbar(Player player, String verificationCode) {
-    player.sendActionBar(plugin.getMessageManager().getMessage("messages.guest.actionbar-prompt", Map.of("%code%", verificationCode)));
+  // Identifies a command as namespace:name, so a namespaced label of another plugin never
+  // passes as the listed command of the same name
+  private String resolveCommandName(String label) {
+    Command command = plugin.getServer().getCommandMap().getCommand(label);
+    if (command == null) {
+      return null;
+    }
+    String namespace = command instanceof PluginIdentifiableCommand owned ? owned.getPlugin().getName() : "minecraft";
+    return namespace + ":" + command.getName();
+  }
+
+  // Identical reminders within the configured interval are dropped: holding right-click would
+  // otherwise send the same actionbar packet many times per second.
+  private void sendActionbar(Player player, GuestStateRegistry.GuestState state) {
+    PluginSettings settings = plugin.getSettings();
+    String verificationCode = plugin.getOrCreateCode(player.getUniqueId());
+    long now = System.currentTimeMillis();
+    GuestStateRegistry.RenderedPrompt prompt = state.getPrompt();
+    if (prompt != null && prompt.isFor(verificationCode, settings)) {
+      if (now - state.getLastPromptMillis() < settings.getActionbarIntervalMillis()) {
+        promptsSuppressed.increment();
+        return;
+      }
+    } else {
+      // Rendered once per code; a reload publishes new settings and so re-renders the template
+      prompt = new GuestStateRegistry.RenderedPrompt(verificationCode, settings,
+          plugin.getMessageManager().getMessage("messages.guest.actionbar-prompt", Map.of("%code%", verificationCode)));
+      state.setPrompt(prompt);
+      promptsRendered.increment();
+    }
+    state.setLastPromptMillis(now);
+    player.sendActionBar(prompt.component);
+    promptsSent.increment();
+  }
+
+  /**
+   * Returns a snapshot of the guest reminder metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getPromptStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("guests", guestStates.size());
+    stats.put("actionbar_sent", promptsSent.sum());
+    stats.put("actionbar_suppressed", promptsSuppressed.sum());
+    stats.put("actionbar_rendered", promptsRendered.sum());
+    return stats;
+  }
+
+  /**
+   * Returns a snapshot of the pre-login preload metrics and of the time from joining until
+   * the guest restrictions (or the bypass) are applied.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getPreloadStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("pending", preloaded.size());
+    stats.put("hits", preloadHits.sum());
+    stats.put("misses", preloadMisses.sum());
+    stats.putAll(joinLatency.getStats("join_to_restriction_"));
+    return stats;
   }
 
   /**
@@ -420,16 +596,23 @@ public class GuestListener implements Listener {
    * @param uuid The player's UUID.
    */
   public void unmarkGuest(UUID uuid) {
-    guestCache.remove(uuid);
+    GuestStateRegistry.GuestState state = guestStates.remove(uuid);
     Player player = plugin.getServer().getPlayer(uuid);
     if (player != null) {
-      // Clear all potion effects
-      for (PotionEffect effect : player.getActivePotionEffects()) {
-        player.removePotionEffect(effect.getType());
+      if (state != null) {
+        // Only remove what markGuest applied
+        for (PotionEffectType effectType : state.getAppliedEffects()) {
+          player.removePotionEffect(effectType);
+        }
+      } else {
+        // No record, e.g. effects left over from a previous session: clear all potion effects
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+          player.removePotionEffect(effect.getType());
+        }
       }
 
       // Restore original game mode
-      GameMode originalGm = originalGameModes.remove(uuid);
+      GameMode originalGm = state != null ? state.getOriginalGameMode() : null;
       if (originalGm != null) {
         player.setGameMode(originalGm);
       } else {
@@ -0,0 +1,145 @@
+package com.cccece.authwithqq.listener;
+
+import com.cccece.authwithqq.PluginSettings;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.kyori.adventure.text.Component;
+import org.bukkit.GameMode;
+import org.bukkit.potion.PotionEffectType;
+
+/**
+ * Tracks the players currently restricted as guests, together with what has to be undone
+ * when they bind.
+ *
+ * <p>Guest events fire on the server thread and, for chat, on async threads, while guests
+ * are marked and unmarked on the server thread. The registry is a concurrent map of one
+ * state object per guest, so the event hot path answers "is this a guest" and gets all of
+ * the player's guest data with a single lock-free lookup.
+ */
+public final class GuestStateRegistry {
+
+  /**
+   * An actionbar reminder rendered for one code and one configuration version.
+   */
+  static final class RenderedPrompt {
+    final String code;
+    final PluginSettings settings;
+    final Component component;
+
+    RenderedPrompt(String code, PluginSettings settings, Component component) {
+      this.code = code;
+      this.settings = settings;
+      this.component = component;
+    }
+
+    boolean isFor(String code, PluginSettings settings) {
+      return this.settings == settings && this.code.equals(code);
+    }
+  }
+
+  /**
+   * The guest data of one player.
+   */
+  public static final class GuestState {
+    private final GameMode originalGameMode;
+    private volatile List<PotionEffectType> appliedEffects = List.of();
+    private volatile long lastPromptMillis;
+    private volatile RenderedPrompt prompt;
+
+    GuestState(GameMode originalGameMode) {
+      this.originalGameMode = originalGameMode;
+    }
+
+    /**
+     * Gets the game mode the player had before the guest game mode was applied.
+     *
+     * @return The original game mode, or null if it is unknown.
+     */
+    public GameMode getOriginalGameMode() {
+      return originalGameMode;
+    }
+
+    /**
+     * Gets the potion effects the plugin applied, so only those are removed on unmark.
+     *
+     * @return The effect types.
+     */
+    public List<PotionEffectType> getAppliedEffects() {
+      return appliedEffects;
+    }
+
+    void setAppliedEffects(List<PotionEffectType> appliedEffects) {
+      this.appliedEffects = List.copyOf(appliedEffects);
+    }
+
+    /**
+     * Gets when the player was last reminded of their verification code.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if never.
+     */
+    public long getLastPromptMillis() {
+      return lastPromptMillis;
+    }
+
+    void setLastPromptMillis(long lastPromptMillis) {
+      this.lastPromptMillis = lastPromptMillis;
+    }
+
+    RenderedPrompt getPrompt() {
+      return prompt;
+    }
+
+    void setPrompt(RenderedPrompt prompt) {
+      this.prompt = prompt;
+    }
+  }
+
+  private final Map<UUID, GuestState> states = new ConcurrentHashMap<>();
+
+  /**
+   * Registers a player as a guest. If the player already is one, the existing state and
+   * with it the original game mode are kept.
+   *
+   * @param uuid The player's UUID.
+   * @param currentGameMode The player's game mode before any guest restriction.
+   * @return The player's guest state.
+   */
+  public GuestState register(UUID uuid, GameMode currentGameMode) {
+    return states.computeIfAbsent(uuid, key -> new GuestState(currentGameMode));
+  }
+
+  /**
+   * Looks up a guest.
+   *
+   * @param uuid The player's UUID.
+   * @return The guest state, or null if the player is not a guest.
+   */
+  public GuestState get(UUID uuid) {
+    return states.get(uuid);
+  }
+
+  public boolean isGuest(UUID uuid) {
+    return states.containsKey(uuid);
+  }
+
+  /**
+   * Removes a player's guest state.
+   *
+   * @param uuid The player's UUID.
+   * @return The removed state, or null if the player was not a guest.
+   */
+  public GuestState remove(UUID uuid) {
+    return states.remove(uuid);
+  }
+
+  /**
+   * Gets the number of guests currently tracked.
+   *
+   * @return The guest count.
+   */
+  public int size() {
+    return states.size();
+  }
+}
@@ -0,0 +1,134 @@
+package com.cccece.authwithqq.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent Bloom filter over {@code long} keys.
+ *
+ * <p>{@link #mightContain(long)} never answers false for a key that was added, so a false
+ * answer lets the caller skip the lookup it guards entirely. Keys cannot be removed; a key
+ * that is gone from the underlying data only costs an occasional false positive.
+ *
+ * <p>The bit array is sized for an expected number of keys and a target false-positive
+ * rate, capped at a maximum size. Past the expected number of keys the filter keeps working,
+ * but its false-positive rate rises; {@link #getStats()} reports the current estimate.
+ */
+public final class BloomFilter {
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+  private final long expectedKeys;
+  private final double targetFalsePositiveRate;
+
+  // --- Metrics ---
+  private final LongAdder keys = new LongAdder();
+  private final LongAdder definiteMisses = new LongAdder();
+  private final LongAdder possibleHits = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  /**
+   * Creates an empty filter.
+   *
+   * @param expectedKeys The number of keys the filter is sized for.
+   * @param falsePositiveRate The target false-positive rate at that many keys, e.g. 0.01.
+   * @param maxBytes The upper bound of the bit array size; the rate rises if it applies.
+   */
+  public BloomFilter(long expectedKeys, double falsePositiveRate, long maxBytes) {
+    this.expectedKeys = Math.max(1, expectedKeys);
+    this.targetFalsePositiveRate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+    long optimalBits = (long) Math.ceil(-this.expectedKeys * Math.log(targetFalsePositiveRate)
+        / (Math.log(2) * Math.log(2)));
+    long maxBits = Math.max(64, maxBytes * 8);
+    int wordCount = (int) Math.min(Integer.MAX_VALUE, (Math.max(64, Math.min(optimalBits, maxBits)) + 63) / 64);
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount * 64;
+    this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / this.expectedKeys * Math.log(2))));
+  }
+
+  /**
+   * Adds a key.
+   *
+   * @param key The key.
+   */
+  public void put(long key) {
+    long hash1 = mix(key);
+    long hash2 = mix(hash1) | 1; // Odd, so the probe sequence does not repeat early
+    boolean changed = false;
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long previous = words.getAndAccumulate(word, mask, (current, add) -> current | add);
+      changed |= (previous & mask) == 0;
+    }
+    if (changed) {
+      keys.increment(); // Re-adding a key changes no bits and is not counted
+    }
+  }
+
+  /**
+   * Tests whether a key may have been added.
+   *
+   * @param key The key.
+   * @return false if the key was definitely never added.
+   */
+  public boolean mightContain(long key) {
+    long hash1 = mix(key);
+    long hash2 = mix(hash1) | 1;
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        definiteMisses.increment();
+        return false;
+      }
+    }
+    possibleHits.increment();
+    return true;
+  }
+
+  /**
+   * Records that a key the filter let through turned out to be absent.
+   */
+  public void recordFalsePositive() {
+    falsePositives.increment();
+  }
+
+  // The finalizer of MurmurHash3, spreading sequential QQ numbers over the whole range.
+  private static long mix(long key) {
+    long hash = key;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Returns the filter size and a snapshot of its metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    long keyCount = keys.sum();
+    double estimatedRate = Math.pow(1 - Math.exp(-(double) hashCount * keyCount / bitCount), hashCount);
+    long misses = definiteMisses.sum();
+    long falseHits = falsePositives.sum();
+    stats.put("memory_bytes", bitCount / 8);
+    stats.put("hash_functions", hashCount);
+    stats.put("expected_keys", expectedKeys);
+    stats.put("keys", keyCount);
+    stats.put("target_fpp", targetFalsePositiveRate);
+    stats.put("estimated_fpp", estimatedRate);
+    stats.put("definite_misses", misses);
+    stats.put("possible_hits", possibleHits.sum());
+    stats.put("false_positives", falseHits);
+    // Share of absent keys the filter failed to reject
+    stats.put("observed_fpp", misses + falseHits == 0 ? 0 : (double) falseHits / (misses + falseHits));
+    return stats;
+  }
+}
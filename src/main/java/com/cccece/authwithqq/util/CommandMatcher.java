@@ -0,0 +1,123 @@
+package com.cccece.authwithqq.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Precompiled allow-list for the commands guests may run.
+ *
+ * <p>Entries are keyed by their command label, so a typed command costs one hash lookup on
+ * its first word instead of a prefix comparison against every entry. Labels are compared as
+ * whole words: an entry {@code /bind} allows {@code /bind} and {@code /bind setpassword x}
+ * but not {@code /bindx}. The leading slash and letter case are ignored. A namespaced label
+ * such as {@code /authwithqq:bind} is only allowed when the namespace is this plugin's, or
+ * when it resolves to the same command as the listed label, so {@code /otherplugin:bind} does
+ * not slip through because {@code /bind} is listed. An entry with more than one word, e.g.
+ * {@code /auth help}, only allows that sub-command.
+ */
+public final class CommandMatcher {
+  // Label -> allowed argument prefixes; "" allows any arguments
+  private final Map<String, List<String>> entries;
+  private final String namespace;
+
+  private CommandMatcher(Map<String, List<String>> entries, String namespace) {
+    this.entries = entries;
+    this.namespace = namespace;
+  }
+
+  /**
+   * Compiles the configured allow-list.
+   *
+   * @param commands The allowed commands, e.g. {@code ["/login", "/bind"]}.
+   * @param namespace This plugin's command namespace, e.g. {@code authwithqq}.
+   * @return The matcher.
+   */
+  public static CommandMatcher compile(Collection<String> commands, String namespace) {
+    String ownNamespace = namespace.toLowerCase(Locale.ROOT);
+    Map<String, List<String>> entries = new HashMap<>();
+    for (String command : commands) {
+      String normalized = command.trim().toLowerCase(Locale.ROOT);
+      int space = normalized.indexOf(' ');
+      String label = normalizeLabel(space < 0 ? normalized : normalized.substring(0, space), ownNamespace);
+      if (label.isEmpty()) {
+        continue;
+      }
+      String arguments = space < 0 ? "" : normalized.substring(space + 1).trim();
+      entries.computeIfAbsent(label, key -> new ArrayList<>()).add(arguments);
+    }
+    Map<String, List<String>> frozen = new HashMap<>();
+    entries.forEach((label, arguments) -> frozen.put(label, List.copyOf(arguments)));
+    return new CommandMatcher(Map.copyOf(frozen), ownNamespace);
+  }
+
+  /**
+   * Checks a typed command against the allow-list.
+   *
+   * @param message The full command line, including the leading slash.
+   * @return true if the command is allowed.
+   */
+  public boolean matches(String message) {
+    return matches(message, null);
+  }
+
+  /**
+   * Checks a typed command against the allow-list, resolving aliases and namespaced labels
+   * that are not listed themselves.
+   *
+   * @param message The full command line, including the leading slash.
+   * @param commandResolver Maps a label to an identifier of the command it invokes, in the
+   *     form {@code namespace:name}, or to null if there is no such command; only consulted
+   *     when the label itself is not listed. May be null.
+   * @return true if the command is allowed.
+   */
+  public boolean matches(String message, UnaryOperator<String> commandResolver) {
+    if (entries.isEmpty()) {
+      return false;
+    }
+    int end = message.indexOf(' ');
+    String label = normalizeLabel((end < 0 ? message : message.substring(0, end)).toLowerCase(Locale.ROOT), namespace);
+    List<String> allowed = entries.get(label);
+    if (allowed == null && commandResolver != null && !label.isEmpty()) {
+      allowed = resolve(label, commandResolver);
+    }
+    if (allowed == null) {
+      return false;
+    }
+    String arguments = end < 0 ? "" : message.substring(end + 1).trim().toLowerCase(Locale.ROOT);
+    for (String prefix : allowed) {
+      if (prefix.isEmpty() || arguments.equals(prefix) || arguments.startsWith(prefix + " ")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // An alias or namespaced label inherits the entry of the command's name, but only if that
+  // listed label invokes the very same command.
+  private List<String> resolve(String label, UnaryOperator<String> commandResolver) {
+    String command = commandResolver.apply(label);
+    if (command == null) {
+      return null;
+    }
+    command = command.toLowerCase(Locale.ROOT);
+    String name = command.substring(command.lastIndexOf(':') + 1);
+    List<String> allowed = entries.get(name);
+    if (allowed == null) {
+      return null;
+    }
+    String listed = commandResolver.apply(name);
+    return listed != null && command.equals(listed.toLowerCase(Locale.ROOT)) ? allowed : null;
+  }
+
+  // Strips the slash and this plugin's "namespace:" prefix from a lower-cased label.
+  private static String normalizeLabel(String label, String namespace) {
+    String bare = label.startsWith("/") ? label.substring(1) : label;
+    String prefix = namespace + ":";
+    return bare.startsWith(prefix) ? bare.substring(prefix.length()) : bare;
+  }
+}
@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -89,6 +90,7 @@ public class CsvManager {
       }
 
       String[] headers = headerLine.split(",");
+      List<CompletableFuture<Void>> writes = new ArrayList<>();
       String line;
       while ((line = reader.readLine()) != null) {
         String[] values = line.split(",", -1);
@@ -113,21 +115,28 @@ public class CsvManager {
         }
 
         // Update basic data
-        databaseManager.addGuest(uuid, name);
-        databaseManager.updateBinding(uuid, qq);
+        writes.add(databaseManager.addGuest(uuid, name));
+        CompletableFuture<Void> binding = databaseManager.updateBinding(uuid, qq);
         if (plugin != null) { // Ensure plugin is available
-          plugin.handleBindingChange(uuid, qq); // Update player's guest status
+          long boundQq = qq;
+          // Update player's guest status once the binding is committed
+          binding = binding.thenRun(() -> plugin.handleBindingChange(uuid, boundQq));
         }
+        writes.add(binding);
 
         // Update meta
         for (int i = 4; i < headers.length && i < values.length; i++) {
           String key = headers[i];
           String value = values[i];
           if (key != null && !key.isEmpty() && value != null && !value.isEmpty()) {
-            databaseManager.setMeta(uuid, key, value);
+            writes.add(databaseManager.setMeta(uuid, key, value));
           }
         }
       }
+
+      // Rows are committed in batches by the writer thread; wait until all of them are durable.
+      // A failed write fails the whole import; the DatabaseManager already logged its cause.
+      CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
     } catch (Exception e) {
       logger.log(Level.SEVERE, "Error during CSV import", e);
       throw new IOException("CSV Import failed", e);
@@ -0,0 +1,75 @@
+package com.cccece.authwithqq.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent latency samples in a fixed ring buffer and reports percentiles
+ * over them. Recording is O(1); percentiles are computed on demand by sorting a copy, which
+ * is cheap at the sizes used for metrics.
+ */
+public final class LatencyRecorder {
+  private final long[] samples;
+  private int next;
+  private int size;
+  private long count;
+  private long maxNanos;
+
+  /**
+   * Creates a recorder.
+   *
+   * @param capacity How many of the most recent samples the percentiles are computed over.
+   */
+  public LatencyRecorder(int capacity) {
+    this.samples = new long[Math.max(1, capacity)];
+  }
+
+  /**
+   * Records one sample.
+   *
+   * @param nanos The measured latency in nanoseconds.
+   */
+  public synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % samples.length;
+    size = Math.min(size + 1, samples.length);
+    count++;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  /**
+   * Returns the sample count, the percentiles of the recent samples and the all-time maximum.
+   *
+   * @param prefix The prefix of each metric name, e.g. {@code "join_"}.
+   * @return A map of metric names to values in milliseconds.
+   */
+  public Map<String, Number> getStats(String prefix) {
+    long[] sorted;
+    long total;
+    long max;
+    synchronized (this) {
+      sorted = Arrays.copyOf(samples, size);
+      total = count;
+      max = maxNanos;
+    }
+    Arrays.sort(sorted);
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put(prefix + "samples", total);
+    stats.put(prefix + "p50_ms", percentileMillis(sorted, 0.50));
+    stats.put(prefix + "p90_ms", percentileMillis(sorted, 0.90));
+    stats.put(prefix + "p99_ms", percentileMillis(sorted, 0.99));
+    stats.put(prefix + "max_ms", TimeUnit.NANOSECONDS.toMillis(max));
+    return stats;
+  }
+
+  private static double percentileMillis(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    long nanos = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    return Math.round(nanos / 10_000.0) / 100.0; // Two decimals
+  }
+}
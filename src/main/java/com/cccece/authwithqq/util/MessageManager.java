@@ -1,15 +1,32 @@
 package com.cccece.authwithqq.util;
 
 import com.cccece.authwithqq.AuthWithQqPlugin;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
-import org.bukkit.configuration.file.FileConfiguration;
 
+/**
+ * Renders the configurable chat messages.
+ *
+ * <p>Each message is looked up and compiled into a {@link MessageTemplate} the first time it
+ * is used; later calls only fill in the placeholders. The compiled templates are dropped when
+ * the configuration is reloaded.
+ */
 public class MessageManager {
+    private static final int MAX_INLINE_TEMPLATES = 256;
+
     private final AuthWithQqPlugin plugin;
     private final LegacyComponentSerializer serializer = LegacyComponentSerializer.legacyAmpersand();
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>(); // Config path -> template
+    private final Map<String, MessageTemplate> inlineTemplates = new ConcurrentHashMap<>(); // Raw text -> template
+
+    // --- Metrics ---
+    private final LongAdder compiled = new LongAdder();
+    private final LongAdder rendered = new LongAdder();
 
     public MessageManager(AuthWithQqPlugin plugin) {
         this.plugin = plugin;
@@ -22,8 +39,7 @@ public class MessageManager {
      * @return The formatted message component.
      */
     public Component getMessage(String path) {
-        String message = plugin.getConfig().getString(path, "&cMessage not found: " + path);
-        return serializer.deserialize(message);
+        return getMessage(path, Collections.emptyMap());
     }
 
     /**
@@ -34,11 +50,7 @@ public class MessageManager {
      * @return The formatted message component.
      */
     public Component getMessage(String path, Map<String, String> placeholders) {
-        String message = plugin.getConfig().getString(path, "&cMessage not found: " + path);
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            message = message.replace(entry.getKey(), entry.getValue());
-        }
-        return serializer.deserialize(message);
+        return getMessage(path, "&cMessage not found: " + path, placeholders);
     }
 
     /**
@@ -50,10 +62,60 @@ public class MessageManager {
      * @return The formatted message component.
      */
     public Component getMessage(String path, String defaultValue, Map<String, String> placeholders) {
-        String message = plugin.getConfig().getString(path, defaultValue);
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            message = message.replace(entry.getKey(), entry.getValue());
+        MessageTemplate template = templates.get(path);
+        if (template == null) {
+            template = templates.computeIfAbsent(path,
+                key -> compile(plugin.getConfig().getString(key, defaultValue)));
+        }
+        rendered.increment();
+        return template.render(placeholders);
+    }
+
+    /**
+     * Renders a message text that does not come from a single config path, e.g. a config
+     * message that was edited before display.
+     *
+     * @param text The message with {@code &} color codes and {@code %name%} placeholders.
+     * @param placeholders A map of placeholders (e.g., "%player%") to their replacement values.
+     * @return The formatted message component.
+     */
+    public Component format(String text, Map<String, String> placeholders) {
+        MessageTemplate template = inlineTemplates.get(text);
+        if (template == null) {
+            template = compile(text);
+            if (inlineTemplates.size() < MAX_INLINE_TEMPLATES) { // Texts are derived from config, but stay bounded anyway
+                inlineTemplates.putIfAbsent(text, template);
+            }
         }
-        return serializer.deserialize(message);
+        rendered.increment();
+        return template.render(placeholders);
+    }
+
+    private MessageTemplate compile(String text) {
+        compiled.increment();
+        return MessageTemplate.compile(text, serializer);
+    }
+
+    /**
+     * Drops the compiled templates so the next call reads the reloaded configuration.
+     */
+    public void clearCache() {
+        templates.clear();
+        inlineTemplates.clear();
+    }
+
+    /**
+     * Returns a snapshot of the template cache metrics.
+     *
+     * @return A map of metric names to values.
+     */
+    public Map<String, Number> getStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        long staticTemplates = templates.values().stream().filter(MessageTemplate::isStatic).count();
+        stats.put("cached_templates", templates.size() + inlineTemplates.size());
+        stats.put("static_templates", staticTemplates);
+        stats.put("compiled", compiled.sum());
+        stats.put("rendered", rendered.sum());
+        return stats;
     }
 }
@@ -0,0 +1,163 @@
+package com.cccece.authwithqq.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+/**
+ * A message parsed once into a component tree with placeholder slots.
+ *
+ * <p>The legacy {@code &} codes are resolved when the template is compiled; each
+ * {@code %name%} placeholder becomes a slot that inherits the style in effect at its
+ * position. Rendering only copies the tree and fills the slots, and a template without
+ * placeholders returns the same immutable component every time.
+ *
+ * <p>Placeholder values are inserted as plain text, so {@code &} codes inside a value (for
+ * example in an error message) are shown as typed rather than interpreted.
+ */
+public final class MessageTemplate {
+  private static final Pattern PLACEHOLDER = Pattern.compile("%[A-Za-z0-9_]+%");
+  // Private use area: never produced by the legacy serializer or typed in config
+  private static final char SLOT_BASE = '\uE000';
+  private static final int MAX_SLOTS = 0x1000;
+
+  /**
+   * A text component whose content is made of literals and slots.
+   */
+  private static final class Node {
+    private final Style style;
+    private final String[] literals; // literals[i] precedes slots[i]; one more literal than slots
+    private final int[] slots;
+    private final Component staticComponent; // Non-text components and slot-free subtrees
+    private final Node[] children;
+
+    private Node(Style style, String[] literals, int[] slots, Component staticComponent, Node[] children) {
+      this.style = style;
+      this.literals = literals;
+      this.slots = slots;
+      this.staticComponent = staticComponent;
+      this.children = children;
+    }
+
+    private Component render(String[] values) {
+      if (staticComponent != null) {
+        return staticComponent;
+      }
+      StringBuilder content = new StringBuilder(literals[0]);
+      for (int i = 0; i < slots.length; i++) {
+        content.append(values[slots[i]]).append(literals[i + 1]);
+      }
+      TextComponent.Builder builder = Component.text().content(content.toString()).style(style);
+      for (Node child : children) {
+        builder.append(child.render(values));
+      }
+      return builder.build();
+    }
+  }
+
+  private final String[] placeholders; // Slot index -> placeholder token, e.g. "%player%"
+  private final Node root;
+  private final Component staticMessage;
+
+  private MessageTemplate(String[] placeholders, Node root, Component staticMessage) {
+    this.placeholders = placeholders;
+    this.root = root;
+    this.staticMessage = staticMessage;
+  }
+
+  /**
+   * Parses a message.
+   *
+   * @param text The message with {@code &} color codes and {@code %name%} placeholders.
+   * @param serializer The legacy serializer used to resolve the color codes.
+   * @return The compiled template.
+   */
+  public static MessageTemplate compile(String text, LegacyComponentSerializer serializer) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder marked = new StringBuilder(text.length());
+    Matcher matcher = PLACEHOLDER.matcher(text);
+    int last = 0;
+    while (matcher.find() && tokens.size() < MAX_SLOTS) {
+      marked.append(text, last, matcher.start());
+      int slot = tokens.indexOf(matcher.group());
+      if (slot < 0) {
+        slot = tokens.size();
+        tokens.add(matcher.group());
+      }
+      marked.append((char) (SLOT_BASE + slot));
+      last = matcher.end();
+    }
+    marked.append(text, last, text.length());
+
+    if (tokens.isEmpty()) {
+      return new MessageTemplate(new String[0], null, serializer.deserialize(text));
+    }
+    Node root = compileNode(serializer.deserialize(marked.toString()));
+    return new MessageTemplate(tokens.toArray(new String[0]), root, null);
+  }
+
+  private static Node compileNode(Component component) {
+    Node[] children = new Node[component.children().size()];
+    boolean hasSlots = false;
+    for (int i = 0; i < children.length; i++) {
+      children[i] = compileNode(component.children().get(i));
+      hasSlots |= children[i].staticComponent == null;
+    }
+    if (!(component instanceof TextComponent text)) {
+      return new Node(null, null, null, component, null);
+    }
+
+    String content = text.content();
+    List<String> literals = new ArrayList<>();
+    List<Integer> slots = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c >= SLOT_BASE && c < SLOT_BASE + MAX_SLOTS) {
+        literals.add(content.substring(start, i));
+        slots.add(c - SLOT_BASE);
+        start = i + 1;
+      }
+    }
+    literals.add(content.substring(start));
+    if (!hasSlots && slots.isEmpty()) {
+      return new Node(null, null, null, component, null);
+    }
+    return new Node(text.style(), literals.toArray(new String[0]),
+        slots.stream().mapToInt(Integer::intValue).toArray(), null, children);
+  }
+
+  /**
+   * Renders the message.
+   *
+   * @param values Placeholder tokens (e.g. {@code "%player%"}) mapped to their values; a
+   *     placeholder without a value is left as written.
+   * @return The message component.
+   */
+  public Component render(Map<String, String> values) {
+    if (staticMessage != null) {
+      return staticMessage;
+    }
+    String[] slotValues = new String[placeholders.length];
+    for (int i = 0; i < placeholders.length; i++) {
+      String value = values.get(placeholders[i]);
+      slotValues[i] = value != null ? value : placeholders[i];
+    }
+    return root.render(slotValues);
+  }
+
+  /**
+   * Whether the message has no placeholders and always renders to the same component.
+   *
+   * @return true for a static message.
+   */
+  public boolean isStatic() {
+    return staticMessage != null;
+  }
+}
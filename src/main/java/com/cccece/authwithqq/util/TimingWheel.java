@@ -0,0 +1,277 @@
+package com.cccece.authwithqq.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hierarchical timing wheel that runs expiry callbacks from a single background ticker.
+ *
+ * <p>Each level has 64 slots; a slot of level {@code n} spans {@code 64^n} ticks. A timeout
+ * is placed on the lowest level whose range covers its delay and moves down one level each
+ * time the level below wraps around, so scheduling and cancelling are O(1) and a tick only
+ * touches the timeouts that are due (plus an occasional cascade), however many are pending.
+ * Five levels of one-second ticks cover more than thirty years.
+ *
+ * <p>Callbacks run on the ticker thread and must be short and thread-safe.
+ */
+public final class TimingWheel implements AutoCloseable {
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int MASK = SLOTS - 1;
+  private static final int LEVELS = 5;
+
+  /**
+   * A pending callback. Linked into exactly one slot until it fires or is cancelled.
+   */
+  public final class Timeout {
+    private final Runnable task;
+    private final long deadlineTick;
+    private Timeout prev;
+    private Timeout next;
+    private Timeout[] slot;
+    private int slotIndex;
+
+    private Timeout(Runnable task, long deadlineTick) {
+      this.task = task;
+      this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * Cancels the callback if it has not run yet.
+     *
+     * @return true if the callback was pending and will no longer run.
+     */
+    public boolean cancel() {
+      synchronized (TimingWheel.this) {
+        if (slot == null) {
+          return false;
+        }
+        unlink(this);
+        pending--;
+        cancelled.increment();
+        return true;
+      }
+    }
+  }
+
+  private final long tickMillis;
+  private final String threadName;
+  private final Logger logger;
+  private final Timeout[][] levels;
+  private final long maxSpan;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private long currentTick;
+  private int pending;
+  private ScheduledExecutorService ticker;
+
+  // --- Metrics ---
+  private final LongAdder scheduled = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder cancelled = new LongAdder();
+
+  /**
+   * Creates a wheel. Timeouts may be scheduled right away but only fire after {@link #start()}.
+   *
+   * @param tickMillis The resolution of the wheel.
+   * @param threadName The name of the ticker thread.
+   * @param logger The logger for reporting failing callbacks.
+   */
+  public TimingWheel(long tickMillis, String threadName, Logger logger) {
+    this(tickMillis, threadName, logger, LEVELS, System::nanoTime);
+  }
+
+  // Tests drive the clock by hand, and use fewer levels to reach the clamped span quickly.
+  TimingWheel(long tickMillis, String threadName, Logger logger, int levelCount, LongSupplier nanoClock) {
+    this.tickMillis = Math.max(1L, tickMillis);
+    this.threadName = threadName;
+    this.logger = logger;
+    this.levels = new Timeout[levelCount][SLOTS];
+    this.maxSpan = 1L << (SLOT_BITS * levelCount);
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Starts the background ticker.
+   */
+  public synchronized void start() {
+    if (ticker != null) {
+      return;
+    }
+    ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, threadName);
+      thread.setDaemon(true);
+      return thread;
+    });
+    ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Schedules a callback.
+   *
+   * @param delayMillis How long from now the callback should run.
+   * @param task The callback.
+   * @return A handle to cancel the callback.
+   */
+  public synchronized Timeout schedule(long delayMillis, Runnable task) {
+    // Round up, counting the partial current tick: a timeout never fires before its delay has passed
+    long ticks = (Math.max(0L, delayMillis) + tickMillis - 1) / tickMillis + 1;
+    Timeout timeout = new Timeout(task, elapsedTicks() + ticks);
+    insert(timeout);
+    pending++;
+    scheduled.increment();
+    return timeout;
+  }
+
+  // Catch up with wall time: a late ticker run processes every tick it missed.
+  void advance() {
+    long target = elapsedTicks();
+    while (true) {
+      List<Timeout> due;
+      synchronized (this) {
+        if (currentTick >= target) {
+          return;
+        }
+        due = tick();
+      }
+      for (Timeout timeout : due) {
+        try {
+          timeout.task.run();
+        } catch (RuntimeException e) {
+          logger.log(Level.WARNING, "Expiry callback failed", e);
+        }
+      }
+    }
+  }
+
+  private long elapsedTicks() {
+    return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos) / tickMillis;
+  }
+
+  // Caller holds the lock.
+  private List<Timeout> tick() {
+    currentTick++;
+    // When a level wraps around, the next slot of the level above is redistributed downwards
+    for (int level = 1; level < levels.length; level++) {
+      if (indexAt(level - 1, currentTick) != 0) {
+        break;
+      }
+      Timeout[] slots = levels[level];
+      int index = indexAt(level, currentTick);
+      Timeout head = slots[index];
+      slots[index] = null;
+      while (head != null) {
+        Timeout next = head.next;
+        head.prev = null;
+        head.next = null;
+        head.slot = null;
+        insert(head);
+        head = next;
+      }
+    }
+
+    List<Timeout> due = new ArrayList<>();
+    Timeout[] slots = levels[0];
+    int index = indexAt(0, currentTick);
+    Timeout head = slots[index];
+    slots[index] = null;
+    while (head != null) {
+      Timeout next = head.next;
+      head.prev = null;
+      head.next = null;
+      head.slot = null;
+      if (head.deadlineTick > currentTick) {
+        insert(head); // Placed by a clamped delay; not due yet
+      } else {
+        due.add(head);
+        pending--;
+        expired.increment();
+      }
+      head = next;
+    }
+    return due;
+  }
+
+  // Caller holds the lock.
+  private void insert(Timeout timeout) {
+    long delta = timeout.deadlineTick - currentTick;
+    long placement = timeout.deadlineTick;
+    if (delta <= 0) {
+      // Cascaded on its deadline: the current level-0 slot is drained right after the cascade
+      placement = currentTick;
+      delta = 0;
+    } else if (delta >= maxSpan) {
+      placement = currentTick + maxSpan - 1; // Re-placed on every top-level cascade until in range
+      delta = maxSpan - 1;
+    }
+    int level = 0;
+    while (level < levels.length - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    Timeout[] slots = levels[level];
+    int index = indexAt(level, placement);
+    timeout.slot = slots;
+    timeout.slotIndex = index;
+    timeout.next = slots[index];
+    if (slots[index] != null) {
+      slots[index].prev = timeout;
+    }
+    slots[index] = timeout;
+  }
+
+  // Caller holds the lock.
+  private void unlink(Timeout timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      timeout.slot[timeout.slotIndex] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.slot = null;
+  }
+
+  private static int indexAt(int level, long tick) {
+    return (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+  }
+
+  /**
+   * Returns a snapshot of the wheel metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    synchronized (this) {
+      stats.put("pending", pending);
+    }
+    stats.put("scheduled", scheduled.sum());
+    stats.put("expired", expired.sum());
+    stats.put("cancelled", cancelled.sum());
+    return stats;
+  }
+
+  /**
+   * Stops the ticker. Pending callbacks are discarded.
+   */
+  @Override
+  public synchronized void close() {
+    if (ticker != null) {
+      ticker.shutdownNow();
+      ticker = null;
+    }
+  }
+}
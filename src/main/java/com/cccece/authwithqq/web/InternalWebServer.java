@@ -1,23 +1,40 @@
 package com.cccece.authwithqq.web;
 
 import com.cccece.authwithqq.AuthWithQqPlugin;
+import com.cccece.authwithqq.auth.VerificationCodeStore;
+import com.cccece.authwithqq.auth.WebSessionStore;
+import com.cccece.authwithqq.database.PlayerPage;
+import com.cccece.authwithqq.database.PlayerQuery;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -28,11 +45,18 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * An internal HTTP server for handling QQ bot requests.
  */
 public class InternalWebServer {
+  private static final int MAX_BATCH_CHECK = 10000; // QQ numbers per /api/check/batch request
+
   private final AuthWithQqPlugin plugin;
   private final int port;
   private final String token;
+  private final WebServerOptions options;
+  private final RequestLimiter limiter;
   private final Gson gson = new Gson();
   private HttpServer server;
+  private ExecutorService executor;
+  private StatusEventHub statusEventHub;
+  private StaticAssetCache staticAssets;
 
   /**
    * Initializes the Web Server.
@@ -40,12 +64,15 @@ public class InternalWebServer {
    * @param plugin The plugin instance.
    * @param port The port to listen on.
    * @param token The API token for authentication.
+   * @param options The request execution and concurrency settings.
    */
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Plugin instance is a shared service, not meant for defensive copying.")
-  public InternalWebServer(AuthWithQqPlugin plugin, int port, String token) {
+  public InternalWebServer(AuthWithQqPlugin plugin, int port, String token, WebServerOptions options) {
     this.plugin = plugin;
     this.port = port;
     this.token = token;
+    this.options = options;
+    this.limiter = new RequestLimiter(options);
   }
 
   /**
@@ -54,35 +81,42 @@ public class InternalWebServer {
   public void start() {
     try {
       server = HttpServer.create(new InetSocketAddress(port), 0);
-      server.createContext("/api/status", new StatusHandler());
-      server.createContext("/api/check", new CheckHandler());
-      server.createContext("/api/bind", new BindHandler());
-      server.createContext("/api/kick", new KickHandler());
-      server.createContext("/api/whitelist", new WhitelistHandler());
-      server.createContext("/api/meta", new MetaHandler()); // API for custom fields
-      server.createContext("/api/players", new PlayersHandler()); // API for players data
-      server.createContext("/api/unbind", new UnbindHandler()); // API for unbinding players
-      server.createContext("/api/config", new ConfigHandler()); // API for plugin configuration
-      server.createContext("/api/bot/bind", new BotBindHandler()); // New: API for binding fake players
-      server.createContext("/api/bot/unbind", new BotUnbindHandler()); // New: API for unbinding fake players
-      server.createContext("/api/admin/bind", new AdminBindHandler()); // New: API for admin binding operations
-      server.createContext("/api/profile", new ProfileViewHandler()); // New: API for viewing player profile
-      server.createContext("/api/profile/update", new ProfileUpdateHandler()); // New: API for updating player profile
-      server.createContext("/api/query", new QueryHandler()); // New: API for querying player data
-      server.createContext("/api/user/bots", new UserBotsHandler());
-      server.createContext("/api/user/bot/bind", new UserBotBindHandler());
-      server.createContext("/api/user/bot/unbind", new UserBotUnbindHandler());
-      server.createContext("/api/bots", new AllBotsHandler()); // New: Get all bots
-      server.createContext("/api/csv/export", new CsvExportHandler()); // New: Export CSV
-      server.createContext("/api/csv/import", new CsvImportHandler()); // New: Import CSV
-      server.createContext("/api/auth/login", new AuthLoginHandler()); // New: Web login
-      server.createContext("/api/auth/logout", new AuthLogoutHandler()); // New: Web logout
-      server.createContext("/api/auth/verify", new AuthVerifyHandler()); // New: Verify session
-      server.createContext("/", new RedirectHandler("/web/index.html")); // Redirect to index
-      server.createContext("/dashboard", new RedirectHandler("/web/dashboard.html")); // Explicit dashboard route
-      server.createContext("/admin", new AuthenticatedRedirectHandler("/web/admin.html")); // Admin console
-      server.createContext("/web", new StaticFileHandler()); // Serve static web resources
-      server.setExecutor(null);
+      createContext("/api/status", new StatusHandler());
+      statusEventHub = createStatusEventHub();
+      // The handler only hands the connection to the hub, which caps how many streams stay open
+      createContext("/api/status/stream", new StatusStreamHandler());
+      createContext("/api/check", new CheckHandler());
+      createContext("/api/check/batch", new BatchCheckHandler()); // Binding status of many QQ numbers at once
+      createContext("/api/bind", new BindHandler());
+      createContext("/api/kick", new KickHandler());
+      createContext("/api/whitelist", new WhitelistHandler());
+      createContext("/api/meta", new MetaHandler()); // API for custom fields
+      createContext("/api/players", new PlayersHandler()); // API for players data
+      createContext("/api/unbind", new UnbindHandler()); // API for unbinding players
+      createContext("/api/config", new ConfigHandler()); // API for plugin configuration
+      createContext("/api/metrics", new MetricsHandler()); // API for runtime performance metrics
+      createContext("/api/bot/bind", new BotBindHandler()); // New: API for binding fake players
+      createContext("/api/bot/unbind", new BotUnbindHandler()); // New: API for unbinding fake players
+      createContext("/api/admin/bind", new AdminBindHandler()); // New: API for admin binding operations
+      createContext("/api/profile", new ProfileViewHandler()); // New: API for viewing player profile
+      createContext("/api/profile/update", new ProfileUpdateHandler()); // New: API for updating player profile
+      createContext("/api/query", new QueryHandler()); // New: API for querying player data
+      createContext("/api/user/bots", new UserBotsHandler());
+      createContext("/api/user/bot/bind", new UserBotBindHandler());
+      createContext("/api/user/bot/unbind", new UserBotUnbindHandler());
+      createContext("/api/bots", new AllBotsHandler()); // New: Get all bots
+      createContext("/api/csv/export", new CsvExportHandler()); // New: Export CSV
+      createContext("/api/csv/import", new CsvImportHandler()); // New: Import CSV
+      createContext("/api/auth/login", new AuthLoginHandler()); // New: Web login
+      createContext("/api/auth/logout", new AuthLogoutHandler()); // New: Web logout
+      createContext("/api/auth/verify", new AuthVerifyHandler()); // New: Verify session
+      createContext("/", new RedirectHandler("/web/index.html")); // Redirect to index
+      createContext("/dashboard", new RedirectHandler("/web/dashboard.html")); // Explicit dashboard route
+      createContext("/admin", new AuthenticatedRedirectHandler("/web/admin.html")); // Admin console
+      staticAssets = StaticAssetCache.load(plugin.getPluginFile(), plugin.getLogger());
+      createContext("/web", new StaticFileHandler()); // Serve static web resources
+      executor = createExecutor();
+      server.setExecutor(executor);
       server.start();
       plugin.getLogger().info("Web server started on port " + port);
     } catch (IOException e) {
@@ -90,13 +124,42 @@ public class InternalWebServer {
     }
   }
 
+  // Every context passes through the concurrency limiter before reaching its handler.
+  private void createContext(String path, HttpHandler handler) {
+    server.createContext(path, handler).getFilters().add(limiter.forContext(path));
+  }
+
+  private StatusEventHub createStatusEventHub() {
+    int maxClients = plugin.getConfig().getInt("server.status.max-stream-clients", 100);
+    return new StatusEventHub(this::buildStatusJson, plugin.getConfig().getLong("server.status.push-interval-ms", 2000L),
+        maxClients, plugin.getLogger());
+  }
+
+  private ExecutorService createExecutor() {
+    if (options.isVirtualThreads()) {
+      return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("AuthWithQq-Web-", 0).factory());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(options.getPlatformThreads(), runnable -> {
+      Thread thread = new Thread(runnable, "AuthWithQq-Web-" + threadCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   /**
    * Stops the HTTP server.
    */
   public void stop() {
+    if (statusEventHub != null) {
+      statusEventHub.close();
+    }
     if (server != null) {
       server.stop(0);
     }
+    if (executor != null) {
+      executor.shutdown();
+    }
   }
 
   private boolean authenticate(HttpExchange exchange) throws IOException {
@@ -121,6 +184,38 @@ public class InternalWebServer {
     }
   }
 
+  /**
+   * Writes a JSON body of unknown length straight to the client using chunked transfer encoding.
+   */
+  @FunctionalInterface
+  private interface JsonBody {
+    void write(JsonWriter writer) throws IOException;
+  }
+
+  /**
+   * Streams a JSON response instead of building it as a tree and a String first, so large
+   * responses are written with constant memory. Once streaming has started the status code
+   * can no longer change; a failure after that point leaves the body without its final chunk
+   * and must propagate out of the handler, so the server drops the connection and the client
+   * sees an aborted response rather than a short one that looks complete.
+   */
+  private void sendJsonStream(HttpExchange exchange, int statusCode, JsonBody body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(statusCode, 0); // 0 selects chunked transfer encoding
+    JsonWriter writer = new JsonWriter(new BufferedWriter(
+        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    body.write(writer);
+    writer.close(); // Only now, since closing writes the final chunk
+  }
+
+  private static void writeRow(JsonWriter writer, Map<String, String> row) throws IOException {
+    writer.beginObject();
+    for (Map.Entry<String, String> entry : row.entrySet()) {
+      writer.name(entry.getKey()).value(entry.getValue());
+    }
+    writer.endObject();
+  }
+
   /**
    * Gets player UUID from request using multiple authentication methods.
    * Priority:
@@ -171,99 +266,97 @@ public class InternalWebServer {
   private class StatusHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-      try {
-        Future<JsonObject> future = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-          JsonObject json = new JsonObject();
-          json.addProperty("online_players", Bukkit.getOnlinePlayers().size());
-          json.addProperty("max_players", Bukkit.getMaxPlayers());
-          json.addProperty("tps", Bukkit.getTPS()[0]);
-
-          com.google.gson.JsonArray onlinePlayerNames = new com.google.gson.JsonArray();
-          for (Player p : Bukkit.getOnlinePlayers()) {
-            onlinePlayerNames.add(p.getName());
-          }
-          json.add("online_player_names", onlinePlayerNames);
-
-          // Server version information
-          json.addProperty("server_version", Bukkit.getVersion());
-          json.addProperty("bukkit_version", Bukkit.getBukkitVersion());
-          json.addProperty("minecraft_version", Bukkit.getMinecraftVersion());
-
-          // World count
-          json.addProperty("world_count", Bukkit.getWorlds().size());
-
-          // Entity statistics
-          int totalEntities = 0;
-          int playerEntities = 0;
-          int livingEntities = 0;
-          int itemEntities = 0;
-          int otherEntities = 0;
-
-          for (org.bukkit.World world : Bukkit.getWorlds()) {
-            for (org.bukkit.entity.Entity entity : world.getEntities()) {
-              totalEntities++;
-              if (entity instanceof Player) {
-                playerEntities++;
-              } else if (entity instanceof org.bukkit.entity.LivingEntity) {
-                livingEntities++;
-              } else if (entity instanceof org.bukkit.entity.Item) {
-                itemEntities++;
-              } else {
-                otherEntities++;
-              }
-            }
-          }
-
-          json.addProperty("total_entities", totalEntities);
-          json.addProperty("player_entities", playerEntities);
-          json.addProperty("living_entities", livingEntities);
-          json.addProperty("item_entities", itemEntities);
-          json.addProperty("other_entities", otherEntities);
-
-          // Today's online statistics
-          json.addProperty("today_unique_players", plugin.getTodayUniquePlayers());
-          long todayTotalOnlineTime = plugin.getTodayTotalOnlineTime();
-          json.addProperty("today_total_online_time_ms", todayTotalOnlineTime);
-          
-          // Player online times list
-          com.google.gson.JsonArray playerTimesArray = new com.google.gson.JsonArray();
-          Map<String, Long> playerOnlineTimes = plugin.getTodayPlayerOnlineTimes();
-          for (Map.Entry<String, Long> entry : playerOnlineTimes.entrySet()) {
-            JsonObject playerTimeObj = new JsonObject();
-            playerTimeObj.addProperty("player_name", entry.getKey());
-            playerTimeObj.addProperty("online_time_ms", entry.getValue());
-            playerTimesArray.add(playerTimeObj);
-          }
-          json.add("today_player_online_times", playerTimesArray);
-          
-          // Recent player activities
-          com.google.gson.JsonArray activitiesArray = new com.google.gson.JsonArray();
-          for (AuthWithQqPlugin.ActivityEntry activity : plugin.getRecentActivities()) {
-            JsonObject activityObj = new JsonObject();
-            activityObj.addProperty("player_name", activity.playerName);
-            activityObj.addProperty("activity_type", activity.activityType);
-            activityObj.addProperty("timestamp", activity.timestamp);
-            activitiesArray.add(activityObj);
-          }
-          json.add("recent_activities", activitiesArray);
+      sendResponse(exchange, 200, gson.toJson(buildStatusJson()));
+    }
+  }
 
-          return json;
-        });
-        JsonObject json = future.get(); // This blocks until the main thread runs the code
+  /**
+   * Builds the full status object shared by {@code /api/status} and the status event stream.
+   * Served entirely from the published snapshot and in-memory statistics: no main-thread hop
+   * and no database access, so it is safe to call from any thread.
+   */
+  private JsonObject buildStatusJson() {
+    StatusSnapshotService.StatusSnapshot snapshot = plugin.getStatusSnapshotService().getSnapshot();
+    JsonObject json = new JsonObject();
+    json.addProperty("online_players", snapshot.onlinePlayers);
+    json.addProperty("max_players", snapshot.maxPlayers);
+    json.addProperty("tps", snapshot.tps);
+
+    com.google.gson.JsonArray onlinePlayerNames = new com.google.gson.JsonArray();
+    for (String name : snapshot.onlinePlayerNames) {
+      onlinePlayerNames.add(name);
+    }
+    json.add("online_player_names", onlinePlayerNames);
+
+    // Server version information
+    json.addProperty("server_version", snapshot.serverVersion);
+    json.addProperty("bukkit_version", snapshot.bukkitVersion);
+    json.addProperty("minecraft_version", snapshot.minecraftVersion);
+
+    // World count
+    json.addProperty("world_count", snapshot.worldCount);
+
+    // Entity statistics
+    json.addProperty("total_entities", snapshot.totalEntities);
+    json.addProperty("player_entities", snapshot.playerEntities);
+    json.addProperty("living_entities", snapshot.livingEntities);
+    json.addProperty("item_entities", snapshot.itemEntities);
+    json.addProperty("other_entities", snapshot.otherEntities);
+    json.addProperty("snapshot_time", snapshot.createdAt);
+
+    // Today's online statistics
+    json.addProperty("today_unique_players", plugin.getTodayUniquePlayers());
+    long todayTotalOnlineTime = plugin.getTodayTotalOnlineTime();
+    json.addProperty("today_total_online_time_ms", todayTotalOnlineTime);
+    
+    // Player online times list
+    com.google.gson.JsonArray playerTimesArray = new com.google.gson.JsonArray();
+    Map<String, Long> playerOnlineTimes = plugin.getTodayPlayerOnlineTimes();
+    for (Map.Entry<String, Long> entry : playerOnlineTimes.entrySet()) {
+      JsonObject playerTimeObj = new JsonObject();
+      playerTimeObj.addProperty("player_name", entry.getKey());
+      playerTimeObj.addProperty("online_time_ms", entry.getValue());
+      playerTimesArray.add(playerTimeObj);
+    }
+    json.add("today_player_online_times", playerTimesArray);
+    
+    // Recent player activities
+    com.google.gson.JsonArray activitiesArray = new com.google.gson.JsonArray();
+    for (AuthWithQqPlugin.ActivityEntry activity : plugin.getRecentActivities()) {
+      JsonObject activityObj = new JsonObject();
+      activityObj.addProperty("player_name", activity.playerName);
+      activityObj.addProperty("activity_type", activity.activityType);
+      activityObj.addProperty("timestamp", activity.timestamp);
+      activitiesArray.add(activityObj);
+    }
+    json.add("recent_activities", activitiesArray);
 
-        // Server uptime
-        long uptimeMillis = System.currentTimeMillis() - plugin.getServerStartTime();
-        json.addProperty("uptime_millis", uptimeMillis);
+    // Server uptime
+    long uptimeMillis = System.currentTimeMillis() - plugin.getServerStartTime();
+    json.addProperty("uptime_millis", uptimeMillis);
 
-        long freeMemory = Runtime.getRuntime().freeMemory() / 1024 / 1024;
-        long totalMemory = Runtime.getRuntime().totalMemory() / 1024 / 1024;
-        json.addProperty("ram_free", freeMemory);
-        json.addProperty("ram_total", totalMemory);
+    long freeMemory = Runtime.getRuntime().freeMemory() / 1024 / 1024;
+    long totalMemory = Runtime.getRuntime().totalMemory() / 1024 / 1024;
+    json.addProperty("ram_free", freeMemory);
+    json.addProperty("ram_total", totalMemory);
+    return json;
+  }
 
-        sendResponse(exchange, 200, gson.toJson(json));
-      } catch (InterruptedException | ExecutionException e) {
-        plugin.getLogger().log(Level.SEVERE, "Error getting server status", e);
-        sendResponse(exchange, 500, "{\"error\":\"Internal server error\"}");
+  private class StatusStreamHandler implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+      exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream os = exchange.getResponseBody();
+      // Streams run on the hub's own threads, so this handler thread is free again right away
+      if (!statusEventHub.serve(os, exchange::close)) {
+        // Full: tell the dashboard to fall back to polling instead of reconnecting
+        try (os) {
+          os.write("event: busy\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+          // The dashboard was closed already
+        }
       }
     }
   }
@@ -300,6 +393,80 @@ public class InternalWebServer {
     }
   }
 
+  // Answers a whole QQ group sweep in one request instead of one /api/check call per member.
+  private class BatchCheckHandler implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      if (!authenticateWithResponse(exchange)) {
+        return;
+      }
+      if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+        sendResponse(exchange, 405, "Method not allowed");
+        return;
+      }
+
+      List<Long> qqs = new ArrayList<>();
+      try (BufferedReader reader = new BufferedReader(
+          new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+        JsonObject body = gson.fromJson(reader, JsonObject.class);
+        JsonArray list = body != null && body.has("qq") && body.get("qq").isJsonArray()
+            ? body.getAsJsonArray("qq") : null;
+        if (list == null) {
+          sendResponse(exchange, 400, "Missing qq array");
+          return;
+        }
+        if (list.size() > MAX_BATCH_CHECK) {
+          sendResponse(exchange, 413, "Too many qq numbers, at most " + MAX_BATCH_CHECK + " per request");
+          return;
+        }
+        for (JsonElement element : list) {
+          qqs.add(element.getAsLong()); // Numbers and numeric strings are both accepted
+        }
+      } catch (JsonParseException | IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+        sendResponse(exchange, 400, "Invalid qq parameter");
+        return;
+      }
+
+      Map<Long, List<UUID>> accounts;
+      Map<UUID, String> names;
+      try {
+        accounts = plugin.getDatabaseManager().findAccountsByQq(qqs);
+        List<UUID> firstAccounts = new ArrayList<>();
+        for (List<UUID> uuids : accounts.values()) {
+          if (!uuids.isEmpty()) {
+            firstAccounts.add(uuids.get(0));
+          }
+        }
+        names = plugin.getDatabaseManager().getNamesByUuid(firstAccounts);
+      } catch (SQLException e) {
+        plugin.getLogger().log(Level.SEVERE, "Error during batch check", e);
+        sendResponse(exchange, 500, "{\"error\":\"Internal server error\"}");
+        return;
+      }
+
+      // Same fields as /api/check, one entry per distinct QQ number in request order
+      sendJsonStream(exchange, 200, writer -> {
+        writer.beginObject();
+        writer.name("results").beginArray();
+        for (Map.Entry<Long, List<UUID>> entry : accounts.entrySet()) {
+          writer.beginObject();
+          writer.name("qq").value(entry.getKey());
+          if (entry.getValue().isEmpty()) {
+            writer.name("bound").value(false);
+          } else {
+            UUID uuid = entry.getValue().get(0);
+            writer.name("bound").value(true);
+            writer.name("uuid").value(uuid.toString());
+            writer.name("name").value(names.get(uuid));
+          }
+          writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+      });
+    }
+  }
+
   private class BindHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
@@ -323,35 +490,38 @@ public class InternalWebServer {
           return;
         }
 
-        // Validate the numeric verification code using the centralized manager
-        if (!plugin.isValidCode(numericVerificationCode, uuid)) {
+        // Consume the code up front, so a second request with the same code fails here
+        VerificationCodeStore.Entry consumedCode = plugin.consumeCode(numericVerificationCode, uuid);
+        if (consumedCode == null) {
           sendResponse(exchange, 400, "{\"success\":false, \"error\":\"验证码无效或已过期\"}");
           return;
         }
 
-        // --- NEW: Multi-Account Binding Check ---
-        int maxAccountsPerQq = plugin.getConfig().getInt("binding.max-accounts-per-qq", 1);
-        long existingQqForUuid = plugin.getDatabaseManager().getQq(uuid);
-
-        if (existingQqForUuid == 0 || existingQqForUuid != qq) { // If not bound or changing QQ
-            int currentAccountCount = plugin.getDatabaseManager().getAccountCountByQq(qq);
-            if (currentAccountCount >= maxAccountsPerQq) {
-                sendResponse(exchange, 400, "{\"success\":false, \"error\":\"此QQ号码已达到绑定上限\"}");
-                return;
-            }
+        // The per-QQ account limit is checked inside the write that binds
+        int maxAccountsPerQq = plugin.getSettings().getMaxAccountsPerQq();
+        boolean bound;
+        try {
+          bound = plugin.getDatabaseManager().updateBindingWithinLimit(uuid, qq, maxAccountsPerQq).join();
+        } catch (RuntimeException e) {
+          plugin.restoreCode(consumedCode);
+          throw e;
+        }
+        if (!bound) {
+          plugin.restoreCode(consumedCode); // The player may still bind another QQ number
+          sendResponse(exchange, 400, "{\"success\":false, \"error\":\"此QQ号码已达到绑定上限\"}");
+          return;
         }
-        // --- END NEW LOGIC ---
 
-        plugin.getDatabaseManager().updateBinding(uuid, qq);
-        plugin.invalidateCode(uuid); // Invalidate code after successful bind
-        
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
         if (body.has("meta") && body.get("meta").isJsonObject()) {
           JsonObject meta = body.getAsJsonObject("meta");
           for (Map.Entry<String, com.google.gson.JsonElement> entry : meta.entrySet()) {
-            plugin.getDatabaseManager().setMeta(uuid, entry.getKey(),
-                entry.getValue().getAsString());
+            writes.add(plugin.getDatabaseManager().setMeta(uuid, entry.getKey(),
+                entry.getValue().getAsString()));
           }
         }
+        // Only report success once the metadata has been committed too
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
 
         // Notify plugin about binding status change
         Bukkit.getScheduler().runTask(plugin, () -> plugin.handleBindingChange(uuid, qq));
@@ -453,6 +623,41 @@ public class InternalWebServer {
     }
   }
 
+  private class MetricsHandler implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      if (!authenticateWithResponse(exchange)) {
+        return;
+      }
+
+      JsonObject json = new JsonObject();
+      json.add("database_pool", toJsonObject(plugin.getDatabaseManager().getPoolStats()));
+      json.add("database_checkpoint", toJsonObject(plugin.getDatabaseManager().getCheckpointStats()));
+      json.add("database_writes", toJsonObject(plugin.getDatabaseManager().getWriteQueueStats()));
+      json.add("join_pipeline", toJsonObject(plugin.getDatabaseManager().getJoinPipelineStats()));
+      json.add("binding_cache", toJsonObject(plugin.getDatabaseManager().getBindingCacheStats()));
+      json.add("qq_filter", toJsonObject(plugin.getDatabaseManager().getQqFilterStats()));
+      json.add("web_requests", toJsonObject(limiter.getStats()));
+      json.add("status_snapshot", toJsonObject(plugin.getStatusSnapshotService().getStats()));
+      json.add("status_stream", toJsonObject(statusEventHub.getStats()));
+      json.add("static_assets", toJsonObject(staticAssets.getStats()));
+      json.add("verification_codes", toJsonObject(plugin.getVerificationCodeStats()));
+      json.add("guest_prompts", toJsonObject(plugin.getGuestPromptStats()));
+      json.add("login_preload", toJsonObject(plugin.getLoginPreloadStats()));
+      json.add("messages", toJsonObject(plugin.getMessageManager().getStats()));
+      json.add("expiry", toJsonObject(plugin.getExpiryStats()));
+      json.add("web_sessions", toJsonObject(plugin.getWebSessionStats()));
+      json.add("password_hashing", toJsonObject(plugin.getPasswordStats()));
+      sendResponse(exchange, 200, gson.toJson(json));
+    }
+
+    private JsonObject toJsonObject(Map<String, ? extends Number> stats) {
+      JsonObject section = new JsonObject();
+      stats.forEach(section::addProperty);
+      return section;
+    }
+  }
+
   private class RedirectHandler implements HttpHandler {
     private final String targetPath;
 
@@ -491,25 +696,8 @@ public class InternalWebServer {
       Map<String, String> query = AuthWithQqPlugin.parseQuery(exchange.getRequestURI().getQuery());
       String type = query != null ? query.get("type") : null; // "player" or "bot"
       
-      List<Map<?, ?>> customFields = new java.util.ArrayList<>();
-      
-      // Check if new format (classified) exists
-      if (plugin.getConfig().isConfigurationSection("binding.custom-fields.player") ||
-          plugin.getConfig().isConfigurationSection("binding.custom-fields.bot")) {
-        // New format: classified fields
-        if ("player".equals(type)) {
-          customFields = plugin.getConfig().getMapList("binding.custom-fields.player");
-        } else if ("bot".equals(type)) {
-          customFields = plugin.getConfig().getMapList("binding.custom-fields.bot");
-        } else {
-          // No type specified or type is invalid, return empty array
-          // Frontend should specify type explicitly
-          customFields = new java.util.ArrayList<>();
-        }
-      } else {
-        // Old format: flat list (backward compatibility)
-        customFields = plugin.getConfig().getMapList("binding.custom-fields");
-      }
+      // Classified fields need an explicit type; the old flat list applies to every type
+      List<Map<?, ?>> customFields = plugin.getSettings().getCustomFields(type);
       
       com.google.gson.JsonArray jsonArray = new com.google.gson.JsonArray();
       for (Map<?, ?> field : customFields) {
@@ -536,14 +724,32 @@ public class InternalWebServer {
         return;
       }
 
-      List<Map<String, String>> allPlayersData = plugin.getDatabaseManager().getAllPlayersData();
-      com.google.gson.JsonArray jsonArray = new com.google.gson.JsonArray();
-      for (Map<String, String> playerData : allPlayersData) {
-        JsonObject playerObject = new JsonObject();
-        playerData.forEach(playerObject::addProperty);
-        jsonArray.add(playerObject);
+      PlayerQuery playerQuery;
+      try {
+        playerQuery = PlayerQuery.fromParams(AuthWithQqPlugin.parseQuery(exchange.getRequestURI().getQuery()));
+      } catch (IllegalArgumentException e) {
+        sendResponse(exchange, 400, "{\"error\":\"Invalid query parameters\"}");
+        return;
+      }
+
+      try {
+        sendJsonStream(exchange, 200, writer -> {
+          writer.beginObject();
+          writer.name("players").beginArray();
+          PlayerPage page = plugin.getDatabaseManager().getPlayersPage(playerQuery, row -> writeRow(writer, row));
+          writer.endArray();
+          // Paging fields come after the rows, as they are only known once the page has been read
+          writer.name("next_cursor").value(page.getNextCursor());
+          if (page.getTotal() >= 0) {
+            writer.name("total").value(page.getTotal());
+          }
+          writer.endObject();
+        });
+      } catch (IOException e) {
+        // Rethrown so the server drops the connection instead of ending a partial page
+        plugin.getLogger().log(Level.WARNING, "Error streaming players page", e);
+        throw e;
       }
-      sendResponse(exchange, 200, jsonArray.toString());
     }
   }
 
@@ -574,7 +780,7 @@ public class InternalWebServer {
         // Database modification (set QQ to 0)
         plugin.getDatabaseManager().updateBinding(uuid, 0L);
         // Delete all bots owned by this player
-        plugin.getDatabaseManager().deletePlayer(uuid);
+        plugin.getDatabaseManager().deletePlayer(uuid).join();
 
 
         // In-game synchronization
@@ -646,19 +852,12 @@ public class InternalWebServer {
           return;
         }
 
-        // Check bot limit
-        int maxBotsPerPlayer = plugin.getConfig().getInt("binding.max-bots-per-player", 0);
-        int currentBotCount = plugin.getDatabaseManager().getBotCountForOwner(ownerUuid);
+        int maxBotsPerPlayer = plugin.getSettings().getMaxBotsPerPlayer();
         if (maxBotsPerPlayer == 0) {
           // 0 means bot adding is disabled
           sendResponse(exchange, 400, "{\"success\":false, \"error\":\"假人添加功能已禁用\"}");
           return;
-        } else if (maxBotsPerPlayer > 0 && currentBotCount >= maxBotsPerPlayer) {
-          // Positive number means limit check
-          sendResponse(exchange, 400, "{\"success\":false, \"error\":\"达到假人绑定上限\"}");
-          return;
         }
-        // Negative number means unlimited, allow adding
 
         // Generate a UUID for the bot (deterministic based on name for consistency)
         UUID botUuid = UUID.nameUUIDFromBytes(("Bot-" + botName).getBytes(StandardCharsets.UTF_8));
@@ -667,8 +866,14 @@ public class InternalWebServer {
         // (This check is not explicitly requested but is good practice to prevent bot name conflicts)
         // ... potentially add logic here to check if botUuid is already owned by someone else
 
-        plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName);
-        
+        // Positive limits are checked inside the write, negative ones mean unlimited
+        int otherBots = plugin.getDatabaseManager()
+            .markPlayerAsBotWithinLimit(botUuid, ownerUuid, botName, maxBotsPerPlayer).join();
+        if (maxBotsPerPlayer > 0 && otherBots >= maxBotsPerPlayer) {
+          sendResponse(exchange, 400, "{\"success\":false, \"error\":\"达到假人绑定上限\"}");
+          return;
+        }
+
         sendResponse(exchange, 200, "{\"success\":true, \"message\":\"Bot " + botName + " bound to owner " + ownerUuid + "\"}");
       } catch (Exception e) {
         plugin.getLogger().log(Level.SEVERE, "Error during bot bind operation", e);
@@ -678,51 +883,74 @@ public class InternalWebServer {
   }
 
   private class StaticFileHandler implements HttpHandler {
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
       String path = exchange.getRequestURI().getPath();
-      // Remove the /web prefix and ensure it's a relative path within 'web' folder
+      // Remove the /web prefix; lookups go to the preloaded cache, so no path can escape it
       if (path.startsWith("/web")) {
         path = path.substring("/web".length());
       }
-      // Sanitize path to prevent directory traversal
-      path = path.replace("..", "").replace("//", "/");
+      if (path.startsWith("/")) {
+        path = path.substring(1);
+      }
+      if (path.isEmpty() || path.endsWith("/")) { // Default to index.html for directories
+        path += "index.html";
+      }
 
-      // Construct the resource path within the JAR (e.g., "web/auth.html")
-      String resourcePath = "web" + path;
-      if (resourcePath.endsWith("/")) { // Default to index.html for directories
-        resourcePath += "index.html";
+      StaticAssetCache.Asset asset = staticAssets.get(path);
+      if (asset == null) {
+        sendResponse(exchange, 404, "404 Not Found");
+        return;
       }
 
-      try (java.io.InputStream is = plugin.getResource(resourcePath)) {
-        if (is == null) {
-          plugin.getLogger().warning("Resource not found: " + resourcePath);
-          sendResponse(exchange, 404, "404 Not Found");
-          return;
-        }
+      String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      boolean gzipped = asset.hasGzip() && acceptEncoding != null && acceptEncoding.contains("gzip");
+      String etag = asset.getEtag(gzipped);
+      // A URL carrying the current content hash can never change, anything else is revalidated
+      String query = exchange.getRequestURI().getQuery();
+      boolean versioned = query != null && asset.getVersion().equals(AuthWithQqPlugin.parseQuery(query).get("v"));
+
+      exchange.getResponseHeaders().set("ETag", etag);
+      exchange.getResponseHeaders().set("Cache-Control", versioned ? IMMUTABLE : "no-cache");
+      exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+      if (matchesEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+        staticAssets.recordNotModified();
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
 
-        // Determine Content-Type based on file extension
-        String contentType = "text/plain";
-        if (resourcePath.endsWith(".html")) {
-          contentType = "text/html";
-        } else if (resourcePath.endsWith(".css")) {
-          contentType = "text/css";
-        } else if (resourcePath.endsWith(".js")) {
-          contentType = "application/javascript";
-        } else if (resourcePath.endsWith(".json")) {
-          contentType = "application/json";
-        }
+      byte[] body = asset.getBody(gzipped);
+      exchange.getResponseHeaders().set("Content-Type", asset.getContentType());
+      if (gzipped) {
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      }
+      if ("HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+      staticAssets.recordServed(gzipped, body.length);
+    }
 
-        byte[] responseBytes = is.readAllBytes();
-        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
-        exchange.sendResponseHeaders(200, responseBytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-          os.write(responseBytes);
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String candidate : ifNoneMatch.split(",")) {
+        String trimmed = candidate.trim();
+        if (trimmed.equals("*") || trimmed.equals(etag)) {
+          return true;
         }
-      } catch (Exception e) {
-        plugin.getLogger().log(Level.SEVERE, "Error serving static file: " + resourcePath, e);
-        sendResponse(exchange, 500, "500 Internal Server Error");
       }
+      return false;
     }
   }
 
@@ -774,7 +1002,7 @@ public class InternalWebServer {
         }
 
         // Update binding
-        plugin.getDatabaseManager().updateBinding(playerUuid, qq);
+        plugin.getDatabaseManager().updateBinding(playerUuid, qq).join();
         
         // Notify plugin about binding status change (e.g., clear guest status if online)
         Bukkit.getScheduler().runTask(plugin, () -> plugin.handleBindingChange(playerUuid, qq));
@@ -935,7 +1163,8 @@ public class InternalWebServer {
         long newQq = body.has("qq") ? body.get("qq").getAsLong() : 0;
         JsonObject meta = body.has("meta") ? body.getAsJsonObject("meta") : new JsonObject();
 
-        Future<Boolean> future = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
+        Future<CompletableFuture<Void>> future = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
+          List<CompletableFuture<Void>> writes = new ArrayList<>();
           // Check if this is a bot
           boolean isBot = plugin.getDatabaseManager().isBot(finalUuid);
           
@@ -954,7 +1183,7 @@ public class InternalWebServer {
               // Get bot name to update
               String botName = plugin.getDatabaseManager().getNameByUuid(finalUuid);
               if (botName != null) {
-                plugin.getDatabaseManager().markPlayerAsBot(finalUuid, ownerUuid, botName);
+                writes.add(plugin.getDatabaseManager().markPlayerAsBot(finalUuid, ownerUuid, botName));
               }
             }
             
@@ -963,7 +1192,7 @@ public class InternalWebServer {
               String botName = meta.get("bot.bot_name").getAsString();
               UUID ownerUuid = plugin.getDatabaseManager().getBotOwner(finalUuid);
               if (botName != null && !botName.isEmpty()) {
-                plugin.getDatabaseManager().markPlayerAsBot(finalUuid, ownerUuid, botName);
+                writes.add(plugin.getDatabaseManager().markPlayerAsBot(finalUuid, ownerUuid, botName));
               }
             }
             
@@ -972,7 +1201,7 @@ public class InternalWebServer {
           } else {
             // For real players, update QQ binding
             if (newQq != 0) {
-              plugin.getDatabaseManager().updateBinding(finalUuid, newQq);
+              writes.add(plugin.getDatabaseManager().updateBinding(finalUuid, newQq));
               plugin.handleBindingChange(finalUuid, newQq); // Update guest status if online
             }
           }
@@ -986,14 +1215,14 @@ public class InternalWebServer {
             }
             // Remove meta field if value is null or empty string
             if (entry.getValue().isJsonNull() || (entry.getValue().isJsonPrimitive() && entry.getValue().getAsString().isEmpty())) {
-                plugin.getDatabaseManager().deleteMeta(finalUuid, key);
+                writes.add(plugin.getDatabaseManager().deleteMeta(finalUuid, key));
             } else {
-                plugin.getDatabaseManager().setMeta(finalUuid, key, entry.getValue().getAsString());
+                writes.add(plugin.getDatabaseManager().setMeta(finalUuid, key, entry.getValue().getAsString()));
             }
           }
-          return true;
+          return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
         });
-        future.get(); // Wait for completion
+        future.get().join(); // Wait for the main-thread task, then for the writes to be committed
 
         sendResponse(exchange, 200, "{\"success\":true, \"message\":\"Profile updated successfully\"}");
       } catch (Exception e) {
@@ -1036,7 +1265,7 @@ public class InternalWebServer {
         }
 
         // Delete the bot
-        plugin.getDatabaseManager().deleteBot(botUuid);
+        plugin.getDatabaseManager().deleteBot(botUuid).join();
         
         sendResponse(exchange, 200, "{\"success\":true, \"message\":\"Bot " + botIdentifier + " unbound successfully\"}");
             } catch (Exception e) {
@@ -1076,11 +1305,13 @@ public class InternalWebServer {
                       return;
                   }
       
-                  // Step 2: Assemble Data
-                  JsonObject responseData = assembleData(ownerUuid, target);
-      
-                  sendResponse(exchange, 200, gson.toJson(responseData));
+                  // Step 2: Stream the requested data straight to the client
+                  sendJsonStream(exchange, 200, writer -> writeData(writer, ownerUuid, target));
       
+              } catch (IOException e) {
+                  // Headers are already sent; rethrown so the server drops the connection
+                  plugin.getLogger().log(Level.WARNING, "Error streaming query result", e);
+                  throw e;
               } catch (Exception e) {
                   plugin.getLogger().log(Level.SEVERE, "Error during query operation", e);
                   sendResponse(exchange, 500, "{\"success\":false, \"error\":\"Internal server error: " + e.getMessage() + "\"}");
@@ -1119,52 +1350,38 @@ public class InternalWebServer {
               }
           }
       
-          private JsonObject assembleData(UUID ownerUuid, String target) throws ExecutionException, InterruptedException {
-              JsonObject result = new JsonObject();
+          private void writeData(JsonWriter writer, UUID ownerUuid, String target) throws IOException {
               boolean fetchAll = "all".equals(target);
+              writer.beginObject();
       
               // Player Data
               if (fetchAll || "player".equals(target)) {
-                Future<JsonObject> playerFuture = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    JsonObject playerData = new JsonObject();
-                    String name = plugin.getDatabaseManager().getNameByUuid(ownerUuid);
-                    long qq = plugin.getDatabaseManager().getQq(ownerUuid);
-                    playerData.addProperty("uuid", ownerUuid.toString());
-                    playerData.addProperty("name", name);
-                    playerData.addProperty("qq", qq);
-                    return playerData;
-                });
-                result.add("player", playerFuture.get());
+                writer.name("player").beginObject();
+                writer.name("uuid").value(ownerUuid.toString());
+                writer.name("name").value(plugin.getDatabaseManager().getNameByUuid(ownerUuid));
+                writer.name("qq").value(plugin.getDatabaseManager().getQq(ownerUuid));
+                writer.endObject();
               }
       
               // Bots Data
               if (fetchAll || "bots".equals(target)) {
-                Future<JsonArray> botsFuture = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    JsonArray botsArray = new JsonArray();
-                    List<Map<String, String>> bots = plugin.getDatabaseManager().getBotsByOwner(ownerUuid);
-                    for (Map<String, String> bot : bots) {
-                        JsonObject botObj = new JsonObject();
-                        botObj.addProperty("bot_uuid", bot.get("bot_uuid"));
-                        botObj.addProperty("bot_name", bot.get("bot_name"));
-                        botObj.addProperty("created_at", bot.get("created_at"));
-                        botsArray.add(botObj);
-                    }
-                    return botsArray;
-                });
-                result.add("bots", botsFuture.get());
+                writer.name("bots").beginArray();
+                for (Map<String, String> bot : plugin.getDatabaseManager().getBotsByOwner(ownerUuid)) {
+                    writer.beginObject();
+                    writer.name("bot_uuid").value(bot.get("bot_uuid"));
+                    writer.name("bot_name").value(bot.get("bot_name"));
+                    writer.name("created_at").value(bot.get("created_at"));
+                    writer.endObject();
+                }
+                writer.endArray();
               }
       
               // Meta Data
               if (fetchAll || "meta".equals(target)) {
-                Future<JsonObject> metaFuture = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    JsonObject metaJson = new JsonObject();
-                    Map<String, String> meta = plugin.getDatabaseManager().getAllMeta(ownerUuid);
-                    meta.forEach(metaJson::addProperty);
-                    return metaJson;
-                });
-                result.add("meta", metaFuture.get());
+                writer.name("meta");
+                writeRow(writer, plugin.getDatabaseManager().getAllMeta(ownerUuid));
               }
-              return result;
+              writer.endObject();
           }
       }
 
@@ -1178,7 +1395,7 @@ public class InternalWebServer {
             }
 
             List<Map<String, String>> bots = plugin.getDatabaseManager().getBotsByOwner(ownerUuid);
-            int maxBots = plugin.getConfig().getInt("binding.max-bots-per-player", 0);
+            int maxBots = plugin.getSettings().getMaxBotsPerPlayer();
             
             JsonObject response = new JsonObject();
             com.google.gson.JsonArray botsArray = new com.google.gson.JsonArray();
@@ -1223,37 +1440,37 @@ public class InternalWebServer {
                     return;
                 }
 
-                int maxBots = plugin.getConfig().getInt("binding.max-bots-per-player", 0);
-                int currentBotCount = plugin.getDatabaseManager().getBotCountForOwner(ownerUuid);
+                int maxBots = plugin.getSettings().getMaxBotsPerPlayer();
                 if (maxBots == 0) {
                     // 0 means bot adding is disabled
                     JsonObject errorResponse = new JsonObject();
                     errorResponse.addProperty("success", false);
                     errorResponse.addProperty("error", "Bot adding is disabled");
-                    errorResponse.addProperty("current_count", currentBotCount);
+                    errorResponse.addProperty("current_count", plugin.getDatabaseManager().getBotCountForOwner(ownerUuid));
                     errorResponse.addProperty("max_limit", 0);
                     sendResponse(exchange, 400, gson.toJson(errorResponse));
                     return;
-                } else if (maxBots > 0 && currentBotCount >= maxBots) {
-                    // Positive number means limit check
+                }
+
+                UUID botUuid = UUID.nameUUIDFromBytes(("Bot-" + botName).getBytes(StandardCharsets.UTF_8));
+
+                // Positive limits are checked inside the write, negative ones mean unlimited
+                int otherBots = plugin.getDatabaseManager()
+                        .markPlayerAsBotWithinLimit(botUuid, ownerUuid, botName, maxBots).join();
+                if (maxBots > 0 && otherBots >= maxBots) {
                     JsonObject errorResponse = new JsonObject();
                     errorResponse.addProperty("success", false);
                     errorResponse.addProperty("error", "Bot limit reached");
-                    errorResponse.addProperty("current_count", currentBotCount);
+                    errorResponse.addProperty("current_count", otherBots);
                     errorResponse.addProperty("max_limit", maxBots);
                     sendResponse(exchange, 400, gson.toJson(errorResponse));
                     return;
                 }
-                // Negative number means unlimited, allow adding
-
-                UUID botUuid = UUID.nameUUIDFromBytes(("Bot-" + botName).getBytes(StandardCharsets.UTF_8));
-                
-                plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName);
 
                 JsonObject successResponse = new JsonObject();
                 successResponse.addProperty("success", true);
                 successResponse.addProperty("message", "Bot bound successfully");
-                successResponse.addProperty("current_count", currentBotCount + 1);
+                successResponse.addProperty("current_count", otherBots + 1);
                 successResponse.addProperty("max_limit", maxBots);
                 sendResponse(exchange, 200, gson.toJson(successResponse));
 
@@ -1295,7 +1512,7 @@ public class InternalWebServer {
                     return;
                 }
 
-                plugin.getDatabaseManager().deleteBot(botUuid);
+                plugin.getDatabaseManager().deleteBot(botUuid).join();
                 sendResponse(exchange, 200, "{\"success\":true, \"message\":\"Bot unbound successfully\"}");
 
             } catch (Exception e) {
@@ -1314,17 +1531,15 @@ public class InternalWebServer {
             }
 
             try {
-                List<Map<String, String>> allBotsData = plugin.getDatabaseManager().getAllBotsData();
-                com.google.gson.JsonArray jsonArray = new com.google.gson.JsonArray();
-                for (Map<String, String> botData : allBotsData) {
-                    JsonObject botObject = new JsonObject();
-                    botData.forEach(botObject::addProperty);
-                    jsonArray.add(botObject);
-                }
-                sendResponse(exchange, 200, jsonArray.toString());
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Error getting all bots", e);
-                sendResponse(exchange, 500, "{\"error\":\"Internal server error\"}");
+                sendJsonStream(exchange, 200, writer -> {
+                    writer.beginArray();
+                    plugin.getDatabaseManager().forEachBot(row -> writeRow(writer, row));
+                    writer.endArray();
+                });
+            } catch (IOException e) {
+                // Headers are already sent; rethrown so the server drops the connection
+                plugin.getLogger().log(Level.WARNING, "Error streaming all bots", e);
+                throw e;
             }
         }
     }
@@ -1555,6 +1770,7 @@ public class InternalWebServer {
                             return;
                         }
                         
+                        List<CompletableFuture<Void>> writes = new ArrayList<>();
                         String line;
                         while ((line = reader.readLine()) != null) {
                             if (line.trim().isEmpty()) continue;
@@ -1612,9 +1828,10 @@ public class InternalWebServer {
                             }
                             
                             // Import bot
-                            plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName);
+                            writes.add(plugin.getDatabaseManager().markPlayerAsBot(botUuid, ownerUuid, botName));
                             importedCount++;
                         }
+                        CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
                     }
                 } else {
                     // Import players data using existing CsvManager
@@ -1760,15 +1977,30 @@ public class InternalWebServer {
                     return;
                 }
 
-                // Verify password
-                if (!plugin.verifyPassword(password, passwordHash)) {
+                // Verify password on the bounded BCrypt pool; a saturated pool means back off, not queue more
+                boolean passwordMatches;
+                try {
+                    passwordMatches = plugin.verifyPassword(password, passwordHash).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RejectedExecutionException) {
+                        exchange.getResponseHeaders().set("Retry-After", "1");
+                        sendResponse(exchange, 429, "{\"success\":false, \"error\":\"Too many login attempts, please try again later\"}");
+                        return;
+                    }
+                    throw e;
+                }
+                if (!passwordMatches) {
                     sendResponse(exchange, 401, "{\"success\":false, \"error\":\"Invalid password\"}");
                     return;
                 }
 
+                // Upgrade a hash made with an outdated cost in the background
+                plugin.upgradePasswordHash(uuid, password, passwordHash);
+
                 // Create session
                 String sessionToken = plugin.createWebLoginSession(uuid);
-                long expiresAt = plugin.getWebLoginSession(sessionToken).expiresAt;
+                WebSessionStore.Session session = plugin.getWebLoginSession(sessionToken);
+                long expiresAt = session != null ? session.expiresAt : 0L;
 
                 JsonObject response = new JsonObject();
                 response.addProperty("success", true);
@@ -1818,7 +2050,7 @@ public class InternalWebServer {
                 return;
             }
 
-            AuthWithQqPlugin.WebLoginSessionEntry session = plugin.getWebLoginSession(sessionToken);
+            WebSessionStore.Session session = plugin.getWebLoginSession(sessionToken);
             if (session == null) {
                 JsonObject response = new JsonObject();
                 response.addProperty("valid", false);
@@ -0,0 +1,124 @@
+package com.cccece.authwithqq.web;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests are handled at once, both overall and per endpoint.
+ * Requests over a cap are turned away immediately with 503 instead of queueing, so a
+ * burst of slow requests on one endpoint (CSV export, password checks) cannot starve
+ * the others of handler threads.
+ */
+public class RequestLimiter {
+  private static final byte[] BUSY_RESPONSE =
+      "{\"success\":false, \"error\":\"Server busy, please retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final Semaphore global;
+  private final Map<String, Integer> endpointLimits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder handled = new LongAdder();
+  private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a limiter from the executor options.
+   *
+   * @param options The options providing the global and per-endpoint limits.
+   */
+  public RequestLimiter(WebServerOptions options) {
+    this.global = options.getMaxInFlight() > 0 ? new Semaphore(options.getMaxInFlight()) : null;
+    this.endpointLimits = options.getEndpointLimits();
+  }
+
+  /**
+   * Creates the filter enforcing the limits for one HTTP context.
+   *
+   * @param path The context path the filter is attached to.
+   * @return The filter.
+   */
+  public Filter forContext(String path) {
+    Integer limit = endpointLimits.get(path);
+    return new LimitFilter(path, limit != null ? new Semaphore(limit) : null);
+  }
+
+  /**
+   * Returns a snapshot of the request metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("in_flight", inFlight.get());
+    stats.put("in_flight_peak", peakInFlight.get());
+    stats.put("handled", handled.sum());
+    long totalRejected = 0;
+    for (Map.Entry<String, LongAdder> entry : rejected.entrySet()) {
+      long count = entry.getValue().sum();
+      totalRejected += count;
+      stats.put("rejected:" + entry.getKey(), count);
+    }
+    stats.put("rejected", totalRejected);
+    return stats;
+  }
+
+  private final class LimitFilter extends Filter {
+    private final String path;
+    private final Semaphore endpoint;
+
+    LimitFilter(String path, Semaphore endpoint) {
+      this.path = path;
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+      if (global != null && !global.tryAcquire()) {
+        reject(exchange);
+        return;
+      }
+      try {
+        if (endpoint != null && !endpoint.tryAcquire()) {
+          reject(exchange);
+          return;
+        }
+        try {
+          peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          chain.doFilter(exchange);
+        } finally {
+          inFlight.decrementAndGet();
+          handled.increment();
+          if (endpoint != null) {
+            endpoint.release();
+          }
+        }
+      } finally {
+        if (global != null) {
+          global.release();
+        }
+      }
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+      rejected.computeIfAbsent(path, key -> new LongAdder()).increment();
+      exchange.getResponseHeaders().set("Retry-After", "1");
+      exchange.sendResponseHeaders(503, BUSY_RESPONSE.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(BUSY_RESPONSE);
+      }
+    }
+
+    @Override
+    public String description() {
+      return "Concurrency limit for " + path;
+    }
+  }
+}
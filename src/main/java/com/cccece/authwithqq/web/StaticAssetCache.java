@@ -0,0 +1,251 @@
+package com.cccece.authwithqq.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory copy of the bundled {@code web/} resources.
+ *
+ * <p>Every asset is read from the plugin jar once, hashed for a strong ETag and, if it
+ * compresses well, stored a second time gzip-compressed. HTML pages are rewritten so that
+ * their local stylesheet and script references carry a {@code ?v=<hash>} suffix; such
+ * versioned URLs never change content and can be cached by browsers for a year, while the
+ * pages themselves are revalidated with {@code If-None-Match} on every view.
+ */
+public final class StaticAssetCache {
+  private static final String PREFIX = "web/";
+  private static final int MIN_COMPRESS_SIZE = 256;
+  private static final Map<String, String> CONTENT_TYPES = Map.of(
+      "html", "text/html; charset=utf-8",
+      "css", "text/css; charset=utf-8",
+      "js", "application/javascript; charset=utf-8",
+      "json", "application/json; charset=utf-8",
+      "svg", "image/svg+xml",
+      "png", "image/png",
+      "ico", "image/x-icon");
+  private static final Pattern LOCAL_REFERENCE =
+      Pattern.compile("((?:href|src)=\")([A-Za-z0-9_.-]+\\.(?:css|js))(\")");
+
+  /**
+   * A single cached resource with its precomputed representations.
+   */
+  public static final class Asset {
+    private final String contentType;
+    private final String version;
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    Asset(String contentType, String version, byte[] identity, byte[] gzip) {
+      this.contentType = contentType;
+      this.version = version;
+      this.identity = identity;
+      this.gzip = gzip;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    /**
+     * Gets the content hash used both as ETag and as the {@code v} query parameter.
+     *
+     * @return The URL-safe content hash.
+     */
+    public String getVersion() {
+      return version;
+    }
+
+    /**
+     * Gets the strong entity tag for the chosen representation.
+     *
+     * @param gzipped Whether the gzip representation is sent.
+     * @return The quoted ETag value.
+     */
+    public String getEtag(boolean gzipped) {
+      return "\"" + version + (gzipped ? "-gz" : "") + "\"";
+    }
+
+    public boolean hasGzip() {
+      return gzip != null;
+    }
+
+    byte[] getBody(boolean gzipped) {
+      return gzipped ? gzip : identity;
+    }
+  }
+
+  private final Map<String, Asset> assets;
+
+  // --- Metrics ---
+  private final LongAdder served = new LongAdder();
+  private final LongAdder notModified = new LongAdder();
+  private final LongAdder gzipServed = new LongAdder();
+  private final LongAdder bytesSent = new LongAdder();
+
+  private StaticAssetCache(Map<String, Asset> assets) {
+    this.assets = assets;
+  }
+
+  /**
+   * Reads every resource below {@code web/} from the plugin jar (or, when running from an
+   * exploded build, from the resource directory).
+   *
+   * @param source The plugin jar or classes directory.
+   * @param logger The logger for reporting errors.
+   * @return The populated cache; empty if the resources could not be read.
+   */
+  public static StaticAssetCache load(File source, Logger logger) {
+    Map<String, byte[]> raw = new HashMap<>();
+    try {
+      if (source.isDirectory()) {
+        Path root = source.toPath().resolve(PREFIX);
+        try (Stream<Path> files = Files.walk(root)) {
+          for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+            raw.put(root.relativize(file).toString().replace(File.separatorChar, '/'), Files.readAllBytes(file));
+          }
+        }
+      } else {
+        try (JarFile jar = new JarFile(source)) {
+          Enumeration<JarEntry> entries = jar.entries();
+          while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (entry.isDirectory() || !entry.getName().startsWith(PREFIX)) {
+              continue;
+            }
+            try (InputStream is = jar.getInputStream(entry)) {
+              raw.put(entry.getName().substring(PREFIX.length()), is.readAllBytes());
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Could not preload web resources from " + source, e);
+    }
+
+    Map<String, Asset> assets = new HashMap<>();
+    // Stylesheets and scripts first: pages embed their hashes
+    Map<String, String> versions = new HashMap<>();
+    for (Map.Entry<String, byte[]> entry : raw.entrySet()) {
+      if (!entry.getKey().endsWith(".html")) {
+        Asset asset = createAsset(entry.getKey(), entry.getValue());
+        assets.put(entry.getKey(), asset);
+        versions.put(entry.getKey(), asset.getVersion());
+      }
+    }
+    for (Map.Entry<String, byte[]> entry : raw.entrySet()) {
+      if (entry.getKey().endsWith(".html")) {
+        byte[] page = versionReferences(entry.getKey(), entry.getValue(), versions);
+        assets.put(entry.getKey(), createAsset(entry.getKey(), page));
+      }
+    }
+    logger.info("Loaded " + assets.size() + " web resources into memory");
+    return new StaticAssetCache(Map.copyOf(assets));
+  }
+
+  private static byte[] versionReferences(String pagePath, byte[] page, Map<String, String> versions) {
+    int slash = pagePath.lastIndexOf('/');
+    String directory = slash < 0 ? "" : pagePath.substring(0, slash + 1);
+    Matcher matcher = LOCAL_REFERENCE.matcher(new String(page, StandardCharsets.UTF_8));
+    StringBuilder result = new StringBuilder();
+    while (matcher.find()) {
+      String version = versions.get(directory + matcher.group(2));
+      String replacement = version == null ? matcher.group() : matcher.group(1) + matcher.group(2) + "?v=" + version + matcher.group(3);
+      matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+    }
+    matcher.appendTail(result);
+    return result.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Asset createAsset(String path, byte[] content) {
+    String extension = path.substring(path.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    String contentType = CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    byte[] gzip = null;
+    // Images are already compressed; tiny files are not worth the extra header
+    if (content.length >= MIN_COMPRESS_SIZE && !"image/png".equals(contentType)) {
+      byte[] compressed = gzip(content);
+      if (compressed.length < content.length) {
+        gzip = compressed;
+      }
+    }
+    return new Asset(contentType, hash(content), content, gzip);
+  }
+
+  private static byte[] gzip(byte[] content) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content);
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory gzip failed", e);
+    }
+    return out.toByteArray();
+  }
+
+  private static String hash(byte[] content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * Looks up a cached resource.
+   *
+   * @param path The path relative to {@code web/}, e.g. {@code admin.js}.
+   * @return The asset, or null if there is no such resource.
+   */
+  public Asset get(String path) {
+    return assets.get(path);
+  }
+
+  void recordServed(boolean gzipped, long bytes) {
+    served.increment();
+    bytesSent.add(bytes);
+    if (gzipped) {
+      gzipServed.increment();
+    }
+  }
+
+  void recordNotModified() {
+    notModified.increment();
+  }
+
+  /**
+   * Returns a snapshot of the static asset metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("cached_assets", assets.size());
+    stats.put("served", served.sum());
+    stats.put("served_gzip", gzipServed.sum());
+    stats.put("not_modified", notModified.sum());
+    stats.put("bytes_sent", bytesSent.sum());
+    return stats;
+  }
+}
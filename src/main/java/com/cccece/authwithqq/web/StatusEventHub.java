@@ -0,0 +1,209 @@
+package com.cccece.authwithqq.web;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes status changes to connected dashboards as server-sent events.
+ *
+ * <p>A single producer thread builds the status once per interval, no matter how many
+ * dashboards are open, and broadcasts only the top-level fields that changed since the
+ * previous round. Each client has a small bounded queue; a client that falls behind has its
+ * backlog discarded and receives the latest full snapshot instead, so a slow connection never
+ * holds up the producer or grows memory.
+ *
+ * <p>Connections are served on their own virtual threads, so open dashboards never occupy the
+ * web server's handler threads.
+ */
+public class StatusEventHub implements AutoCloseable {
+  private static final int CLIENT_QUEUE_CAPACITY = 8;
+  private static final long HEARTBEAT_MILLIS = 15000L;
+  private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] CLOSE = new byte[0];
+
+  private final Supplier<JsonObject> statusSupplier;
+  private final Logger logger;
+  private final int maxClients;
+  private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService producer;
+  private final ExecutorService streams =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("AuthWithQq-Status-Stream-", 0).factory());
+  private volatile JsonObject lastStatus;
+  private volatile boolean closed = false;
+
+  // --- Metrics ---
+  private final LongAdder broadcasts = new LongAdder();
+  private final LongAdder droppedToSnapshot = new LongAdder();
+  private final LongAdder rejectedClients = new LongAdder();
+
+  /**
+   * Starts the shared producer.
+   *
+   * @param statusSupplier Builds the full status object; must be safe to call from any thread.
+   * @param pushIntervalMillis How often changes are collected and pushed.
+   * @param maxClients The maximum number of simultaneously connected dashboards.
+   * @param logger The logger for reporting errors.
+   */
+  public StatusEventHub(Supplier<JsonObject> statusSupplier, long pushIntervalMillis, int maxClients, Logger logger) {
+    this.statusSupplier = statusSupplier;
+    this.maxClients = maxClients;
+    this.logger = logger;
+    this.producer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "AuthWithQq-Status-Push");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = Math.max(250L, pushIntervalMillis);
+    producer.scheduleWithFixedDelay(this::produce, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  // Synchronized with the registration in serve(), so a new client's snapshot is always the base of the next diff
+  private synchronized void produce() {
+    if (clients.isEmpty()) {
+      return; // Nobody is listening; the next client gets the last state and catches up by diff
+    }
+    try {
+      JsonObject current = statusSupplier.get();
+      JsonObject previous = lastStatus;
+      lastStatus = current;
+      if (previous == null) {
+        return;
+      }
+      // All changes of one round are coalesced into a single event
+      JsonObject diff = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : current.entrySet()) {
+        if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+          diff.add(entry.getKey(), entry.getValue());
+        }
+      }
+      if (diff.size() == 0) {
+        return;
+      }
+      byte[] event = encode("update", diff);
+      byte[] snapshot = null;
+      for (Client client : clients) {
+        if (!client.queue.offer(event)) {
+          // Too slow: replace everything it has not consumed with the latest full state
+          if (snapshot == null) {
+            snapshot = encode("snapshot", current);
+          }
+          client.queue.clear();
+          client.queue.offer(snapshot);
+          droppedToSnapshot.increment();
+        }
+      }
+      broadcasts.increment();
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Could not push status update", e);
+    }
+  }
+
+  /**
+   * Starts streaming events to one client on a thread of its own, until it disconnects or the
+   * hub is closed. Returns immediately.
+   *
+   * @param out The response body of an exchange whose headers have already been sent.
+   * @param onDisconnect Runs once streaming has ended, e.g. to close the exchange.
+   * @return false if the client was turned away because the hub is full or closed.
+   */
+  public boolean serve(OutputStream out, Runnable onDisconnect) {
+    Client client = new Client();
+    synchronized (this) {
+      if (closed || clients.size() >= maxClients) {
+        rejectedClients.increment();
+        return false;
+      }
+      // The snapshot is the base the following diffs are computed against
+      JsonObject status = lastStatus;
+      if (status == null) {
+        status = statusSupplier.get();
+        lastStatus = status;
+      }
+      client.queue.offer(encode("snapshot", status));
+      clients.add(client);
+    }
+    streams.execute(() -> {
+      try {
+        stream(client, out);
+      } finally {
+        clients.remove(client);
+        onDisconnect.run();
+      }
+    });
+    return true;
+  }
+
+  private void stream(Client client, OutputStream out) {
+    try {
+      while (!closed) {
+        byte[] event = client.queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+        if (event == CLOSE) {
+          break;
+        }
+        // Heartbeats let us notice dashboards that went away without closing the connection
+        out.write(event != null ? event : HEARTBEAT);
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The dashboard was closed; nothing to clean up beyond the client bookkeeping
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static byte[] encode(String eventName, JsonObject data) {
+    return ("event: " + eventName + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a snapshot of the push channel metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    stats.put("connected_clients", clients.size());
+    stats.put("broadcasts", broadcasts.sum());
+    stats.put("dropped_to_snapshot", droppedToSnapshot.sum());
+    stats.put("rejected_clients", rejectedClients.sum());
+    return stats;
+  }
+
+  /**
+   * Stops the producer and disconnects every client.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    producer.shutdownNow();
+    for (Client client : clients) {
+      client.queue.clear();
+      client.queue.offer(CLOSE);
+    }
+    streams.shutdown();
+  }
+
+  private static final class Client {
+    final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(CLIENT_QUEUE_CAPACITY);
+  }
+}
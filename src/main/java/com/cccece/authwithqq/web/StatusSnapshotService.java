@@ -0,0 +1,222 @@
+package com.cccece.authwithqq.web;
+
+import com.cccece.authwithqq.AuthWithQqPlugin;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Maintains an immutable snapshot of the server status for {@code /api/status}.
+ *
+ * <p>A main-thread task samples the cheap values (players, TPS, worlds) on every refresh and
+ * counts entities chunk by chunk, stopping each tick once its time budget is spent and
+ * resuming on the next one. When a sweep over all loaded chunks completes, a new snapshot is
+ * published, so HTTP threads can read the status at any time without touching the main thread.
+ */
+public class StatusSnapshotService {
+  /**
+   * A point-in-time view of the server status. Instances are never modified after publishing.
+   */
+  public static final class StatusSnapshot {
+    public final long createdAt;
+    public final int onlinePlayers;
+    public final int maxPlayers;
+    public final double tps;
+    public final List<String> onlinePlayerNames;
+    public final String serverVersion;
+    public final String bukkitVersion;
+    public final String minecraftVersion;
+    public final int worldCount;
+    public final int totalEntities;
+    public final int playerEntities;
+    public final int livingEntities;
+    public final int itemEntities;
+    public final int otherEntities;
+
+    StatusSnapshot(long createdAt, int onlinePlayers, int maxPlayers, double tps, List<String> onlinePlayerNames,
+        String serverVersion, String bukkitVersion, String minecraftVersion, int worldCount, int[] entityCounts) {
+      this.createdAt = createdAt;
+      this.onlinePlayers = onlinePlayers;
+      this.maxPlayers = maxPlayers;
+      this.tps = tps;
+      this.onlinePlayerNames = Collections.unmodifiableList(onlinePlayerNames);
+      this.serverVersion = serverVersion;
+      this.bukkitVersion = bukkitVersion;
+      this.minecraftVersion = minecraftVersion;
+      this.worldCount = worldCount;
+      this.totalEntities = entityCounts[TOTAL];
+      this.playerEntities = entityCounts[PLAYERS];
+      this.livingEntities = entityCounts[LIVING];
+      this.itemEntities = entityCounts[ITEMS];
+      this.otherEntities = entityCounts[OTHER];
+    }
+  }
+
+  private static final int TOTAL = 0;
+  private static final int PLAYERS = 1;
+  private static final int LIVING = 2;
+  private static final int ITEMS = 3;
+  private static final int OTHER = 4;
+
+  private final AuthWithQqPlugin plugin;
+  private final int refreshTicks;
+  private final long tickBudgetNanos;
+  private final AtomicReference<StatusSnapshot> snapshot = new AtomicReference<>();
+  private BukkitTask task;
+
+  // --- Sweep state, only touched on the main thread ---
+  private final Deque<Chunk> pendingChunks = new ArrayDeque<>();
+  private int[] sweepCounts;
+  private int[] lastEntityCounts = new int[5];
+  private int ticksSinceRefresh;
+  private int sweepTicks;
+  private String serverVersion;
+  private String bukkitVersion;
+  private String minecraftVersion;
+
+  // --- Metrics ---
+  private final AtomicLong lastSweepTicks = new AtomicLong();
+  private final AtomicLong lastSweepChunks = new AtomicLong();
+  private final AtomicLong maxTickMicros = new AtomicLong();
+  private long sweepChunks;
+
+  /**
+   * Creates the service.
+   *
+   * @param plugin The plugin instance used for scheduling.
+   * @param refreshTicks How many ticks to wait between the starts of two sweeps.
+   * @param tickBudgetMicros How much main-thread time a single tick may spend counting entities.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Plugin instance is a shared service, not meant for defensive copying.")
+  public StatusSnapshotService(AuthWithQqPlugin plugin, int refreshTicks, long tickBudgetMicros) {
+    this.plugin = plugin;
+    this.refreshTicks = Math.max(1, refreshTicks);
+    this.tickBudgetNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(1, tickBudgetMicros));
+  }
+
+  /**
+   * Publishes an initial snapshot and starts the sampling task. Must be called on the main thread.
+   */
+  public void start() {
+    serverVersion = Bukkit.getVersion();
+    bukkitVersion = Bukkit.getBukkitVersion();
+    minecraftVersion = Bukkit.getMinecraftVersion();
+    snapshot.set(sample());
+    task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+  }
+
+  /**
+   * Stops the sampling task.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  /**
+   * Gets the most recently published snapshot. Safe to call from any thread.
+   *
+   * @return The current snapshot.
+   */
+  public StatusSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  private void tick() {
+    long start = System.nanoTime();
+    ticksSinceRefresh++;
+    if (sweepCounts == null && ticksSinceRefresh >= refreshTicks) {
+      ticksSinceRefresh = 0;
+      sweepTicks = 0;
+      sweepChunks = 0;
+      sweepCounts = new int[5];
+      for (World world : Bukkit.getWorlds()) {
+        Collections.addAll(pendingChunks, world.getLoadedChunks());
+      }
+    }
+    if (sweepCounts == null) {
+      return;
+    }
+
+    sweepTicks++;
+    // Always make progress on at least one chunk, then continue until the budget is spent
+    do {
+      Chunk chunk = pendingChunks.poll();
+      if (chunk == null) {
+        break;
+      }
+      if (chunk.isLoaded()) { // May have been unloaded since the sweep started
+        countEntities(chunk);
+        sweepChunks++;
+      }
+    } while (System.nanoTime() - start < tickBudgetNanos);
+
+    if (pendingChunks.isEmpty()) {
+      lastEntityCounts = sweepCounts;
+      sweepCounts = null;
+      lastSweepTicks.set(sweepTicks);
+      lastSweepChunks.set(sweepChunks);
+      snapshot.set(sample());
+    }
+    maxTickMicros.accumulateAndGet(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), Math::max);
+  }
+
+  private void countEntities(Chunk chunk) {
+    for (Entity entity : chunk.getEntities()) {
+      sweepCounts[TOTAL]++;
+      if (entity instanceof Player) {
+        sweepCounts[PLAYERS]++;
+      } else if (entity instanceof LivingEntity) {
+        sweepCounts[LIVING]++;
+      } else if (entity instanceof Item) {
+        sweepCounts[ITEMS]++;
+      } else {
+        sweepCounts[OTHER]++;
+      }
+    }
+  }
+
+  // Cheap values are read fresh; entity counts come from the last completed sweep.
+  private StatusSnapshot sample() {
+    List<String> names = new ArrayList<>();
+    for (Player player : Bukkit.getOnlinePlayers()) {
+      names.add(player.getName());
+    }
+    return new StatusSnapshot(System.currentTimeMillis(), names.size(), Bukkit.getMaxPlayers(),
+        Bukkit.getTPS()[0], names, serverVersion, bukkitVersion, minecraftVersion,
+        Bukkit.getWorlds().size(), lastEntityCounts);
+  }
+
+  /**
+   * Returns a snapshot of the sampling metrics.
+   *
+   * @return A map of metric names to values.
+   */
+  public Map<String, Number> getStats() {
+    Map<String, Number> stats = new LinkedHashMap<>();
+    StatusSnapshot current = snapshot.get();
+    stats.put("snapshot_age_ms", current == null ? 0 : System.currentTimeMillis() - current.createdAt);
+    stats.put("last_sweep_ticks", lastSweepTicks.get());
+    stats.put("last_sweep_chunks", lastSweepChunks.get());
+    stats.put("max_tick_us", maxTickMicros.get());
+    return stats;
+  }
+}
@@ -0,0 +1,77 @@
+package com.cccece.authwithqq.web;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+
+/**
+ * Immutable request execution settings for the {@link InternalWebServer}.
+ */
+public final class WebServerOptions {
+  private final boolean virtualThreads;
+  private final int platformThreads;
+  private final int maxInFlight;
+  private final Map<String, Integer> endpointLimits;
+
+  private WebServerOptions(ConfigurationSection section) {
+    String type = section.getString("type", "virtual");
+    this.virtualThreads = !"platform".equals(type == null ? null : type.trim().toLowerCase(Locale.ROOT));
+    this.platformThreads = Math.max(1, section.getInt("platform-threads", 16));
+    this.maxInFlight = Math.max(0, section.getInt("max-in-flight", 256));
+    Map<String, Integer> limits = new HashMap<>();
+    ConfigurationSection limitsSection = section.getConfigurationSection("endpoint-limits");
+    if (limitsSection != null) {
+      for (String path : limitsSection.getKeys(false)) {
+        int limit = limitsSection.getInt(path, 0);
+        if (limit > 0) {
+          limits.put(path, limit);
+        }
+      }
+    }
+    this.endpointLimits = Collections.unmodifiableMap(limits);
+  }
+
+  /**
+   * Reads the executor options from the "server.executor" section of config.yml.
+   *
+   * @param section The configuration section, may be null.
+   * @return The parsed options, falling back to defaults for missing or invalid values.
+   */
+  public static WebServerOptions fromConfig(ConfigurationSection section) {
+    return new WebServerOptions(section != null ? section : new MemoryConfiguration());
+  }
+
+  /**
+   * Whether each request runs on its own virtual thread rather than a fixed platform pool.
+   *
+   * @return true for virtual threads.
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public int getPlatformThreads() {
+    return platformThreads;
+  }
+
+  /**
+   * Gets the maximum number of requests handled at once across all endpoints.
+   *
+   * @return The limit, or 0 for no limit.
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Gets the per-endpoint concurrency caps, keyed by context path such as "/api/csv/export".
+   *
+   * @return An unmodifiable map of context paths to limits.
+   */
+  public Map<String, Integer> getEndpointLimits() {
+    return endpointLimits;
+  }
+}
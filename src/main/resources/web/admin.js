@@ -455,7 +455,8 @@ document.addEventListener('DOMContentLoaded', async () => {
     const botsTableBody = document.getElementById('botsTableBody');
     const playersSearch = document.getElementById('playersSearch');
     const botsSearch = document.getElementById('botsSearch');
-    const playersPageSize = document.getElementById('playersPageSize');
+    const playersStatusFilter = document.getElementById('playersStatusFilter');
+    const playersSort = document.getElementById('playersSort');
     const botsPageSize = document.getElementById('botsPageSize');
     const playersPagination = document.getElementById('playersPagination');
     const botsPagination = document.getElementById('botsPagination');
@@ -501,17 +502,47 @@ document.addEventListener('DOMContentLoaded', async () => {
     });
 
     // Data storage
-    let allPlayersData = [];
+    // Players are filtered, sorted and paginated by the server; only loaded pages are kept here
+    const PLAYERS_BATCH_SIZE = 100;
+    let loadedPlayers = [];
+    let playersCursor = null;
+    let playersTotal = 0;
+    let playersLoading = false;
+    let playersRequestId = 0;
     let allBotsData = [];
-    let filteredPlayersData = [];
     let filteredBotsData = [];
-    let currentPlayersPage = 1;
     let currentBotsPage = 1;
-    let playersPageSizeValue = 50;
     let botsPageSizeValue = 50;
 
-    // Load players data
-    async function loadPlayersData() {
+    // Build the /api/players query from the search box, filter and sort controls
+    function buildPlayersQuery() {
+        const params = new URLSearchParams();
+        params.set('limit', PLAYERS_BATCH_SIZE);
+        const keyword = playersSearch ? playersSearch.value.trim() : '';
+        if (keyword) {
+            if (/^\d+$/.test(keyword)) {
+                params.set('qq', keyword);
+            } else if (keyword.includes('=')) {
+                params.set('meta', keyword);
+            } else {
+                params.set('name', keyword);
+            }
+        }
+        const status = playersStatusFilter ? playersStatusFilter.value : '';
+        if (status) {
+            params.set('bound', status);
+        }
+        const [sort, order] = (playersSort ? playersSort.value : 'created:desc').split(':');
+        params.set('sort', sort);
+        params.set('order', order);
+        if (playersCursor) {
+            params.set('cursor', playersCursor);
+        }
+        return params.toString();
+    }
+
+    // Load players data. With reset the list starts over, otherwise the next page is appended.
+    async function loadPlayersData(reset = true) {
         if (!apiToken) {
             console.error('API Token not available for loading players');
             if (playersTableBody) {
@@ -519,9 +550,16 @@ document.addEventListener('DOMContentLoaded', async () => {
             }
             return;
         }
-        const loadingOverlay = Loading.show('加载玩家数据...');
+        if (reset) {
+            playersCursor = null;
+        } else if (playersLoading || !playersCursor) {
+            return;
+        }
+        const requestId = ++playersRequestId; // Responses of superseded searches are dropped
+        playersLoading = true;
+        renderPlayersStatus();
         try {
-            const response = await fetch('/api/players', {
+            const response = await fetch(`/api/players?${buildPlayersQuery()}`, {
                 headers: { 'X-API-Token': apiToken }
             });
             if (!response.ok) {
@@ -535,22 +573,32 @@ document.addEventListener('DOMContentLoaded', async () => {
                 throw new Error(`HTTP ${response.status}: ${response.statusText}`);
             }
             const data = await response.json();
-            console.log('Loaded players data:', data.length, 'items');
-            allPlayersData = Array.isArray(data) ? data : [];
-            filteredPlayersData = [...allPlayersData];
-            console.log('Players data loaded:', allPlayersData.length, 'total players');
-            renderPlayersTable();
+            if (requestId !== playersRequestId) {
+                return;
+            }
+            const players = Array.isArray(data.players) ? data.players : [];
+            if (reset) {
+                loadedPlayers = [];
+                playersTableBody.innerHTML = '';
+                playersTotal = data.total || 0;
+            }
+            loadedPlayers.push(...players);
+            playersCursor = data.next_cursor || null;
+            appendPlayerRows(players);
         } catch (error) {
             console.error('Error loading players:', error);
             if (error.message !== 'Unauthorized') {
                 Toast.error(`加载玩家数据失败: ${error.message}`);
             }
             // Show empty state
-            if (playersTableBody) {
+            if (reset && playersTableBody) {
                 playersTableBody.innerHTML = '<tr><td colspan="6" style="text-align: center; padding: 32px; color: var(--text-secondary);">加载失败: ' + error.message + '</td></tr>';
             }
         } finally {
-            Loading.hide(loadingOverlay);
+            if (requestId === playersRequestId) {
+                playersLoading = false;
+                renderPlayersStatus();
+            }
         }
     }
 
@@ -598,23 +646,24 @@ document.addEventListener('DOMContentLoaded', async () => {
         }
     }
 
-    // Search players
+    // Search, filter and sort players on the server
     if (playersSearch) {
-        playersSearch.addEventListener('input', Utils.debounce((e) => {
-            const keyword = e.target.value.toLowerCase().trim();
-            if (keyword === '') {
-                filteredPlayersData = [...allPlayersData];
-            } else {
-                filteredPlayersData = allPlayersData.filter(player => {
-                    const name = (player.Name || '').toLowerCase();
-                    const qq = (player.QQ || '').toString();
-                    const uuid = (player.UUID || '').toLowerCase();
-                    return name.includes(keyword) || qq.includes(keyword) || uuid.includes(keyword);
-                });
+        playersSearch.addEventListener('input', Utils.debounce(() => loadPlayersData(true), 300));
+    }
+    if (playersStatusFilter) {
+        playersStatusFilter.addEventListener('change', () => loadPlayersData(true));
+    }
+    if (playersSort) {
+        playersSort.addEventListener('change', () => loadPlayersData(true));
+    }
+
+    // Infinite scroll: fetch the next page once the status line below the table becomes visible
+    if (playersPagination && 'IntersectionObserver' in window) {
+        new IntersectionObserver(entries => {
+            if (entries.some(entry => entry.isIntersecting)) {
+                loadPlayersData(false);
             }
-            currentPlayersPage = 1;
-            renderPlayersTable();
-        }, 300));
+        }, { rootMargin: '200px' }).observe(playersPagination);
     }
 
     // Search bots
@@ -637,14 +686,6 @@ document.addEventListener('DOMContentLoaded', async () => {
     }
 
     // Page size change
-    if (playersPageSize) {
-        playersPageSize.addEventListener('change', (e) => {
-            playersPageSizeValue = parseInt(e.target.value);
-            currentPlayersPage = 1;
-            renderPlayersTable();
-        });
-    }
-
     if (botsPageSize) {
         botsPageSize.addEventListener('change', (e) => {
             botsPageSizeValue = parseInt(e.target.value);
@@ -653,61 +694,69 @@ document.addEventListener('DOMContentLoaded', async () => {
         });
     }
 
-    // Render players table
-    function renderPlayersTable() {
+    // Append a page of players to the table
+    function appendPlayerRows(players) {
         if (!playersTableBody) return;
-        
-        const start = (currentPlayersPage - 1) * playersPageSizeValue;
-        const end = start + playersPageSizeValue;
-        const pageData = filteredPlayersData.slice(start, end);
-        const totalPages = Math.max(1, Math.ceil(filteredPlayersData.length / playersPageSizeValue));
 
-        playersTableBody.innerHTML = '';
-        if (pageData.length === 0) {
+        if (loadedPlayers.length === 0) {
             playersTableBody.innerHTML = '<tr><td colspan="6" style="text-align: center; padding: 32px; color: var(--text-secondary);">暂无数据</td></tr>';
-        } else {
-            pageData.forEach(player => {
-                const row = document.createElement('tr');
-                const createdDate = player.Created ? new Date(parseInt(player.Created)).toLocaleString('zh-CN') : 'N/A';
-                // Count bots for this player
-                const botCount = allBotsData.filter(bot => bot.owner_uuid === player.UUID).length;
-                row.innerHTML = `
-                    <td><code>${player.UUID || 'N/A'}</code></td>
-                    <td>${player.Name || 'N/A'}</td>
-                    <td>${player.QQ || '未绑定'}</td>
-                    <td>${createdDate}</td>
-                    <td>${botCount}</td>
-                    <td class="table-actions-cell">
-                        <button class="btn-secondary btn-small btn-edit" data-uuid="${player.UUID}">编辑</button>
-                        <button class="btn-unbind btn-small" data-uuid="${player.UUID}">解绑</button>
-                    </td>
-                `;
-                playersTableBody.appendChild(row);
-            });
+            return;
         }
-
-        // Bind events
-        playersTableBody.querySelectorAll('.btn-edit').forEach(btn => {
-            btn.addEventListener('click', () => {
-                const uuid = btn.getAttribute('data-uuid');
-                window.location.href = `admin_edit_player.html?uuid=${uuid}&token=${apiToken}`;
-            });
+        const fragment = document.createDocumentFragment();
+        players.forEach(player => {
+            const row = document.createElement('tr');
+            const createdDate = player.Created ? new Date(parseInt(player.Created)).toLocaleString('zh-CN') : 'N/A';
+            // Count bots for this player
+            const botCount = allBotsData.filter(bot => bot.owner_uuid === player.UUID).length;
+            row.innerHTML = `
+                <td><code>${player.UUID || 'N/A'}</code></td>
+                <td>${player.Name || 'N/A'}</td>
+                <td>${player.QQ && player.QQ !== '0' ? player.QQ : '未绑定'}</td>
+                <td>${createdDate}</td>
+                <td>${botCount}</td>
+                <td class="table-actions-cell">
+                    <button class="btn-secondary btn-small btn-edit" data-uuid="${player.UUID}">编辑</button>
+                    <button class="btn-unbind btn-small" data-uuid="${player.UUID}">解绑</button>
+                </td>
+            `;
+            fragment.appendChild(row);
         });
+        playersTableBody.appendChild(fragment);
+    }
 
-        playersTableBody.querySelectorAll('.btn-unbind').forEach(btn => {
-            btn.addEventListener('click', () => {
-                const uuid = btn.getAttribute('data-uuid');
-                const player = allPlayersData.find(p => p.UUID === uuid);
-                unbindPlayer(uuid, player?.Name || uuid);
-            });
-        });
+    // Row buttons are handled once on the table body, so appended pages need no extra listeners
+    playersTableBody.addEventListener('click', (e) => {
+        const btn = e.target.closest('button[data-uuid]');
+        if (!btn) return;
+        const uuid = btn.getAttribute('data-uuid');
+        if (btn.classList.contains('btn-edit')) {
+            window.location.href = `admin_edit_player.html?uuid=${uuid}&token=${apiToken}`;
+        } else if (btn.classList.contains('btn-unbind')) {
+            const player = loadedPlayers.find(p => p.UUID === uuid);
+            unbindPlayer(uuid, player?.Name || uuid);
+        }
+    });
 
-        // Render pagination
-        if (playersPagination) {
-            renderPagination(playersPagination, currentPlayersPage, totalPages, filteredPlayersData.length, playersPageSizeValue, (page) => {
-                currentPlayersPage = page;
-                renderPlayersTable();
-            });
+    // Show how many players are loaded below the table
+    function renderPlayersStatus() {
+        if (!playersPagination) return;
+        const info = document.createElement('div');
+        info.className = 'pagination-info';
+        if (playersLoading) {
+            info.textContent = '加载中...';
+        } else if (playersCursor) {
+            info.textContent = `已加载 ${loadedPlayers.length} / 共 ${playersTotal} 条，向下滚动加载更多`;
+        } else {
+            info.textContent = `共 ${loadedPlayers.length} 条`;
+        }
+        playersPagination.innerHTML = '';
+        playersPagination.appendChild(info);
+        if (!playersLoading && playersCursor && !('IntersectionObserver' in window)) {
+            const moreBtn = document.createElement('button');
+            moreBtn.className = 'pagination-btn';
+            moreBtn.textContent = '加载更多';
+            moreBtn.onclick = () => loadPlayersData(false);
+            playersPagination.appendChild(moreBtn);
         }
     }
 
@@ -0,0 +1,50 @@
+package com.cccece.authwithqq.auth;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PasswordService}.
+ */
+class PasswordServiceTest {
+  private static final Logger LOGGER = Logger.getLogger("test");
+
+  @Test
+  void hashesAndVerifies() throws Exception {
+    try (PasswordService service = new PasswordService(PasswordService.MIN_COST, 1, 4, LOGGER)) {
+      String hash = service.hash("hunter2").get(10, TimeUnit.SECONDS);
+      assertTrue(service.verify("hunter2", hash).get(10, TimeUnit.SECONDS));
+      assertFalse(service.verify("hunter3", hash).get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void closeFailsQueuedRequests() {
+    PasswordService service = new PasswordService(14, 1, 4, LOGGER); // About a second per hash
+    CompletableFuture<String> running = service.hash("occupies the only worker");
+    CompletableFuture<String> queuedHash = service.hash("hunter2");
+    CompletableFuture<Boolean> queuedVerify = service.verify("hunter2", "$2a$14$" + "a".repeat(53));
+    CompletableFuture<Integer> queuedCalibration = service.calibrate(100);
+    service.close();
+
+    assertRejected(queuedHash);
+    assertRejected(queuedVerify);
+    assertRejected(queuedCalibration);
+    assertRejected(service.hash("after close"));
+    running.cancel(false); // Still hashing on its daemon thread; nothing waits for it
+  }
+
+  private static void assertRejected(CompletableFuture<?> future) {
+    ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+  }
+}
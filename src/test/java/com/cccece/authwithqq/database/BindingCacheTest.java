@@ -0,0 +1,197 @@
+package com.cccece.authwithqq.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BindingCache}.
+ */
+class BindingCacheTest {
+  private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+  private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+  private static final UUID CAROL = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+  private static final UUID BOT = UUID.fromString("00000000-0000-0000-0000-0000000000b1");
+  private static final UUID OTHER_BOT = UUID.fromString("00000000-0000-0000-0000-0000000000b2");
+
+  private final BindingCache cache = new BindingCache(100);
+
+  private static BindingCache.Record player(String name, long qq) {
+    return BindingCache.Record.ABSENT.withPlayer(name).withQq(qq);
+  }
+
+  private static BindingCache.Record bot(String name, UUID owner) {
+    return BindingCache.Record.ABSENT.withBot(name, owner);
+  }
+
+  private void load(UUID uuid, BindingCache.Record record) {
+    cache.putRecords(Map.of(uuid, record), cache.stamp());
+  }
+
+  private long staleLoads() {
+    return cache.getStats().get("stale_loads").longValue();
+  }
+
+  @Test
+  void bindingChangedMovesUuidBetweenQqLists() {
+    load(ALICE, player("Alice", 111));
+    cache.putAccounts(111, List.of(ALICE, BOB), cache.stamp());
+    cache.putAccounts(222, List.of(CAROL), cache.stamp());
+
+    cache.bindingChanged(ALICE, 222);
+    assertEquals(List.of(BOB), cache.getAccounts(111));
+    assertEquals(List.of(CAROL, ALICE), cache.getAccounts(222));
+    assertEquals(222, cache.getRecord(ALICE).getQq());
+
+    cache.bindingChanged(ALICE, 222); // Applied again when the write commits
+    assertEquals(List.of(CAROL, ALICE), cache.getAccounts(222));
+
+    cache.bindingChanged(ALICE, 0);
+    assertEquals(List.of(CAROL), cache.getAccounts(222));
+    assertEquals(0, cache.getRecord(ALICE).getQq());
+  }
+
+  @Test
+  void bindingChangedOfUncachedPlayerDropsTheTargetList() {
+    cache.putAccounts(222, List.of(CAROL), cache.stamp());
+
+    // Whether BOB has a row is unknown, so the list cannot simply gain him
+    cache.bindingChanged(BOB, 222);
+    assertNull(cache.getAccounts(222));
+  }
+
+  @Test
+  void bindingChangedOfUnregisteredPlayerChangesNothing() {
+    load(BOB, BindingCache.Record.ABSENT);
+    cache.putAccounts(222, List.of(CAROL), cache.stamp());
+
+    cache.bindingChanged(BOB, 222); // The UPDATE matches no row
+    assertEquals(List.of(CAROL), cache.getAccounts(222));
+    assertFalse(cache.getRecord(BOB).isRegistered());
+  }
+
+  @Test
+  void playerDeletedClearsOwnedBots() {
+    load(ALICE, player("Alice", 111));
+    load(BOT, bot("AliceBot", ALICE));
+    load(OTHER_BOT, bot("BobBot", BOB));
+    cache.putAccounts(111, List.of(ALICE, CAROL), cache.stamp());
+    cache.putName("Alice", ALICE, cache.stamp());
+
+    cache.playerDeleted(ALICE);
+    assertNull(cache.getRecord(ALICE));
+    assertFalse(cache.getRecord(BOT).isBot());
+    assertNull(cache.getRecord(BOT).getBotOwner());
+    assertTrue(cache.getRecord(OTHER_BOT).isBot());
+    assertEquals(BOB, cache.getRecord(OTHER_BOT).getBotOwner());
+    assertEquals(List.of(CAROL), cache.getAccounts(111));
+    assertNull(cache.getUuidByName("Alice"));
+  }
+
+  @Test
+  void loadStartedBeforeAChangeOfItsKeyIsRejected() {
+    long stamp = cache.stamp();
+    cache.bindingChanged(ALICE, 222);
+
+    cache.putRecords(Map.of(ALICE, player("Alice", 111)), stamp);
+    cache.putAccounts(111, List.of(ALICE), stamp);
+    cache.putAccounts(222, List.of(), stamp); // The QQ number ALICE moved to
+    cache.putName("Alice", ALICE, stamp);
+    assertNull(cache.getRecord(ALICE));
+    assertNull(cache.getAccounts(111));
+    assertNull(cache.getAccounts(222));
+    assertNull(cache.getUuidByName("Alice"));
+    assertEquals(4, staleLoads());
+  }
+
+  @Test
+  void loadOfUnrelatedKeysIsKeptDuringWrites() {
+    long stamp = cache.stamp();
+    cache.playersAdded(Map.of(ALICE, "Alice"));
+    cache.bindingChanged(ALICE, 222);
+
+    cache.putRecords(Map.of(BOB, player("Bob", 333), ALICE, player("Alice", 111)), stamp);
+    cache.putAccounts(333, List.of(BOB), stamp);
+    cache.putName("Bob", BOB, stamp);
+    assertEquals(333, cache.getRecord(BOB).getQq());
+    assertNull(cache.getRecord(ALICE));
+    assertEquals(List.of(BOB), cache.getAccounts(333));
+    assertEquals(BOB, cache.getUuidByName("Bob"));
+    assertEquals(1, staleLoads());
+  }
+
+  @Test
+  void botLoadIsRejectedWhenItsOwnerWasDeleted() {
+    long stamp = cache.stamp();
+    cache.playerDeleted(ALICE);
+
+    cache.putRecords(Map.of(BOT, bot("AliceBot", ALICE), OTHER_BOT, bot("BobBot", BOB)), stamp);
+    assertNull(cache.getRecord(BOT));
+    assertNotNull(cache.getRecord(OTHER_BOT));
+  }
+
+  @Test
+  void loadsInFlightAreRejectedAfterClearOrWhenTheLogOverflows() {
+    long beforeClear = cache.stamp();
+    cache.clear();
+    cache.putRecords(Map.of(BOB, player("Bob", 333)), beforeClear);
+    assertNull(cache.getRecord(BOB));
+
+    long beforeOverflow = cache.stamp();
+    for (int i = 0; i < 10_000; i++) {
+      cache.bindingChanged(new UUID(1, i), 0);
+    }
+    cache.putRecords(Map.of(BOB, player("Bob", 333)), beforeOverflow);
+    assertNull(cache.getRecord(BOB)); // Too many changes to tell whether BOB was among them
+
+    load(BOB, player("Bob", 333));
+    assertNotNull(cache.getRecord(BOB));
+  }
+
+  @Test
+  void evictionKeepsReferencedEntries() {
+    BindingCache small = new BindingCache(3);
+    small.putRecords(Map.of(ALICE, player("Alice", 1)), small.stamp());
+    small.putRecords(Map.of(BOB, player("Bob", 2)), small.stamp());
+    small.putRecords(Map.of(CAROL, player("Carol", 3)), small.stamp());
+    assertNotNull(small.getRecord(ALICE));
+    assertNotNull(small.getRecord(CAROL));
+
+    small.putRecords(Map.of(BOT, bot("Bot", ALICE)), small.stamp());
+    assertNull(small.getRecord(BOB));
+    assertNotNull(small.getRecord(ALICE));
+    assertNotNull(small.getRecord(CAROL));
+    assertNotNull(small.getRecord(BOT));
+    assertEquals(1, small.getStats().get("evictions").longValue());
+  }
+
+  @Test
+  void evictionFallsBackToASecondPassWhenEverythingWasRead() {
+    BindingCache small = new BindingCache(2);
+    small.putAccounts(1, List.of(ALICE), small.stamp());
+    small.putAccounts(2, List.of(BOB), small.stamp());
+    small.getAccounts(1);
+    small.getAccounts(2);
+
+    small.putAccounts(3, List.of(CAROL), small.stamp());
+    assertEquals(List.of(CAROL), small.getAccounts(3));
+    assertEquals(2, small.getStats().get("qq_numbers").intValue());
+    assertEquals(1, small.getStats().get("evictions").longValue());
+  }
+
+  @Test
+  void disabledCacheStoresNothing() {
+    BindingCache disabled = new BindingCache(0);
+    disabled.putRecords(Map.of(ALICE, player("Alice", 1)), disabled.stamp());
+    disabled.putAccounts(1, List.of(ALICE), disabled.stamp());
+    assertNull(disabled.getRecord(ALICE));
+    assertNull(disabled.getAccounts(1));
+  }
+}
@@ -0,0 +1,107 @@
+package com.cccece.authwithqq.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that {@link DatabaseManager#getAllPlayersData()} returns what the former
+ * query-per-player export did, which PlayersExportBenchmark compares it with.
+ */
+class PlayersExportTest {
+  private static final int PLAYERS = 1000;
+
+  @TempDir
+  Path tempDir;
+
+  private DatabaseManager databaseManager;
+  private Connection conn;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    String path = tempDir.resolve("data.db").toString();
+    databaseManager = new DatabaseManager(path, DatabaseOptions.fromConfig(null), Logger.getLogger("test"));
+    conn = DriverManager.getConnection("jdbc:sqlite:" + path);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    conn.close();
+    databaseManager.close();
+  }
+
+  @Test
+  void joinReturnsTheSamePlayersAsQueryPerPlayer() throws SQLException {
+    conn.setAutoCommit(false);
+    try (PreparedStatement player = conn.prepareStatement(
+             "INSERT INTO auth_players (uuid, name, qq, created_at) VALUES (?, ?, ?, ?)");
+         PreparedStatement meta = conn.prepareStatement(
+             "INSERT INTO player_meta (uuid, meta_key, meta_value) VALUES (?, ?, ?)")) {
+      for (int i = 0; i < PLAYERS; i++) {
+        String uuid = UUID.randomUUID().toString();
+        player.setString(1, uuid);
+        player.setString(2, "Player" + i);
+        player.setLong(3, i % 4 == 0 ? 0 : 100_000_000L + i);
+        player.setLong(4, 1_700_000_000_000L - i * 1000L);
+        player.addBatch();
+        for (int key = 0; key < i % 4; key++) { // Zero to three meta rows per player
+          meta.setString(1, uuid);
+          meta.setString(2, "key" + key);
+          meta.setString(3, "value-" + i);
+          meta.addBatch();
+        }
+      }
+      player.executeBatch();
+      meta.executeBatch();
+    }
+    conn.commit();
+    conn.setAutoCommit(true);
+
+    List<Map<String, String>> expected = queryPerPlayer();
+    assertEquals(PLAYERS, expected.size());
+    assertEquals(new HashSet<>(expected), new HashSet<>(databaseManager.getAllPlayersData()));
+  }
+
+  private List<Map<String, String>> queryPerPlayer() throws SQLException {
+    List<Map<String, String>> data = new ArrayList<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT * FROM auth_players")) {
+      while (rs.next()) {
+        Map<String, String> playerMap = new HashMap<>();
+        String uuid = rs.getString("uuid");
+        playerMap.put("UUID", uuid);
+        playerMap.put("Name", rs.getString("name"));
+        playerMap.put("QQ", String.valueOf(rs.getLong("qq")));
+        playerMap.put("Created", String.valueOf(rs.getLong("created_at")));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+            "SELECT meta_key, meta_value FROM player_meta WHERE uuid = ?")) {
+          pstmt.setString(1, uuid);
+          try (ResultSet meta = pstmt.executeQuery()) {
+            while (meta.next()) {
+              playerMap.put(meta.getString("meta_key"), meta.getString("meta_value"));
+            }
+          }
+        }
+        data.add(playerMap);
+      }
+    }
+    return data;
+  }
+}
@@ -0,0 +1,134 @@
+package com.cccece.authwithqq.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the keyset pagination of {@link DatabaseManager#getPlayersPage}.
+ */
+class PlayersPageTest {
+  // NULL and the values a NULL used to turn into, "null" and 0, in every column
+  private static final String[] NAMES = {null, "null", "", "Alice", "bob", "Zed"};
+  private static final Long[] NUMBERS = {null, 0L, 7L, 100_000_000L};
+
+  @TempDir
+  Path tempDir;
+
+  private DatabaseManager databaseManager;
+  private Connection conn;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    String path = tempDir.resolve("data.db").toString();
+    databaseManager = new DatabaseManager(path, DatabaseOptions.fromConfig(null), Logger.getLogger("test"));
+    conn = DriverManager.getConnection("jdbc:sqlite:" + path);
+    try (PreparedStatement player = conn.prepareStatement(
+             "INSERT INTO auth_players (uuid, name, qq, created_at) VALUES (?, ?, ?, ?)");
+         PreparedStatement meta = conn.prepareStatement(
+             "INSERT INTO player_meta (uuid, meta_key, meta_value) VALUES (?, ?, ?)")) {
+      for (int i = 0; i < 60; i++) {
+        String uuid = UUID.nameUUIDFromBytes(("player" + i).getBytes(StandardCharsets.UTF_8)).toString();
+        player.setString(1, uuid);
+        player.setString(2, NAMES[i % NAMES.length]);
+        setNullable(player, 3, NUMBERS[i % NUMBERS.length]);
+        setNullable(player, 4, NUMBERS[i / 3 % NUMBERS.length]);
+        player.executeUpdate();
+        for (int key = 0; key < i % 3; key++) { // Several rows per player in the joined result
+          meta.setString(1, uuid);
+          meta.setString(2, "key" + key);
+          meta.setString(3, "value");
+          meta.executeUpdate();
+        }
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    conn.close();
+    databaseManager.close();
+  }
+
+  private static void setNullable(PreparedStatement pstmt, int index, Long value) throws SQLException {
+    if (value == null) {
+      pstmt.setNull(index, Types.BIGINT);
+    } else {
+      pstmt.setLong(index, value);
+    }
+  }
+
+  @Test
+  void pagesCoverEveryPlayerOnceAcrossNullValues() throws IOException, SQLException {
+    for (PlayerQuery.Sort sort : PlayerQuery.Sort.values()) {
+      for (String order : new String[] {"asc", "desc"}) {
+        for (int limit : new int[] {1, 2, 7}) {
+          assertEquals(expectedOrder(sort, order), pageThrough(sort, order, limit),
+              sort + " " + order + ", " + limit + " per page");
+        }
+      }
+    }
+  }
+
+  @Test
+  void malformedCursorValueIsRejected() {
+    String cursor = Base64.getUrlEncoder().encodeToString(
+        "NAME|asc|00000000-0000-0000-0000-000000000000|null".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IllegalArgumentException.class,
+        () -> PlayerQuery.fromParams(Map.of("sort", "name", "cursor", cursor)));
+  }
+
+  private List<String> expectedOrder(PlayerQuery.Sort sort, String order) throws SQLException {
+    List<String> uuids = new ArrayList<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT p.uuid FROM auth_players p ORDER BY "
+             + sort.getOrderBy() + " " + order + ", p.uuid " + order)) {
+      while (rs.next()) {
+        uuids.add(rs.getString(1));
+      }
+    }
+    return uuids;
+  }
+
+  private List<String> pageThrough(PlayerQuery.Sort sort, String order, int limit) throws IOException {
+    List<String> uuids = new ArrayList<>();
+    String cursor = null;
+    do {
+      Map<String, String> params = new HashMap<>();
+      params.put("sort", sort.name().toLowerCase(Locale.ROOT));
+      params.put("order", order);
+      params.put("limit", String.valueOf(limit));
+      if (cursor != null) {
+        params.put("cursor", cursor);
+      }
+      List<String> page = new ArrayList<>();
+      cursor = databaseManager.getPlayersPage(PlayerQuery.fromParams(params), row -> page.add(row.get("UUID")))
+          .getNextCursor();
+      assertEquals(cursor != null ? limit : page.size(), page.size());
+      uuids.addAll(page);
+    } while (cursor != null && uuids.size() <= 1000);
+    return uuids;
+  }
+}
@@ -0,0 +1,129 @@
+package com.cccece.authwithqq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+  @Test
+  void addedKeysAreNeverMissed() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01, 1 << 20);
+    SplittableRandom random = new SplittableRandom(42);
+    long[] added = new long[10_000]; // Sequential QQ numbers, then random ones
+    for (int i = 0; i < added.length; i++) {
+      added[i] = i < 5000 ? 100_000_000L + i : random.nextLong(10_000L, 10_000_000_000L);
+      filter.put(added[i]);
+    }
+    for (long key : added) {
+      assertTrue(filter.mightContain(key), "added key " + key);
+    }
+  }
+
+  @Test
+  void addedKeysAreNeverMissedWhenOverfilled() {
+    BloomFilter filter = new BloomFilter(100, 0.01, 64); // 512 bits for 20 times the expected keys
+    for (long key = 1; key <= 2000; key++) {
+      filter.put(key);
+    }
+    for (long key = 1; key <= 2000; key++) {
+      assertTrue(filter.mightContain(key), "added key " + key);
+    }
+  }
+
+  @Test
+  void rejectsMostAbsentKeysAtTheTargetRate() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01, 1 << 20);
+    for (long key = 0; key < 10_000; key++) {
+      filter.put(key * 7919);
+    }
+    int hits = 0;
+    for (long key = 0; key < 100_000; key++) {
+      if (filter.mightContain(-1 - key)) {
+        hits++;
+      }
+    }
+    assertTrue(hits < 2000, hits + " of 100000 absent keys let through"); // Expected about 1000
+  }
+
+  @Test
+  void statsReportCountsAndRates() {
+    BloomFilter filter = new BloomFilter(1000, 0.01, 1 << 20);
+    for (long key = 1; key <= 500; key++) {
+      filter.put(key);
+    }
+    filter.put(1); // Re-adding sets no new bits and is not counted
+    filter.mightContain(1);
+    filter.mightContain(2);
+    filter.mightContain(-1);
+    filter.mightContain(-2);
+    filter.mightContain(-3);
+    filter.recordFalsePositive();
+
+    Map<String, Number> stats = filter.getStats();
+    long bits = stats.get("memory_bytes").longValue() * 8;
+    int hashes = stats.get("hash_functions").intValue();
+    assertEquals(500, stats.get("keys").longValue());
+    assertEquals(1000, stats.get("expected_keys").longValue());
+    assertEquals(0.01, stats.get("target_fpp").doubleValue());
+    assertEquals(Math.pow(1 - Math.exp(-(double) hashes * 500 / bits), hashes),
+        stats.get("estimated_fpp").doubleValue(), 1e-12);
+    long misses = stats.get("definite_misses").longValue();
+    assertEquals(5, misses + stats.get("possible_hits").longValue());
+    assertEquals(1, stats.get("false_positives").longValue());
+    assertEquals(1.0 / (misses + 1), stats.get("observed_fpp").doubleValue(), 1e-12);
+  }
+
+  @Test
+  void emptyFilterReportsZeroRates() {
+    Map<String, Number> stats = new BloomFilter(1000, 0.01, 1 << 20).getStats();
+    assertEquals(0, stats.get("keys").longValue());
+    assertEquals(0.0, stats.get("estimated_fpp").doubleValue());
+    assertEquals(0, stats.get("observed_fpp").intValue());
+  }
+
+  @Test
+  void sizedForExpectedKeysAndRate() {
+    // -1000 * ln(0.01) / ln(2)^2 = 9586 bits, rounded up to 150 words; 9600 / 1000 * ln(2) = 6.65 hashes
+    Map<String, Number> stats = new BloomFilter(1000, 0.01, 1 << 20).getStats();
+    assertEquals(1200, stats.get("memory_bytes").longValue());
+    assertEquals(7, stats.get("hash_functions").intValue());
+  }
+
+  @Test
+  void maxBytesCapsTheSizeAndLowersTheHashCount() {
+    // 1M keys at 1% would need 1.2 MB; 1 KB leaves 8192 bits, where one hash is optimal
+    BloomFilter capped = new BloomFilter(1_000_000, 0.01, 1024);
+    Map<String, Number> stats = capped.getStats();
+    assertEquals(1024, stats.get("memory_bytes").longValue());
+    assertEquals(1, stats.get("hash_functions").intValue());
+
+    // 10000 keys at 1% need 11.7 KB; 4 KB gives 32768 bits, 3.3 bits per key
+    stats = new BloomFilter(10_000, 0.01, 4096).getStats();
+    assertEquals(4096, stats.get("memory_bytes").longValue());
+    assertEquals(2, stats.get("hash_functions").intValue());
+  }
+
+  @Test
+  void tinyCapStillLeavesOneWord() {
+    BloomFilter filter = new BloomFilter(1000, 0.01, 0);
+    assertEquals(8, filter.getStats().get("memory_bytes").longValue());
+    filter.put(123_456_789L);
+    assertTrue(filter.mightContain(123_456_789L));
+  }
+
+  @Test
+  void extremeArgumentsAreClamped() {
+    Map<String, Number> stats = new BloomFilter(0, 2.0, 1 << 20).getStats();
+    assertEquals(1, stats.get("expected_keys").longValue());
+    assertEquals(0.5, stats.get("target_fpp").doubleValue());
+    assertFalse(new BloomFilter(0, 0, 1 << 20).mightContain(1));
+  }
+}
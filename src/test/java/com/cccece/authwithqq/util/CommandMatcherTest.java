@@ -0,0 +1,79 @@
+package com.cccece.authwithqq.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CommandMatcher}.
+ */
+class CommandMatcherTest {
+  private static final CommandMatcher MATCHER =
+      CommandMatcher.compile(List.of("/login", "/bind", "/auth help"), "AuthWithQq");
+
+  // A command map where /b aliases our /bind and another plugin registers its own /bind
+  private static final Map<String, String> COMMANDS = Map.of(
+      "bind", "authwithqq:bind",
+      "authwithqq:bind", "authwithqq:bind",
+      "b", "authwithqq:bind",
+      "otherplugin:bind", "OtherPlugin:bind",
+      "login", "AuthMe:login",
+      "authme:login", "AuthMe:login");
+  private static final UnaryOperator<String> RESOLVER = COMMANDS::get;
+
+  @Test
+  void matchesWholeLabelsOnly() {
+    assertTrue(MATCHER.matches("/bind"));
+    assertTrue(MATCHER.matches("/bind setpassword secret"));
+    assertTrue(MATCHER.matches("/BIND"));
+    assertFalse(MATCHER.matches("/bindx"));
+    assertFalse(MATCHER.matches("/bindx setpassword secret"));
+    assertFalse(MATCHER.matches("/bin"));
+  }
+
+  @Test
+  void restrictsMultiWordEntriesToTheirSubCommand() {
+    assertTrue(MATCHER.matches("/auth help"));
+    assertTrue(MATCHER.matches("/auth help 2"));
+    assertFalse(MATCHER.matches("/auth"));
+    assertFalse(MATCHER.matches("/auth helpx"));
+    assertFalse(MATCHER.matches("/auth bind"));
+  }
+
+  @Test
+  void allowsOwnNamespaceWithoutResolver() {
+    assertTrue(MATCHER.matches("/authwithqq:bind"));
+    assertTrue(MATCHER.matches("/AuthWithQq:bind setpassword secret"));
+    assertFalse(MATCHER.matches("/authwithqq:bindx"));
+  }
+
+  @Test
+  void rejectsForeignNamespaceOfListedLabel() {
+    assertFalse(MATCHER.matches("/otherplugin:bind"));
+    assertFalse(MATCHER.matches("/otherplugin:bind", RESOLVER));
+    assertFalse(MATCHER.matches("/unknown:bind", RESOLVER));
+  }
+
+  @Test
+  void allowsNamespacedLabelOfTheSameCommand() {
+    assertTrue(MATCHER.matches("/authme:login", RESOLVER));
+    assertFalse(MATCHER.matches("/authme:login"));
+  }
+
+  @Test
+  void resolvesAliasesOfListedCommands() {
+    assertTrue(MATCHER.matches("/b", RESOLVER));
+    assertFalse(MATCHER.matches("/b"));
+    assertFalse(MATCHER.matches("/spawn", RESOLVER));
+  }
+
+  @Test
+  void emptyAllowListMatchesNothing() {
+    CommandMatcher empty = CommandMatcher.compile(List.of(), "authwithqq");
+    assertFalse(empty.matches("/bind", RESOLVER));
+  }
+}
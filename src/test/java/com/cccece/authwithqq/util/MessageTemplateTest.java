@@ -0,0 +1,93 @@
+package com.cccece.authwithqq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MessageTemplate}.
+ */
+class MessageTemplateTest {
+  private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacyAmpersand();
+
+  @Test
+  void slotInheritsTheStyleAtItsPosition() {
+    MessageTemplate template = MessageTemplate.compile("&7Welcome &a&l%player%&r&7, code %code%", SERIALIZER);
+    Component rendered = template.render(Map.of("%player%", "Steve", "%code%", "123456"));
+
+    assertEquals(SERIALIZER.deserialize("&7Welcome &a&lSteve&r&7, code 123456"), rendered);
+    Style player = styleOf(rendered, "Steve");
+    assertEquals(NamedTextColor.GREEN, player.color());
+    assertEquals(TextDecoration.State.TRUE, player.decoration(TextDecoration.BOLD));
+    Style code = styleOf(rendered, "123456");
+    assertEquals(NamedTextColor.GRAY, code.color());
+    assertEquals(TextDecoration.State.NOT_SET, code.decoration(TextDecoration.BOLD));
+  }
+
+  @Test
+  void staticMessageReturnsTheCachedComponent() {
+    MessageTemplate template = MessageTemplate.compile("&6请输入 /bind <验证码> <QQ号码> 以完成绑定。", SERIALIZER);
+
+    assertTrue(template.isStatic());
+    Component first = template.render(Map.of());
+    assertSame(first, template.render(Map.of("%code%", "123456"))); // Unused values change nothing
+    assertEquals(SERIALIZER.deserialize("&6请输入 /bind <验证码> <QQ号码> 以完成绑定。"), first);
+  }
+
+  @Test
+  void templateWithPlaceholdersIsNotStatic() {
+    assertFalse(MessageTemplate.compile("&a%player%", SERIALIZER).isStatic());
+  }
+
+  @Test
+  void ampersandCodesInValuesAreLiteral() {
+    MessageTemplate template = MessageTemplate.compile("&c导出失败: %error%", SERIALIZER);
+    Component rendered = template.render(Map.of("%error%", "&aboom &lagain"));
+
+    assertEquals("导出失败: &aboom &lagain", PlainTextComponentSerializer.plainText().serialize(rendered));
+    Style error = styleOf(rendered, "&aboom");
+    assertEquals(NamedTextColor.RED, error.color());
+    assertEquals(TextDecoration.State.NOT_SET, error.decoration(TextDecoration.BOLD));
+  }
+
+  @Test
+  void repeatedAndMissingPlaceholders() {
+    MessageTemplate template = MessageTemplate.compile("&e%player% / %player% / %missing%", SERIALIZER);
+    Component rendered = template.render(Map.of("%player%", "Alex"));
+
+    assertEquals("Alex / Alex / %missing%", PlainTextComponentSerializer.plainText().serialize(rendered));
+  }
+
+  // The effective style of the text component containing the needle, including inherited style.
+  private static Style styleOf(Component component, String needle) {
+    Style style = find(component, needle, Style.empty());
+    assertNotNull(style, "no component contains " + needle);
+    return style;
+  }
+
+  private static Style find(Component component, String needle, Style inherited) {
+    Style style = inherited.merge(component.style());
+    if (component instanceof TextComponent text && text.content().contains(needle)) {
+      return style;
+    }
+    for (Component child : component.children()) {
+      Style found = find(child, needle, style);
+      if (found != null) {
+        return found;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,138 @@
+package com.cccece.authwithqq.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests for {@link TimingWheel}, driven tick by tick through a manual clock.
+ */
+class TimingWheelTest {
+  private static final long TICK_MILLIS = 1000L;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private long tick;
+
+  private TimingWheel wheel(int levelCount) {
+    return new TimingWheel(TICK_MILLIS, "test", Logger.getLogger("test"), levelCount, nanos::get);
+  }
+
+  // A delay of (n - 1) ticks fires on the n-th tick from now, as the current tick counts as started.
+  private TimingWheel.Timeout scheduleInTicks(TimingWheel wheel, long ticks, Runnable task) {
+    return wheel.schedule((ticks - 1) * TICK_MILLIS, task);
+  }
+
+  private void advanceTo(TimingWheel wheel, long target) {
+    while (tick < target) {
+      tick++;
+      nanos.set(TimeUnit.MILLISECONDS.toNanos(tick * TICK_MILLIS));
+      wheel.advance();
+    }
+  }
+
+  private void assertFiresOnDeadline(TimingWheel wheel, long start, long... delays) {
+    advanceTo(wheel, start);
+    Map<Long, List<Long>> fired = new LinkedHashMap<>();
+    for (long delay : delays) {
+      List<Long> ticks = new ArrayList<>();
+      fired.put(delay, ticks);
+      scheduleInTicks(wheel, delay, () -> ticks.add(tick));
+    }
+    long last = 0;
+    for (long delay : delays) {
+      last = Math.max(last, delay);
+    }
+    advanceTo(wheel, start + last + 64);
+    fired.forEach((delay, ticks) -> assertEquals(List.of(start + delay), ticks, "delay of " + delay + " ticks"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = {0, 1, 37, 4095})
+  void firesOnDeadlineAcrossLevelBoundaries(long start) {
+    assertFiresOnDeadline(wheel(5), start, 1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_144, 262_145);
+  }
+
+  @Test
+  void firesOnDeadlineBeyondMaxSpan() {
+    // Two levels span 4096 ticks, so longer delays are clamped and re-placed on each top-level cascade
+    assertFiresOnDeadline(wheel(2), 5, 4095, 4096, 4097, 5000, 8192, 10_000, 20_001);
+  }
+
+  @Test
+  void cancelBeforeFiringStopsTheCallback() {
+    TimingWheel wheel = wheel(5);
+    List<Long> fired = new ArrayList<>();
+    TimingWheel.Timeout timeout = scheduleInTicks(wheel, 100, () -> fired.add(tick));
+    TimingWheel.Timeout other = scheduleInTicks(wheel, 100, () -> fired.add(-tick));
+    advanceTo(wheel, 99);
+
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+    advanceTo(wheel, 200);
+    assertEquals(List.of(-100L), fired); // The other timeout in the same slot is unaffected
+    assertFalse(other.cancel());
+  }
+
+  @Test
+  void cancelAfterFiringReturnsFalse() {
+    TimingWheel wheel = wheel(5);
+    List<Long> fired = new ArrayList<>();
+    TimingWheel.Timeout timeout = scheduleInTicks(wheel, 5000, () -> fired.add(tick));
+    advanceTo(wheel, 5000);
+
+    assertEquals(List.of(5000L), fired);
+    assertFalse(timeout.cancel());
+    assertEquals(0L, wheel.getStats().get("cancelled").longValue());
+  }
+
+  @Test
+  void countsPendingExpiredAndCancelled() {
+    TimingWheel wheel = wheel(5);
+    TimingWheel.Timeout cancelled = scheduleInTicks(wheel, 10, () -> { });
+    scheduleInTicks(wheel, 10, () -> { });
+    scheduleInTicks(wheel, 70, () -> { });
+    scheduleInTicks(wheel, 5000, () -> { });
+    assertStats(wheel, 4, 4, 0, 0);
+
+    cancelled.cancel();
+    assertStats(wheel, 3, 4, 0, 1);
+    advanceTo(wheel, 10);
+    assertStats(wheel, 2, 4, 1, 1);
+    advanceTo(wheel, 70);
+    assertStats(wheel, 1, 4, 2, 1);
+    advanceTo(wheel, 5000);
+    assertStats(wheel, 0, 4, 3, 1);
+  }
+
+  @Test
+  void failingCallbackDoesNotStopTheOthers() {
+    TimingWheel wheel = wheel(5);
+    List<Long> fired = new ArrayList<>();
+    scheduleInTicks(wheel, 3, () -> {
+      throw new IllegalStateException("expected");
+    });
+    scheduleInTicks(wheel, 3, () -> fired.add(tick));
+    scheduleInTicks(wheel, 4, () -> fired.add(tick));
+    advanceTo(wheel, 4);
+    assertEquals(List.of(3L, 4L), fired);
+  }
+
+  private static void assertStats(TimingWheel wheel, long pending, long scheduled, long expired, long cancelled) {
+    Map<String, Number> stats = wheel.getStats();
+    assertEquals(pending, stats.get("pending").longValue(), "pending");
+    assertEquals(scheduled, stats.get("scheduled").longValue(), "scheduled");
+    assertEquals(expired, stats.get("expired").longValue(), "expired");
+    assertEquals(cancelled, stats.get("cancelled").longValue(), "cancelled");
+  }
+}